@@ -27,14 +27,20 @@ package com.pholser.lambspec.adapters.guava;
 
 import java.util.function.Predicate;
 
+import com.pholser.lambspec.StableDescription;
+
 /**
  * A predicate that adapts a
  * <a href="https://code.google.com/p/guava-libraries/">Guava</a> predicate.
  *
+ * <p>The adapted predicate's description is built the first time it is
+ * asked for, and kept.</p>
+ *
  * @param <T> a constraint on the type of arguments to the predicate
  */
-public class GuavaPredicate<T> implements Predicate<T> {
+public class GuavaPredicate<T> implements Predicate<T>, StableDescription {
     private final com.google.common.base.Predicate<? super T> adapted;
+    private volatile String description;
 
     private GuavaPredicate(com.google.common.base.Predicate<? super T> adapted) {
         this.adapted = adapted;
@@ -58,6 +64,11 @@ public class GuavaPredicate<T> implements Predicate<T> {
     }
 
     @Override public String toString() {
-        return adapted.toString();
+        String result = description;
+        if (result == null) {
+            result = adapted.toString();
+            description = result;
+        }
+        return result;
     }
 }
@@ -25,6 +25,8 @@
 
 package com.pholser.lambspec.adapters.guava;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import static com.google.common.base.Predicates.*;
@@ -49,4 +51,26 @@ public class GuavaPredicateTest {
 
         fail();
     }
+
+    @Test public void buildsDescriptionOnlyOnce() {
+        AtomicInteger descriptions = new AtomicInteger();
+        GuavaPredicate<Object> predicate =
+            applyTo(new com.google.common.base.Predicate<Object>() {
+                @Override public boolean apply(Object input) {
+                    return true;
+                }
+
+                @Override public String toString() {
+                    descriptions.incrementAndGet();
+                    return "anything";
+                }
+            });
+
+        expect("foo").to(predicate);
+        assertEquals(0, descriptions.get());
+
+        assertEquals("anything", predicate.toString());
+        assertEquals("anything", predicate.toString());
+        assertEquals(1, descriptions.get());
+    }
 }
@@ -27,6 +27,9 @@ package com.pholser.lambspec.adapters.hamcrest;
 
 import java.util.function.Predicate;
 
+import com.pholser.lambspec.Describable;
+import com.pholser.lambspec.StableDescription;
+import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.hamcrest.StringDescription;
 
@@ -34,10 +37,17 @@ import org.hamcrest.StringDescription;
  * A predicate that adapts a
  * <a href="http://hamcrest.org/JavaHamcrest/">Hamcrest</a> matcher.
  *
+ * <p>The matcher's description is built the first time it is asked for,
+ * and kept. When a target does not satisfy the predicate, the matcher's
+ * own description of the mismatch is added to the failure message.</p>
+ *
  * @param <T> a constraint on the type of arguments to the predicate
  */
-public class MatcherPredicate<T> implements Predicate<T> {
+public class MatcherPredicate<T>
+    implements Predicate<T>, Describable, StableDescription {
+
     private final Matcher<? super T> matcher;
+    private volatile String description;
 
     private MatcherPredicate(Matcher<? super T> matcher) {
         this.matcher = matcher;
@@ -58,7 +68,19 @@ public class MatcherPredicate<T> implements Predicate<T> {
         return matcher.matches(subject);
     }
 
+    @Override public String describeMismatch(Object target) {
+        Description mismatch = new StringDescription();
+        matcher.describeMismatch(target, mismatch);
+        String result = mismatch.toString();
+        return result.isEmpty() ? null : result;
+    }
+
     @Override public String toString() {
-        return StringDescription.toString(matcher);
+        String result = description;
+        if (result == null) {
+            result = StringDescription.toString(matcher);
+            description = result;
+        }
+        return result;
     }
 }
@@ -25,6 +25,8 @@
 
 package com.pholser.lambspec.adapters.hamcrest;
 
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
 import org.hamcrest.StringDescription;
 import org.junit.Test;
 
@@ -45,11 +47,53 @@ public class MatcherPredicateTest {
             assertEquals(
                 "[foo] did not satisfy ["
                     + StringDescription.toString(startsWith("d"))
-                    + ']',
+                    + "]: was \"foo\"",
                 expected.getMessage());
             return;
         }
 
         fail();
     }
+
+    @Test public void buildsDescriptionOnlyOnce() {
+        CountingMatcher matcher = new CountingMatcher();
+        MatcherPredicate<Object> predicate = match(matcher);
+
+        expect("foo").to(predicate).to(predicate);
+        assertEquals(0, matcher.descriptions);
+
+        predicate.toString();
+        predicate.toString();
+        assertEquals(1, matcher.descriptions);
+    }
+
+    @Test public void describesNoMismatchOnPassingPath() {
+        CountingMatcher matcher = new CountingMatcher();
+
+        expect("foo").to(match(matcher));
+
+        assertEquals(0, matcher.mismatches);
+    }
+
+    private static class CountingMatcher extends BaseMatcher<Object> {
+        int descriptions;
+        int mismatches;
+
+        @Override public boolean matches(Object item) {
+            return true;
+        }
+
+        @Override public void describeTo(Description description) {
+            ++descriptions;
+            description.appendText("anything");
+        }
+
+        @Override public void describeMismatch(
+            Object item,
+            Description description) {
+
+            ++mismatches;
+            super.describeMismatch(item, description);
+        }
+    }
 }
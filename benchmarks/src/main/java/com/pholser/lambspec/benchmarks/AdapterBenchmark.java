@@ -0,0 +1,105 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.pholser.lambspec.Subject;
+import com.pholser.lambspec.adapters.guava.GuavaPredicate;
+import com.pholser.lambspec.adapters.hamcrest.MatcherPredicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.google.common.base.Predicates.*;
+import static com.pholser.lambspec.Subject.*;
+import static org.hamcrest.CoreMatchers.*;
+
+/**
+ * Cost of evaluating and describing Hamcrest matchers and Guava predicates
+ * through their lambspec adapters.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdapterBenchmark {
+    private String target;
+    private MatcherPredicate<String> matcher;
+    private MatcherPredicate<String> nestedMatcher;
+    private GuavaPredicate<CharSequence> guava;
+    private GuavaPredicate<CharSequence> nestedGuava;
+
+    @Setup public void setUp() {
+        target = "lambspec";
+        matcher = MatcherPredicate.match(startsWith("lamb"));
+        nestedMatcher = MatcherPredicate.match(
+            allOf(
+                startsWith("lamb"),
+                anyOf(endsWith("spec"), endsWith("chop")),
+                not(containsString("veal"))));
+        guava = GuavaPredicate.applyTo(containsPattern("^lamb"));
+        nestedGuava = GuavaPredicate.applyTo(
+            and(
+                containsPattern("^lamb"),
+                and(
+                    or(containsPattern("spec$"), containsPattern("chop$")),
+                    not(containsPattern("veal")))));
+    }
+
+    @Benchmark public boolean matcherTest() {
+        return matcher.test(target);
+    }
+
+    @Benchmark public Subject<String> matcherThroughSubject() {
+        return expect(target).to(matcher);
+    }
+
+    @Benchmark public String nestedMatcherDescription() {
+        return nestedMatcher.toString();
+    }
+
+    @Benchmark public boolean guavaTest() {
+        return guava.test(target);
+    }
+
+    @Benchmark public Subject<String> guavaThroughSubject() {
+        return expect(target).to(guava);
+    }
+
+    @Benchmark public String nestedGuavaDescription() {
+        return nestedGuava.toString();
+    }
+}
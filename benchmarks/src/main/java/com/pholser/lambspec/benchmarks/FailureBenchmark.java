@@ -0,0 +1,157 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.pholser.lambspec.SerializablePredicate;
+import com.pholser.lambspec.SoftExpectations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+
+/**
+ * Cost of unmet expectations: raising the {@link AssertionError} and
+ * rendering its message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FailureBenchmark {
+    private Integer target;
+    private Predicate<Integer> negative;
+    private SerializablePredicate<Integer> below;
+
+    @State(Scope.Benchmark)
+    public static class Sequence {
+        @Param({ "10", "1000", "100000" })
+        public int size;
+
+        private List<Integer> items;
+        private Predicate<Integer> notLast;
+        private Predicate<List<Integer>> equalButForMiddle;
+
+        @Setup public void setUp() {
+            items = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i)
+                items.add(i);
+            List<Integer> changed = new ArrayList<>(items);
+            changed.set(size / 2, -1);
+            equalButForMiddle = be(changed);
+
+            notLast = meet("not the last item", i -> i != size - 1);
+        }
+    }
+
+    @Setup public void setUp() {
+        target = 1;
+        negative = meet("a negative number", i -> i < 0);
+        int bound = 0;
+        below = i -> i < bound;
+    }
+
+    @Benchmark public AssertionError expectToUnmet() {
+        try {
+            expect(target).to(negative);
+        } catch (AssertionError expected) {
+            return expected;
+        }
+        throw new IllegalStateException();
+    }
+
+    @Benchmark public int hundredUnmetSoftly() {
+        SoftExpectations soft = SoftExpectations.collect();
+        try {
+            for (int i = 0; i < 100; ++i)
+                expect(target).to(negative);
+        } finally {
+            try {
+                soft.close();
+            } catch (AssertionError expected) {
+                // close() reports the failures collected; count them instead
+            }
+        }
+        return soft.failureCount();
+    }
+
+    @Benchmark public String expectToUnmetMessage() {
+        return expectToUnmet().getMessage();
+    }
+
+    @Benchmark public String expectEachOfUnmetMessage(Sequence sequence) {
+        try {
+            expectEachOf(sequence.items).to(sequence.notLast);
+        } catch (AssertionError expected) {
+            return expected.getMessage();
+        }
+        throw new IllegalStateException();
+    }
+
+    @Benchmark public String expectAtLeastOneOfUnmetMessage(Sequence sequence) {
+        try {
+            expectAtLeastOneOf(sequence.items).to(negative);
+        } catch (AssertionError expected) {
+            return expected.getMessage();
+        }
+        throw new IllegalStateException();
+    }
+
+    @Benchmark public String expectToBeUnmetMessage(Sequence sequence) {
+        try {
+            expect(sequence.items).to(sequence.equalButForMiddle);
+        } catch (AssertionError expected) {
+            return expected.getMessage();
+        }
+        throw new IllegalStateException();
+    }
+
+    @Benchmark public String expectToUnmetLambdaMessage() {
+        try {
+            expect(target).to(below);
+        } catch (AssertionError expected) {
+            return expected.getMessage();
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import com.pholser.lambspec.Lambspec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.pholser.lambspec.Lambspec.*;
+
+/**
+ * Cost of building and evaluating the predicates that {@link Lambspec}
+ * hands out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LambspecBenchmark {
+    @Param({ "10", "1000" })
+    public int size;
+
+    private String target;
+    private List<String> list;
+    private Set<String> set;
+    private String lastItem;
+    private Predicate<String> conjunctionOfTwo;
+    private Predicate<String> conjunctionOfEight;
+    private Predicate<String> adaptiveConjunctionOfEight;
+    private Predicate<String> disjunctionOfEight;
+    private Predicate<Iterable<String>> haveInList;
+    private Predicate<Iterable<String>> haveInSet;
+    private Predicate<Iterable<String>> haveAllOfTen;
+    private List<String> reversed;
+    private Predicate<Iterable<String>> containExactlyInAnyOrder;
+    private List<Integer> ascending;
+    private Predicate<Iterable<Integer>> sortedWithoutDuplicates;
+    private Predicate<Iterable<Integer>> sortedInParallel;
+    private String log;
+    private Predicate<CharSequence> containNoneOfHundred;
+    private Predicate<String> anyOfHundredContains;
+    private List<List<String>> rows;
+    private Predicate<List<List<String>>> deeplyEqualRows;
+    private Predicate<List<List<String>>> deeplyEqualRowsInParallel;
+
+    @Setup public void setUp() {
+        target = "lambspec";
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i)
+            list.add("item" + i);
+        set = new HashSet<>(list);
+        lastItem = "item" + (size - 1);
+
+        conjunctionOfTwo =
+            satisfyAll(s -> s.startsWith("l"), s -> s.endsWith("c"));
+        conjunctionOfEight = satisfyAll(
+            s -> s.length() > 0,
+            s -> s.length() < 100,
+            s -> s.startsWith("l"),
+            s -> s.endsWith("c"),
+            s -> s.contains("mb"),
+            s -> s.indexOf('s') > 0,
+            s -> !s.isEmpty(),
+            s -> s.charAt(0) == 'l');
+        adaptiveConjunctionOfEight = satisfyAllAdaptively(conjunctionOfEight);
+        disjunctionOfEight = satisfyAny(
+            s -> s.isEmpty(),
+            s -> s.length() > 100,
+            s -> s.startsWith("x"),
+            s -> s.endsWith("y"),
+            s -> s.contains("zz"),
+            s -> s.indexOf('q') > 0,
+            s -> s.charAt(0) == 'w',
+            s -> s.startsWith("l"));
+        haveInList = have(lastItem);
+        haveInSet = have(lastItem);
+        String[] wanted = new String[10];
+        for (int i = 0; i < wanted.length; ++i)
+            wanted[i] = "item" + (size - 1 - i % size);
+        haveAllOfTen = haveAll(wanted);
+        reversed = new ArrayList<>(list);
+        Collections.reverse(reversed);
+        containExactlyInAnyOrder = containExactlyInAnyOrder(list);
+        ascending = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i)
+            ascending.add(i);
+        sortedWithoutDuplicates =
+            Lambspec.<Integer> beSorted().withoutDuplicates();
+        sortedInParallel = Lambspec.<Integer> beSorted().inParallel();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < size; ++i)
+            lines.append("line ").append(i).append(" ok\n");
+        log = lines.toString();
+        String[] forbidden = new String[100];
+        List<Predicate<String>> contains = new ArrayList<>();
+        for (int i = 0; i < forbidden.length; ++i) {
+            String token = "forbidden" + i;
+            forbidden[i] = token;
+            contains.add(s -> s.contains(token));
+        }
+        containNoneOfHundred = containNoneOf(forbidden);
+        @SuppressWarnings("unchecked")
+        Predicate<String>[] rest = contains.subList(1, contains.size())
+            .toArray(new Predicate[contains.size() - 1]);
+        anyOfHundredContains = satisfyAny(contains.get(0), rest);
+        rows = new ArrayList<>(size);
+        List<List<String>> copy = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            rows.add(new ArrayList<>(list.subList(0, Math.min(size, 10))));
+            copy.add(new ArrayList<>(list.subList(0, Math.min(size, 10))));
+        }
+        deeplyEqualRows = beDeeplyEqualTo(copy);
+        deeplyEqualRowsInParallel =
+            beDeeplyEqualTo(copy, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark public boolean satisfyAllOfTwo() {
+        return conjunctionOfTwo.test(target);
+    }
+
+    @Benchmark public boolean satisfyAllOfEight() {
+        return conjunctionOfEight.test(target);
+    }
+
+    @Benchmark public boolean adaptiveSatisfyAllOfEight() {
+        return adaptiveConjunctionOfEight.test(target);
+    }
+
+    @Benchmark public boolean satisfyAnyOfEightMatchingLast() {
+        return disjunctionOfEight.test(target);
+    }
+
+    @Benchmark public Predicate<String> buildSatisfyAllOfTwo() {
+        return satisfyAll(s -> s.startsWith("l"), s -> s.endsWith("c"));
+    }
+
+    @Benchmark public boolean haveLastItemOfList() {
+        return haveInList.test(list);
+    }
+
+    @Benchmark public boolean haveLastItemOfSet() {
+        return haveInSet.test(set);
+    }
+
+    @Benchmark public boolean haveAllOfTenInList() {
+        return haveAllOfTen.test(list);
+    }
+
+    @Benchmark public boolean haveAllOfTenInSet() {
+        return haveAllOfTen.test(set);
+    }
+
+    @Benchmark public boolean notBe() {
+        return Lambspec.<String> not(be("other")).test(target);
+    }
+
+    @Benchmark public boolean containExactlyInAnyOrderReversed() {
+        return containExactlyInAnyOrder.test(reversed);
+    }
+
+    @Benchmark public boolean beSortedWithoutDuplicates() {
+        return sortedWithoutDuplicates.test(ascending);
+    }
+
+    @Benchmark public boolean beSortedInParallel() {
+        return sortedInParallel.test(ascending);
+    }
+
+    @Benchmark public boolean matchRegexRebuilt() {
+        return matchRegex("[a-z]+").test(target);
+    }
+
+    @Benchmark public boolean patternCompiledInLambda() {
+        return Lambspec.<String> satisfy(
+            s -> Pattern.compile("[a-z]+").matcher(s).matches())
+            .test(target);
+    }
+
+    @Benchmark public boolean containNoneOfHundredTokens() {
+        return containNoneOfHundred.test(log);
+    }
+
+    @Benchmark public boolean satisfyAnyOfHundredContains() {
+        return anyOfHundredContains.test(log);
+    }
+
+    @Benchmark public boolean beDeeplyEqualToRows() {
+        return deeplyEqualRows.test(rows);
+    }
+
+    @Benchmark public boolean beDeeplyEqualToRowsInParallel() {
+        return deeplyEqualRowsInParallel.test(rows);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import com.pholser.lambspec.ForAllSubject;
+import com.pholser.lambspec.Generator;
+import com.pholser.lambspec.Guard;
+import com.pholser.lambspec.IntSubject;
+import com.pholser.lambspec.Subject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static com.pholser.lambspec.Subject.*;
+
+/**
+ * Throughput of the passing path through {@link Subject}: nominating a
+ * subject and meeting one or more expectations on it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubjectBenchmark {
+    @Param({ "10", "1000" })
+    public int size;
+
+    private Integer target;
+    private List<Integer> items;
+    private int[] primitiveItems;
+    private Predicate<Integer> nonNegative;
+    private IntPredicate primitiveNonNegative;
+    private Predicate<Integer> belowSize;
+    private Predicate<Integer> last;
+    private Guard<Integer> guard;
+    private Guard<Integer> sampledGuard;
+    private Generator<Integer> ints;
+
+    @Setup public void setUp() {
+        target = size / 2;
+        items = new ArrayList<>(size);
+        primitiveItems = new int[size];
+        for (int i = 0; i < size; ++i) {
+            items.add(i);
+            primitiveItems[i] = i;
+        }
+
+        nonNegative = i -> i >= 0;
+        primitiveNonNegative = i -> i >= 0;
+        belowSize = i -> i < size;
+        last = i -> i == size - 1;
+        guard = Guard.that(nonNegative);
+        sampledGuard = guard.sampling(100);
+        ints = Generator.ints(0, size);
+    }
+
+    @Benchmark public Subject<Integer> expectTo() {
+        return expect(target).to(nonNegative);
+    }
+
+    @Benchmark public Subject<Integer> expectToChained() {
+        return expect(target).to(nonNegative).to(belowSize);
+    }
+
+    @Benchmark public Subject<Integer> expectEachOfTo() {
+        return expectEachOf(items).to(nonNegative);
+    }
+
+    @Benchmark public Subject<Integer> expectAtLeastOneOfToMatchingLast() {
+        return expectAtLeastOneOf(items).to(last);
+    }
+
+    @Benchmark public IntSubject intExpectEachOfTo() {
+        return IntSubject.expectEachOf(primitiveItems).to(primitiveNonNegative);
+    }
+
+    @Benchmark public Integer guardCheck() {
+        guard.check(target);
+        return target;
+    }
+
+    @Benchmark public Integer sampledGuardCheck() {
+        sampledGuard.check(target);
+        return target;
+    }
+
+    @Benchmark public Subject<Integer> forAllTo() {
+        return ForAllSubject.forAll(ints).trials(size).seed(0).to(nonNegative);
+    }
+
+    @Benchmark public Subject<Integer> forAllInParallelTo() {
+        return ForAllSubject.forAll(ints)
+            .trials(size)
+            .seed(0)
+            .inParallel()
+            .to(nonNegative);
+    }
+}
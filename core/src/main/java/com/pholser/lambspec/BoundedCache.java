@@ -0,0 +1,305 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe cache holding at most a given total weight of entries,
+ * evicting the least recently used entries to make room for new ones.
+ *
+ * <p>The cache is split into independently locked segments, each of which
+ * gets an equal share of the total weight, so that threads seldom contend
+ * for a lock. Small caches use a single segment. An entry heavier than its
+ * segment's share is evicted as soon as it is cached. Values are computed
+ * outside of any lock; two threads missing on the same key at once may both
+ * compute its value.</p>
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ */
+final class BoundedCache<K, V> {
+    /** How keys are held and compared. */
+    enum Keys {
+        /** Held strongly, compared with {@link Object#equals(Object)}. */
+        EQUALITY,
+
+        /** Held strongly, compared by identity. */
+        IDENTITY,
+
+        /**
+         * Held weakly, compared by identity. Entries whose keys have been
+         * garbage-collected are dropped.
+         */
+        WEAK
+    }
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+    private static final long MINIMUM_SEGMENT_WEIGHT = 64;
+    private static final Object NULL = new Object();
+
+    private final Segment[] segments;
+    private final ToLongFunction<? super K> weigher;
+    private final Keys keys;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumWeight the most total weight the cache may hold
+     * @param weigher gives the weight of an entry by its key
+     * @param keys how to hold and compare keys
+     */
+    @SuppressWarnings("unchecked")
+    BoundedCache(
+        long maximumWeight,
+        ToLongFunction<? super K> weigher,
+        Keys keys) {
+
+        if (maximumWeight < 0)
+            throw new IllegalArgumentException("negative maximum weight");
+
+        int count = 1;
+        while (count < MAXIMUM_SEGMENTS
+            && count * 2L * MINIMUM_SEGMENT_WEIGHT <= maximumWeight)
+            count *= 2;
+
+        @SuppressWarnings("unchecked")
+        Segment[] made = (Segment[]) new BoundedCache<?, ?>.Segment[count];
+        for (int i = 0; i < count; ++i)
+            made[i] = new Segment(maximumWeight / count);
+        this.segments = made;
+        this.weigher = weigher;
+        this.keys = keys;
+    }
+
+    /**
+     * @param key a key
+     * @return the value cached for the key, or {@code null} if there is none
+     */
+    V get(K key) {
+        if (keys == Keys.WEAK && key == null) {
+            misses.increment();
+            return null;
+        }
+
+        Object lookup = lookupKey(key);
+        V value = segmentFor(lookup).get(lookup);
+        if (value == null)
+            misses.increment();
+        else
+            hits.increment();
+        return value;
+    }
+
+    /**
+     * Caches a value for a key, evicting other entries if need be.
+     *
+     * @param key a key
+     * @param value its value
+     */
+    void put(K key, V value) {
+        if (keys == Keys.WEAK && key == null)
+            return;
+
+        Segment segment = segmentFor(lookupKey(key));
+        segment.put(storedKey(key, segment), value, weigher.applyAsLong(key));
+    }
+
+    /** Drops all entries. */
+    void clear() {
+        for (Segment each : segments)
+            each.clear();
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    long size() {
+        long size = 0;
+        for (Segment each : segments)
+            size += each.size();
+        return size;
+    }
+
+    private Object lookupKey(K key) {
+        switch (keys) {
+            case EQUALITY:
+                return key == null ? NULL : key;
+            default:
+                return new IdentityKey(key);
+        }
+    }
+
+    private Object storedKey(K key, Segment segment) {
+        switch (keys) {
+            case EQUALITY:
+                return key == null ? NULL : key;
+            case IDENTITY:
+                return new IdentityKey(key);
+            default:
+                return new WeakKey(key, segment.stale);
+        }
+    }
+
+    private Segment segmentFor(Object key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private interface Key {
+        Object referent();
+    }
+
+    private static final class IdentityKey implements Key {
+        private final Object referent;
+
+        IdentityKey(Object referent) {
+            this.referent = referent;
+        }
+
+        @Override public Object referent() {
+            return referent;
+        }
+
+        @Override public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).referent() == referent;
+        }
+
+        @Override public int hashCode() {
+            return System.identityHashCode(referent);
+        }
+    }
+
+    private static final class WeakKey extends WeakReference<Object>
+        implements Key {
+
+        private final int hash;
+
+        WeakKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override public Object referent() {
+            return get();
+        }
+
+        @Override public boolean equals(Object other) {
+            if (other == this)
+                return true;
+
+            Object referent = get();
+            return referent != null
+                && other instanceof Key
+                && ((Key) other).referent() == referent;
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final class Segment {
+        private final long maximumWeight;
+        private final Map<Object, Entry<V>> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+        final ReferenceQueue<Object> stale = new ReferenceQueue<>();
+        private long weight;
+
+        Segment(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        synchronized V get(Object key) {
+            Entry<V> entry = entries.get(key);
+            return entry == null ? null : entry.value;
+        }
+
+        synchronized void put(Object key, V value, long entryWeight) {
+            expungeStale();
+
+            Entry<V> previous =
+                entries.put(key, new Entry<>(value, entryWeight));
+            if (previous != null)
+                weight -= previous.weight;
+            weight += entryWeight;
+
+            for (Iterator<Entry<V>> i = entries.values().iterator();
+                weight > maximumWeight && i.hasNext();) {
+
+                weight -= i.next().weight;
+                i.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized void clear() {
+            entries.clear();
+            weight = 0;
+        }
+
+        synchronized int size() {
+            expungeStale();
+            return entries.size();
+        }
+
+        private void expungeStale() {
+            for (Reference<?> r; (r = stale.poll()) != null;) {
+                Entry<V> entry = entries.remove(r);
+                if (entry != null)
+                    weight -= entry.weight;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.nio.ByteBuffer;
+import java.util.function.Predicate;
+
+/**
+ * Base for the predicates that {@link ByteBufferLambspec} hands out. They
+ * consider the bytes between a buffer's position and its limit, read them
+ * with absolute gets, and can say where a buffer went wrong. That is said
+ * as the failure is made, so a buffer read or changed afterwards does not
+ * change the message.
+ */
+abstract class BufferPredicate implements Predicate<ByteBuffer>, Describable {
+    @Override public final String describeMismatch(Object target) {
+        return target instanceof ByteBuffer
+            ? mismatch((ByteBuffer) target)
+            : null;
+    }
+
+    /**
+     * @param buffer a buffer that did not satisfy this predicate
+     * @return why it did not
+     */
+    abstract String mismatch(ByteBuffer buffer);
+}
@@ -0,0 +1,388 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>Sugar methods for creating expectations on the contents of
+ * {@link ByteBuffer}s, such as framing, magic numbers and checksums.</p>
+ *
+ * <p>The predicates made here consider the bytes between a buffer's
+ * position and its limit; offsets are relative to the position. They read
+ * buffers with absolute gets and through views, so they never copy a
+ * buffer's contents or disturb its position, limit or mark, and work
+ * equally on heap and direct buffers. When a buffer does not satisfy one
+ * of them, the failure message shows the bytes around the first mismatch
+ * in hex.</p>
+ *
+ * <p>For example:</p>
+ *
+ * <pre>
+ * expect(frame)
+ *     .to(startWith((byte) 0xca, (byte) 0xfe))
+ *     .to(haveCrc32c(4, frame.remaining() - 8, trailer));
+ * </pre>
+ */
+public class ByteBufferLambspec {
+    private ByteBufferLambspec() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates a predicate that decides whether a buffer has at least the
+     * given number of bytes remaining.
+     *
+     * @param count a number of bytes
+     * @return a predicate that tests how many bytes a buffer has remaining
+     * @throws IllegalArgumentException if {@code count} is negative
+     */
+    public static Predicate<ByteBuffer> haveRemaining(int count) {
+        nonNegative(count, "count");
+
+        return new BufferPredicate() {
+            @Override public boolean test(ByteBuffer buffer) {
+                return buffer.remaining() >= count;
+            }
+
+            @Override String mismatch(ByteBuffer buffer) {
+                return "had only " + buffer.remaining() + " bytes remaining";
+            }
+
+            @Override public String toString() {
+                return "at least " + count + " bytes remaining";
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a buffer's remaining bytes
+     * start with the given bytes.
+     *
+     * @param prefix some bytes
+     * @return a predicate that tests the start of a buffer
+     */
+    public static Predicate<ByteBuffer> startWith(byte... prefix) {
+        return region("starting with", 0, ByteBuffer.wrap(prefix.clone()));
+    }
+
+    /**
+     * Creates a predicate that decides whether a buffer holds the given
+     * bytes at the given offset.
+     *
+     * @param offset an offset from the buffer's position
+     * @param expected some bytes
+     * @return a predicate that tests a region of a buffer
+     * @throws IllegalArgumentException if {@code offset} is negative
+     */
+    public static Predicate<ByteBuffer> haveBytesAt(
+        int offset,
+        byte... expected) {
+
+        nonNegative(offset, "offset");
+
+        return region(
+            "with bytes at offset " + offset + ':',
+            offset,
+            ByteBuffer.wrap(expected.clone()));
+    }
+
+    /**
+     * Creates a predicate that decides whether a buffer holds, at the given
+     * offset, the bytes remaining in another buffer. The other buffer is
+     * read when the predicate is tested, without disturbing its position.
+     *
+     * @param offset an offset from the buffer's position
+     * @param expected a buffer whose remaining bytes are expected
+     * @return a predicate that tests a region of a buffer
+     * @throws IllegalArgumentException if {@code offset} is negative
+     */
+    public static Predicate<ByteBuffer> haveRegionEqualTo(
+        int offset,
+        ByteBuffer expected) {
+
+        nonNegative(offset, "offset");
+
+        return region(
+            "with bytes at offset " + offset + ':',
+            offset,
+            requireNonNull(expected));
+    }
+
+    /**
+     * Creates a predicate that decides whether the CRC-32 checksum of a
+     * region of a buffer is the given value.
+     *
+     * @param offset an offset from the buffer's position
+     * @param length the length of the region
+     * @param expected the expected checksum, as an unsigned value
+     * @return a predicate that tests the checksum of a region of a buffer
+     * @throws IllegalArgumentException if {@code offset} or {@code length}
+     * is negative
+     */
+    public static Predicate<ByteBuffer> haveCrc32(
+        int offset,
+        int length,
+        long expected) {
+
+        return checksum("CRC32", offset, length, expected, (b, from, to) -> {
+            CRC32 crc = new CRC32();
+            ((Buffer) b).limit(to).position(from);
+            crc.update(b);
+            return crc.getValue();
+        });
+    }
+
+    /**
+     * Creates a predicate that decides whether the CRC-32C (Castagnoli)
+     * checksum of a region of a buffer is the given value.
+     *
+     * @param offset an offset from the buffer's position
+     * @param length the length of the region
+     * @param expected the expected checksum, as an unsigned value
+     * @return a predicate that tests the checksum of a region of a buffer
+     * @throws IllegalArgumentException if {@code offset} or {@code length}
+     * is negative
+     */
+    public static Predicate<ByteBuffer> haveCrc32c(
+        int offset,
+        int length,
+        long expected) {
+
+        return checksum("CRC32C", offset, length, expected, Crc32c::of);
+    }
+
+    /**
+     * Creates a predicate that decides whether every {@code stride}th byte
+     * of a buffer, starting at the given offset, satisfies the given
+     * predicate. Bytes are given to the predicate as unsigned values, from
+     * 0 to 255.
+     *
+     * @param offset an offset from the buffer's position
+     * @param stride distance between bytes to test
+     * @param p a predicate
+     * @return a predicate that tests regularly spaced bytes of a buffer
+     * @throws IllegalArgumentException if {@code offset} is negative or
+     * {@code stride} is not positive
+     */
+    public static Predicate<ByteBuffer> haveEveryNthByte(
+        int offset,
+        int stride,
+        IntPredicate p) {
+
+        nonNegative(offset, "offset");
+        if (stride <= 0) {
+            throw new IllegalArgumentException(
+                "non-positive stride: " + stride);
+        }
+        requireNonNull(p);
+
+        return new BufferPredicate() {
+            @Override public boolean test(ByteBuffer buffer) {
+                return firstMiss(buffer) < 0;
+            }
+
+            @Override String mismatch(ByteBuffer buffer) {
+                int miss = firstMiss(buffer);
+                return String.format(
+                    "failed on byte 0x%02x at offset %d: %s",
+                    buffer.get(buffer.position() + miss),
+                    miss,
+                    HexDump.around(buffer, miss));
+            }
+
+            @Override public String toString() {
+                return "every byte " + stride + " apart from offset "
+                    + offset + " satisfying [" + p + ']';
+            }
+
+            private int firstMiss(ByteBuffer buffer) {
+                int base = buffer.position();
+                int size = buffer.remaining();
+                for (long i = offset; i < size; i += stride) {
+                    if (!p.test(buffer.get(base + (int) i) & 0xff))
+                        return (int) i;
+                }
+                return -1;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a region of a buffer
+     * satisfies the given predicate. The given predicate sees a view of
+     * just the region, whose position is zero; the region is not copied.
+     *
+     * @param offset an offset from the buffer's position
+     * @param length the length of the region
+     * @param p a predicate
+     * @return a predicate that tests a region of a buffer
+     * @throws IllegalArgumentException if {@code offset} or {@code length}
+     * is negative
+     */
+    public static Predicate<ByteBuffer> haveSlice(
+        int offset,
+        int length,
+        Predicate<? super ByteBuffer> p) {
+
+        nonNegative(offset, "offset");
+        nonNegative(length, "length");
+        requireNonNull(p);
+
+        return new BufferPredicate() {
+            @Override public boolean test(ByteBuffer buffer) {
+                return fits(buffer, offset, length)
+                    && p.test(slice(buffer, offset, length));
+            }
+
+            @Override String mismatch(ByteBuffer buffer) {
+                if (!fits(buffer, offset, length))
+                    return tooShort(buffer);
+
+                String detail = Mismatch.of(p, slice(buffer, offset, length));
+                return detail.isEmpty() ? null : "slice" + detail;
+            }
+
+            @Override public String toString() {
+                return "bytes " + range(offset, length) + " satisfying ["
+                    + p + ']';
+            }
+        };
+    }
+
+    private static Predicate<ByteBuffer> region(
+        String description,
+        int offset,
+        ByteBuffer expected) {
+
+        return new BufferPredicate() {
+            @Override public boolean test(ByteBuffer buffer) {
+                int length = expected.remaining();
+                return fits(buffer, offset, length)
+                    && slice(buffer, offset, length).equals(expected);
+            }
+
+            @Override String mismatch(ByteBuffer buffer) {
+                int length = expected.remaining();
+                if (!fits(buffer, offset, length))
+                    return tooShort(buffer);
+
+                int base = buffer.position() + offset;
+                int at = 0;
+                while (at < length
+                    && buffer.get(base + at) == expected.get(
+                        expected.position() + at)) {
+
+                    ++at;
+                }
+                return "differed at offset " + (offset + at) + ": "
+                    + HexDump.around(buffer, offset + at);
+            }
+
+            @Override public String toString() {
+                byte[] bytes = new byte[expected.remaining()];
+                expected.duplicate().get(bytes);
+                return description + " [" + HexDump.of(bytes) + ']';
+            }
+        };
+    }
+
+    private static Predicate<ByteBuffer> checksum(
+        String algorithm,
+        int offset,
+        int length,
+        long expected,
+        Checksum checksum) {
+
+        nonNegative(offset, "offset");
+        nonNegative(length, "length");
+
+        return new BufferPredicate() {
+            @Override public boolean test(ByteBuffer buffer) {
+                return fits(buffer, offset, length)
+                    && compute(buffer) == expected;
+            }
+
+            @Override String mismatch(ByteBuffer buffer) {
+                if (!fits(buffer, offset, length))
+                    return tooShort(buffer);
+                return String.format(
+                    "%s was 0x%08x",
+                    algorithm,
+                    compute(buffer));
+            }
+
+            @Override public String toString() {
+                return String.format(
+                    "%s 0x%08x over bytes %s",
+                    algorithm,
+                    expected,
+                    range(offset, length));
+            }
+
+            private long compute(ByteBuffer buffer) {
+                int from = buffer.position() + offset;
+                return checksum.of(buffer.duplicate(), from, from + length);
+            }
+        };
+    }
+
+    private static boolean fits(ByteBuffer buffer, int offset, int length) {
+        return (long) offset + length <= buffer.remaining();
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        int from = buffer.position() + offset;
+        ((Buffer) view).limit(from + length).position(from);
+        return view.slice();
+    }
+
+    private static String tooShort(ByteBuffer buffer) {
+        return "had only " + buffer.remaining() + " bytes remaining";
+    }
+
+    private static String range(int offset, int length) {
+        return "[" + offset + ", " + ((long) offset + length) + ')';
+    }
+
+    private static void nonNegative(int value, String name) {
+        if (value < 0)
+            throw new IllegalArgumentException(
+                "negative " + name + ": " + value);
+    }
+
+    @FunctionalInterface
+    private interface Checksum {
+        long of(ByteBuffer view, int from, int to);
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>A predicate that remembers the answers another predicate gave, so that
+ * an expensive predicate is not tested repeatedly on the same targets.</p>
+ *
+ * <p>Answers are held in a bounded, thread-safe cache that evicts the least
+ * recently used answers when full. By default, the cache holds up to
+ * {@value #DEFAULT_MAXIMUM_SIZE} answers, and recognizes targets it has seen
+ * before by {@link Object#equals(Object)}. Use {@link #maximumSize(long)},
+ * {@link #maximumWeight(long, ToLongFunction)}, {@link #identityKeys()} and
+ * {@link #weakKeys()} to make a predicate with a differently configured
+ * cache.</p>
+ *
+ * <p>Targets must not change in ways that would change the delegate's
+ * answer while they are cached.</p>
+ *
+ * <p>A caching predicate describes itself as its delegate does, so failure
+ * messages read the same with or without caching.</p>
+ *
+ * @param <T> a constraint on the type of arguments to the predicate
+ * @see Lambspec#cached(Predicate)
+ */
+public final class CachingPredicate<T>
+    implements Predicate<T>, Describable, StableDescription {
+
+    /** How many answers a cache holds unless told otherwise. */
+    public static final long DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private final Predicate<T> delegate;
+    private final long maximumWeight;
+    private final ToLongFunction<? super T> weigher;
+    private final BoundedCache.Keys keys;
+    private final BoundedCache<T, Boolean> cache;
+    private volatile String description;
+
+    private CachingPredicate(
+        Predicate<T> delegate,
+        long maximumWeight,
+        ToLongFunction<? super T> weigher,
+        BoundedCache.Keys keys) {
+
+        this.delegate = delegate;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.keys = keys;
+        this.cache = new BoundedCache<>(maximumWeight, weigher, keys);
+    }
+
+    static <U> CachingPredicate<U> of(Predicate<U> delegate) {
+        return new CachingPredicate<>(
+            requireNonNull(delegate),
+            DEFAULT_MAXIMUM_SIZE,
+            t -> 1,
+            BoundedCache.Keys.EQUALITY);
+    }
+
+    /**
+     * Makes a predicate like this one, whose cache holds at most the given
+     * number of answers.
+     *
+     * @param size the most answers to hold
+     * @return a new caching predicate, with an empty cache
+     */
+    public CachingPredicate<T> maximumSize(long size) {
+        return new CachingPredicate<>(delegate, size, t -> 1, keys);
+    }
+
+    /**
+     * Makes a predicate like this one, whose cache holds answers of at most
+     * the given total weight. Use this when some targets cost more to keep
+     * around than others.
+     *
+     * @param weight the most total weight of answers to hold
+     * @param weigher gives the weight of an answer by its target
+     * @return a new caching predicate, with an empty cache
+     */
+    public CachingPredicate<T> maximumWeight(
+        long weight,
+        ToLongFunction<? super T> weigher) {
+
+        return new CachingPredicate<>(
+            delegate,
+            weight,
+            requireNonNull(weigher),
+            keys);
+    }
+
+    /**
+     * Makes a predicate like this one, whose cache recognizes targets it has
+     * seen before by identity rather than equality.
+     *
+     * @return a new caching predicate, with an empty cache
+     */
+    public CachingPredicate<T> identityKeys() {
+        return new CachingPredicate<>(
+            delegate,
+            maximumWeight,
+            weigher,
+            BoundedCache.Keys.IDENTITY);
+    }
+
+    /**
+     * Makes a predicate like this one, whose cache holds targets weakly and
+     * recognizes them by identity. Answers for targets that are otherwise
+     * unreachable are dropped. A {@code null} target is never cached.
+     *
+     * @return a new caching predicate, with an empty cache
+     */
+    public CachingPredicate<T> weakKeys() {
+        return new CachingPredicate<>(
+            delegate,
+            maximumWeight,
+            weigher,
+            BoundedCache.Keys.WEAK);
+    }
+
+    @Override public boolean test(T target) {
+        Boolean answer = cache.get(target);
+        if (answer == null) {
+            answer = delegate.test(target);
+            cache.put(target, answer);
+        }
+        return answer;
+    }
+
+    /**
+     * @return how many tests were answered from the cache
+     */
+    public long hitCount() {
+        return cache.hitCount();
+    }
+
+    /**
+     * @return how many tests were answered by the delegate
+     */
+    public long missCount() {
+        return cache.missCount();
+    }
+
+    /**
+     * @return how many answers were evicted to make room for others
+     */
+    public long evictionCount() {
+        return cache.evictionCount();
+    }
+
+    /**
+     * @return how many answers the cache holds
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Drops all cached answers.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    @Override public String describeMismatch(Object target) {
+        return delegate instanceof Describable
+            ? ((Describable) delegate).describeMismatch(target)
+            : null;
+    }
+
+    @Override public String toString() {
+        String result = description;
+        if (result == null) {
+            result = LambdaDescriptions.describe(delegate);
+            description = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * <p>A conjunction or disjunction of many predicates, held in a flat array
+ * rather than a chain of nested {@link Predicate#and(Predicate)} or
+ * {@link Predicate#or(Predicate)} lambdas.</p>
+ *
+ * <p>Members are tested in the order given, stopping at the first that
+ * decides the outcome. When the composite is not satisfied, the failure
+ * message names the members that failed: the one that decided a
+ * conjunction, or every member of a disjunction. The failure is noted as
+ * it happens, in a record kept per thread and reused, so that members are
+ * not tested again to render the message; the record is cleared once the
+ * failure is described.</p>
+ *
+ * <p>An adaptive composite, made with {@link #adaptive()} or
+ * {@link Lambspec#satisfyAllAdaptively(Predicate, Predicate[])
+ * satisfyAllAdaptively}, keeps track of each
+ * member's pass rate and mean cost, and from time to time reorders the
+ * members so that cheap, decisive ones are tested first. Members should
+ * then be free of side effects, since which of them run will change.</p>
+ *
+ * @param <T> a constraint on the type of arguments to the predicate
+ * @see Lambspec#satisfyAll(Predicate, Predicate[])
+ * @see Lambspec#satisfyAny(Predicate, Predicate[])
+ * @see Lambspec#satisfyAllAdaptively(Predicate, Predicate[])
+ * @see Lambspec#satisfyAnyAdaptively(Predicate, Predicate[])
+ */
+public final class CompositePredicate<T>
+    implements Predicate<T>, Describable, StableDescription {
+
+    private static final int REORDER_INTERVAL = 1 << 10;
+
+    private static final ThreadLocal<Record> lastFailure =
+        ThreadLocal.withInitial(Record::new);
+
+    private final Predicate<? super T>[] members;
+    private final boolean disjunctive;
+    private final Member[] statistics;
+    private volatile Member[] order;
+    private volatile String description;
+    private int evaluations;
+
+    private CompositePredicate(
+        Predicate<? super T>[] members,
+        boolean disjunctive,
+        boolean adaptive) {
+
+        this.members = members;
+        this.disjunctive = disjunctive;
+        if (adaptive) {
+            statistics = new Member[members.length];
+            for (int i = 0; i < members.length; ++i)
+                statistics[i] = new Member(members[i]);
+            order = statistics.clone();
+        } else {
+            statistics = null;
+        }
+    }
+
+    static <U> CompositePredicate<U> allOf(
+        List<? extends Predicate<? super U>> members) {
+
+        return new CompositePredicate<>(flatten(members, false), false, false);
+    }
+
+    static <U> CompositePredicate<U> anyOf(
+        List<? extends Predicate<? super U>> members) {
+
+        return new CompositePredicate<>(flatten(members, true), true, false);
+    }
+
+    /**
+     * Makes a composite with the same members as this one, that learns
+     * which order to test them in.
+     *
+     * @return an adaptive composite
+     */
+    public CompositePredicate<T> adaptive() {
+        return new CompositePredicate<>(members, disjunctive, true);
+    }
+
+    /**
+     * Gives the statistics gathered on each member of an {@linkplain
+     * #adaptive() adaptive} composite, in the order the members were given.
+     *
+     * @return statistics on each member; empty for a composite that is not
+     * adaptive
+     */
+    public List<Statistics> statistics() {
+        if (statistics == null)
+            return Collections.emptyList();
+
+        List<Statistics> snapshots = new ArrayList<>(statistics.length);
+        for (Member each : statistics)
+            snapshots.add(each.snapshot());
+        return snapshots;
+    }
+
+    @Override public boolean test(T target) {
+        return statistics == null
+            ? testInOrder(target)
+            : testAdaptively(target);
+    }
+
+    @Override public Predicate<T> and(Predicate<? super T> other) {
+        return disjunctive || statistics != null
+            ? Predicate.super.and(other)
+            : allOf(Arrays.asList(this, other));
+    }
+
+    @Override public Predicate<T> or(Predicate<? super T> other) {
+        return !disjunctive || statistics != null
+            ? Predicate.super.or(other)
+            : anyOf(Arrays.asList(this, other));
+    }
+
+    @Override public String describeMismatch(Object target) {
+        Describable failure = recordedFailure(target);
+        return failure == null ? null : failure.describeMismatch(target);
+    }
+
+    /**
+     * Takes the failure recorded on the current thread when this composite
+     * was last not satisfied by the given target, if any, clearing the
+     * record.
+     *
+     * @param target an object that did not satisfy this composite
+     * @return the recorded failure, or {@code null} if there is none
+     */
+    Describable recordedFailure(Object target) {
+        Record record = lastFailure.get();
+        if (record.composite != this || record.target != target)
+            return null;
+
+        Failure failure = new Failure(this, record.decisive);
+        record.note(null, null, null);
+        return failure;
+    }
+
+    @Override public String toString() {
+        String result = description;
+        if (result == null) {
+            result = (disjunctive ? "any of " : "all of ")
+                + Arrays.toString(LambdaDescriptions.ofEach(members));
+            description = result;
+        }
+        return result;
+    }
+
+    private boolean testInOrder(T target) {
+        for (Predicate<? super T> each : members) {
+            if (each.test(target) == disjunctive)
+                return decided(target, each);
+        }
+        return undecided(target);
+    }
+
+    private boolean testAdaptively(T target) {
+        if ((++evaluations & (REORDER_INTERVAL - 1)) == 0)
+            reorder();
+
+        for (Member each : order) {
+            if (each.test(target) == disjunctive)
+                return decided(target, each.p);
+        }
+        return undecided(target);
+    }
+
+    private boolean decided(T target, Predicate<?> member) {
+        if (!disjunctive)
+            lastFailure.get().note(this, target, member);
+        return disjunctive;
+    }
+
+    private boolean undecided(T target) {
+        if (disjunctive)
+            lastFailure.get().note(this, target, null);
+        return !disjunctive;
+    }
+
+    private synchronized void reorder() {
+        Member[] reordered = order.clone();
+        Map<Member, Double> ranks = new IdentityHashMap<>();
+        for (Member each : reordered)
+            ranks.put(each, each.rank(disjunctive));
+        Arrays.sort(reordered, Comparator.comparing(ranks::get));
+        order = reordered;
+    }
+
+    private static <U> Predicate<? super U>[] flatten(
+        List<? extends Predicate<? super U>> members,
+        boolean disjunctive) {
+
+        List<Predicate<? super U>> flattened = new ArrayList<>(members.size());
+        for (Predicate<? super U> each : members) {
+            if (each instanceof CompositePredicate<?>) {
+                CompositePredicate<?> composite = (CompositePredicate<?>) each;
+                if (composite.disjunctive == disjunctive
+                    && composite.statistics == null) {
+
+                    @SuppressWarnings("unchecked")
+                    Predicate<? super U>[] nested =
+                        (Predicate<? super U>[]) composite.members;
+                    Collections.addAll(flattened, nested);
+                    continue;
+                }
+            }
+            flattened.add(each);
+        }
+
+        @SuppressWarnings("unchecked")
+        Predicate<? super U>[] result = (Predicate<? super U>[])
+            flattened.toArray(new Predicate<?>[flattened.size()]);
+        return result;
+    }
+
+    /**
+     * A snapshot of the statistics gathered on a member of an {@linkplain
+     * #adaptive() adaptive} composite.
+     */
+    public static final class Statistics {
+        private final Predicate<?> member;
+        private final long evaluations;
+        private final long passes;
+        private final long nanos;
+
+        private Statistics(
+            Predicate<?> member,
+            long evaluations,
+            long passes,
+            long nanos) {
+
+            this.member = member;
+            this.evaluations = evaluations;
+            this.passes = passes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return the member these statistics are for
+         */
+        public Predicate<?> member() {
+            return member;
+        }
+
+        /**
+         * @return how many times the member was tested
+         */
+        public long evaluations() {
+            return evaluations;
+        }
+
+        /**
+         * @return the fraction of tests of the member that passed, or
+         * {@code NaN} if the member was never tested
+         */
+        public double passRate() {
+            return evaluations == 0
+                ? Double.NaN
+                : (double) passes / evaluations;
+        }
+
+        /**
+         * @return the mean time a test of the member took, in nanoseconds,
+         * or {@code NaN} if the member was never tested
+         */
+        public double meanNanos() {
+            return evaluations == 0
+                ? Double.NaN
+                : (double) nanos / evaluations;
+        }
+
+        @Override public String toString() {
+            return String.format(
+                "[%s]: %d evaluations, pass rate %.3f, mean %.1f ns",
+                member,
+                evaluations,
+                passRate(),
+                meanNanos());
+        }
+    }
+
+    /** The composite a thread last saw fail, on what, and why. */
+    private static final class Record {
+        private CompositePredicate<?> composite;
+        private Object target;
+        private Predicate<?> decisive;
+
+        void note(
+            CompositePredicate<?> composite,
+            Object target,
+            Predicate<?> decisive) {
+
+            this.composite = composite;
+            this.target = target;
+            this.decisive = decisive;
+        }
+    }
+
+    private static final class Failure implements Describable {
+        private final CompositePredicate<?> composite;
+        private final Predicate<?> decisive;
+
+        Failure(CompositePredicate<?> composite, Predicate<?> decisive) {
+            this.composite = composite;
+            this.decisive = decisive;
+        }
+
+        @Override public String describeMismatch(Object ignored) {
+            if (decisive != null)
+                return "failed [" + LambdaDescriptions.describe(decisive) + ']';
+
+            StringBuilder buffer = new StringBuilder("failed ");
+            for (int i = 0; i < composite.members.length; ++i) {
+                if (i > 0)
+                    buffer.append(", ");
+                buffer.append('[')
+                    .append(LambdaDescriptions.describe(composite.members[i]))
+                    .append(']');
+            }
+            return buffer.toString();
+        }
+    }
+
+    private static final class Member {
+        private final Predicate<Object> p;
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder passes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        @SuppressWarnings("unchecked")
+        Member(Predicate<?> p) {
+            this.p = (Predicate<Object>) p;
+        }
+
+        boolean test(Object target) {
+            long start = System.nanoTime();
+            boolean result = p.test(target);
+            nanos.add(System.nanoTime() - start);
+            evaluations.increment();
+            if (result)
+                passes.increment();
+            return result;
+        }
+
+        /*
+         * Testing members in increasing order of cost per chance of deciding
+         * the outcome minimizes the expected cost of testing the composite.
+         * The chances are smoothed so that members never or always decisive
+         * so far still rank sensibly.
+         */
+        double rank(boolean disjunctive) {
+            long n = evaluations.sum();
+            long passed = passes.sum();
+            double cost = n == 0 ? 0 : (double) nanos.sum() / n;
+            double decisive =
+                ((disjunctive ? passed : n - passed) + 1.0) / (n + 2.0);
+            return cost / decisive;
+        }
+
+        Statistics snapshot() {
+            return new Statistics(
+                p,
+                evaluations.sum(),
+                passes.sum(),
+                nanos.sum());
+        }
+    }
+}
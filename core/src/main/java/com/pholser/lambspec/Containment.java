@@ -0,0 +1,210 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Predicate that decides whether a sequence holds all, or none, of some
+ * items.
+ *
+ * <p>The items are indexed in a hash set once, when the predicate is made,
+ * so that testing a sequence of <em>n</em> elements for <em>m</em> items
+ * costs O(<em>n</em> + <em>m</em>) rather than
+ * O(<em>n</em> &middot; <em>m</em>). When the sequence is itself a
+ * {@link Set} (or, for a single item, any {@link Collection}), its own
+ * {@link Collection#contains(Object) contains} is asked instead, so its
+ * notion of membership applies; a {@link java.util.TreeSet}, for example,
+ * consults its comparator.</p>
+ *
+ * <p>When a sequence fails the test, what was missing from it, or the
+ * first unwanted item found in it, is {@linkplain MismatchRecord noted},
+ * so that the mismatch is described without traversing the sequence
+ * again.</p>
+ *
+ * @param <S> the type of the items
+ */
+final class Containment<S> implements Predicate<Iterable<S>>, Describable {
+    private static final int DESCRIBED_ITEMS = 8;
+
+    private final Set<Object> index = new LinkedHashSet<>();
+    private final boolean present;
+
+    private Containment(Object[] items, boolean present) {
+        for (Object each : items)
+            index.add(each);
+        this.present = present;
+    }
+
+    /**
+     * @param items some items
+     * @return a predicate that tests whether a sequence has all the items
+     */
+    static <S> Containment<S> allOf(Object[] items) {
+        return new Containment<>(items, true);
+    }
+
+    /**
+     * @param items some items
+     * @return a predicate that tests whether a sequence has none of the
+     * items
+     */
+    static <S> Containment<S> noneOf(Object[] items) {
+        return new Containment<>(items, false);
+    }
+
+    @Override public boolean test(Iterable<S> sequence) {
+        if (usesOwnLookup(sequence)) {
+            Collection<?> elements = (Collection<?>) sequence;
+            for (Object each : index) {
+                if (contains(elements, each) != present)
+                    return mismatched(sequence, offending(elements));
+            }
+            return true;
+        }
+
+        return present ? hasAll(sequence) : hasNone(sequence);
+    }
+
+    @Override public String describeMismatch(Object target) {
+        Object noted = MismatchRecord.take(this, target);
+        List<?> offending;
+        if (noted != null) {
+            offending = (List<?>) noted;
+        } else {
+            offending = offending(
+                usesOwnLookup(target)
+                    ? (Collection<?>) target
+                    : found((Iterable<?>) target));
+        }
+        return (present ? "lacked " : "had ") + render(offending);
+    }
+
+    @Override public String toString() {
+        if (present && index.size() == 1) {
+            return "an item satisfying [equal to "
+                + index.iterator().next()
+                + ']';
+        }
+
+        return (present ? "all of the items [" : "none of the items [")
+            + render(new ArrayList<>(index))
+            + ']';
+    }
+
+    private boolean usesOwnLookup(Object sequence) {
+        return sequence instanceof Set<?>
+            || (index.size() == 1 && sequence instanceof Collection<?>);
+    }
+
+    private Set<Object> found(Iterable<?> sequence) {
+        Set<Object> found = new HashSet<>();
+        for (Object each : sequence) {
+            if (index.contains(each) && found.add(each)
+                && found.size() == index.size()) {
+
+                break;
+            }
+        }
+        return found;
+    }
+
+    private List<Object> offending(Collection<?> found) {
+        List<Object> offending = new ArrayList<>();
+        for (Object each : index) {
+            if (contains(found, each) != present)
+                offending.add(each);
+        }
+        return offending;
+    }
+
+    private boolean hasAll(Iterable<S> sequence) {
+        Set<Object> remaining = new HashSet<>(index);
+        for (S each : sequence) {
+            if (remaining.remove(each) && remaining.isEmpty())
+                return true;
+        }
+        if (remaining.isEmpty())
+            return true;
+
+        List<Object> missing = new ArrayList<>(remaining.size());
+        for (Object each : index) {
+            if (remaining.contains(each))
+                missing.add(each);
+        }
+        return mismatched(sequence, missing);
+    }
+
+    private boolean hasNone(Iterable<S> sequence) {
+        for (S each : sequence) {
+            if (index.contains(each))
+                return mismatched(sequence, Collections.singletonList(each));
+        }
+        return true;
+    }
+
+    private boolean mismatched(Iterable<S> sequence, List<?> offending) {
+        MismatchRecord.note(this, sequence, offending);
+        return false;
+    }
+
+    private static boolean contains(Iterable<?> sequence, Object item) {
+        if (sequence instanceof Collection<?>) {
+            try {
+                return ((Collection<?>) sequence).contains(item);
+            } catch (ClassCastException | NullPointerException ignored) {
+                // collection rejects the item's type or null; scan instead
+            }
+        }
+
+        for (Object each : sequence) {
+            if (Objects.equals(each, item))
+                return true;
+        }
+        return false;
+    }
+
+    private static String render(List<?> items) {
+        StringBuilder buffer = new StringBuilder();
+        int count = Math.min(items.size(), DESCRIBED_ITEMS);
+        for (int i = 0; i < count; ++i) {
+            if (i > 0)
+                buffer.append(", ");
+            buffer.append(items.get(i));
+        }
+        if (items.size() > count)
+            buffer.append(", ... (").append(items.size()).append(" in all)");
+        return buffer.toString();
+    }
+}
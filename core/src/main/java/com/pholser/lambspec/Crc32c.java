@@ -0,0 +1,64 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Computes CRC-32C (Castagnoli) checksums of regions of buffers, as used
+ * by iSCSI, SCTP, ext4 and many storage formats. Reads the buffer with
+ * absolute gets, so never disturbs its position.
+ */
+final class Crc32c {
+    private static final int POLYNOMIAL = 0x82f63b78;
+    private static final int[] TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < TABLE.length; ++i) {
+            int crc = i;
+            for (int bit = 0; bit < 8; ++bit)
+                crc = (crc >>> 1) ^ ((crc & 1) == 0 ? 0 : POLYNOMIAL);
+            TABLE[i] = crc;
+        }
+    }
+
+    private Crc32c() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @param buffer a buffer
+     * @param from absolute index of the first byte to checksum
+     * @param to absolute index just past the last byte to checksum
+     * @return the checksum of the bytes, as an unsigned value
+     */
+    static long of(ByteBuffer buffer, int from, int to) {
+        int crc = ~0;
+        for (int i = from; i < to; ++i)
+            crc = (crc >>> 8) ^ TABLE[(crc ^ buffer.get(i)) & 0xff];
+        return ~crc & 0xffffffffL;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+
+/**
+ * A time budget for testing a sequence, and what became of it: when it
+ * started, and whether it ran out.
+ */
+final class Deadline {
+    /** The most items to test between looks at the clock. */
+    private static final int MAX_STRIDE = 64;
+
+    /**
+     * Looks at the clock closer together than this mean the items are
+     * quick to test, and the clock can be looked at less often.
+     */
+    private static final long QUICK_NANOS = 10_000;
+
+    private final Duration budget;
+    private final long start;
+    private final long end;
+    private volatile boolean expired;
+
+    // Racing workers may miscount these; that changes only how often the
+    // clock is looked at, never whether a look sees the budget run out.
+    private int stride = 1;
+    private int untilLook = 1;
+    private long lastLook;
+
+    private Deadline(Duration budget) {
+        this.budget = budget;
+        this.start = System.nanoTime();
+        this.end = start + (budget == null ? 0 : budget.toNanos());
+        this.lastLook = start;
+    }
+
+    /**
+     * @param budget a time budget, or {@code null} for none
+     * @return a deadline the given time from now
+     */
+    static Deadline after(Duration budget) {
+        return new Deadline(budget);
+    }
+
+    /**
+     * Tells whether the budget has run out. The clock is looked at before
+     * every item at first; while items prove quick to test, the looks are
+     * spread out, up to {@value #MAX_STRIDE} items apart, and as soon as
+     * they do not, the clock is looked at before every item again. Items
+     * that are slow to test throughout thus overrun the budget by at most
+     * one item.
+     *
+     * @return whether the budget has run out
+     */
+    boolean passed() {
+        if (budget == null)
+            return false;
+        if (expired)
+            return true;
+        if (--untilLook > 0)
+            return false;
+
+        long now = System.nanoTime();
+        if (now - end >= 0) {
+            expired = true;
+            return true;
+        }
+
+        stride = now - lastLook < QUICK_NANOS
+            ? Math.min(stride * 2, MAX_STRIDE)
+            : 1;
+        untilLook = stride;
+        lastLook = now;
+        return false;
+    }
+
+    /**
+     * @return whether the budget was found to have run out
+     */
+    boolean expired() {
+        return expired;
+    }
+
+    /**
+     * Reports having run out of time.
+     *
+     * @param subject the subject whose testing ran out of time
+     * @param p the predicate being tested
+     * @param count how many items were tested
+     */
+    void fail(Subject<?> subject, Object p, long count) {
+        long elapsed = System.nanoTime() - start;
+        subject.fail(
+            "Ran out of time (%s) testing items from sequence against [%s]:"
+                + " %d items checked in %s (%.0f items/s)",
+            budget,
+            p,
+            count,
+            Duration.ofNanos(elapsed),
+            count * 1e9 / Math.max(elapsed, 1));
+    }
+}
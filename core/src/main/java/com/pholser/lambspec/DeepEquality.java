@@ -0,0 +1,482 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static java.lang.reflect.Modifier.*;
+
+/**
+ * <p>Predicate that decides whether an object graph is structurally equal
+ * to another.</p>
+ *
+ * <p>The graphs are walked together with an explicit stack of pending
+ * comparisons rather than by recursion, so deep graphs do not exhaust the
+ * thread's stack, and each pair of objects is compared at most once, so
+ * cycles and shared substructure are harmless. Arrays and
+ * {@link List}s are compared element by element, {@link Map}s entry by
+ * entry, other collections in iteration order, and other objects field by
+ * field (ignoring static, transient and synthetic fields), except that
+ * classes of the platform, {@link Set}s, and classes whose fields cannot be
+ * read are compared with {@link Object#equals(Object) equals}. The fields of
+ * a class are looked up and made accessible once, and kept for the life of
+ * the class.</p>
+ *
+ * <p>Given a {@link ForkJoinPool}, pending comparisons are shared with idle
+ * workers of the pool, and the walk stops as soon as any worker finds a
+ * difference. Either way, the mismatch description names the path to the
+ * first difference in a depth-first walk of the expected graph.</p>
+ *
+ * @param <S> the type of the graphs' roots
+ */
+final class DeepEquality<S>
+    implements Predicate<S>, Describable, StableDescription {
+
+    private static final int SPLIT_THRESHOLD = 16;
+
+    private static final ClassValue<Field[]> FIELDS =
+        new ClassValue<Field[]>() {
+            @Override protected Field[] computeValue(Class<?> type) {
+                return fieldsOf(type);
+            }
+        };
+
+    private final Object expected;
+    private final ForkJoinPool pool;
+    private volatile String description;
+
+    private DeepEquality(Object expected, ForkJoinPool pool) {
+        this.expected = expected;
+        this.pool = pool;
+    }
+
+    /**
+     * @param expected the root of an object graph
+     * @return a predicate that walks graphs on the calling thread
+     */
+    static <S> DeepEquality<S> to(Object expected) {
+        return new DeepEquality<>(expected, null);
+    }
+
+    /**
+     * @param expected the root of an object graph
+     * @param pool where to walk graphs
+     * @return a predicate that walks graphs on the given pool
+     */
+    static <S> DeepEquality<S> to(Object expected, ForkJoinPool pool) {
+        return new DeepEquality<>(expected, pool);
+    }
+
+    @Override public boolean test(S actual) {
+        if (pool == null)
+            return firstDifference(actual) == null;
+
+        Walk walk = new Walk(expected, actual);
+        pool.invoke(walk);
+        return !walk.differed.get();
+    }
+
+    @Override public String describeMismatch(Object target) {
+        Difference difference = firstDifference(target);
+        return difference == null ? null : difference.toString();
+    }
+
+    @Override public String toString() {
+        String result = description;
+        if (result == null) {
+            result = "deeply equal to [" + expected + ']';
+            description = result;
+        }
+        return result;
+    }
+
+    private Difference firstDifference(Object actual) {
+        Deque<Pending> stack = new ArrayDeque<>();
+        Set<Pair> visited = new HashSet<>();
+        stack.push(new Pending(null, null, expected, actual));
+
+        while (!stack.isEmpty()) {
+            Pending next = stack.pop();
+            if (!visited.add(new Pair(next.expected, next.actual)))
+                continue;
+
+            Difference difference = next.compare(stack);
+            if (difference != null)
+                return difference;
+        }
+        return null;
+    }
+
+    private static Field[] fieldsOf(Class<?> type) {
+        if (isPlatform(type))
+            return null;
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            if (isPlatform(c))
+                return null;
+
+            for (Field each : c.getDeclaredFields()) {
+                int modifiers = each.getModifiers();
+                if (!isStatic(modifiers)
+                    && !isTransient(modifiers)
+                    && !each.isSynthetic()) {
+
+                    fields.add(each);
+                }
+            }
+        }
+
+        Field[] result = fields.toArray(new Field[fields.size()]);
+        try {
+            AccessibleObject.setAccessible(result, true);
+        } catch (RuntimeException unreadable) {
+            return null;
+        }
+        return result;
+    }
+
+    private static boolean isPlatform(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.")
+            || name.startsWith("javax.")
+            || name.startsWith("jdk.")
+            || name.startsWith("sun.")
+            || name.startsWith("com.sun.");
+    }
+
+    private static boolean primitiveArraysEqual(Object e, Object a) {
+        Class<?> component = e.getClass().getComponentType();
+        if (component == int.class)
+            return Arrays.equals((int[]) e, (int[]) a);
+        if (component == long.class)
+            return Arrays.equals((long[]) e, (long[]) a);
+        if (component == byte.class)
+            return Arrays.equals((byte[]) e, (byte[]) a);
+        if (component == char.class)
+            return Arrays.equals((char[]) e, (char[]) a);
+        if (component == double.class)
+            return Arrays.equals((double[]) e, (double[]) a);
+        if (component == float.class)
+            return Arrays.equals((float[]) e, (float[]) a);
+        if (component == short.class)
+            return Arrays.equals((short[]) e, (short[]) a);
+        return Arrays.equals((boolean[]) e, (boolean[]) a);
+    }
+
+    /** A comparison yet to be made, and where in the graphs it lies. */
+    private static final class Pending {
+        private final Pending parent;
+        private final String step;
+        final Object expected;
+        final Object actual;
+
+        Pending(Pending parent, String step, Object expected, Object actual) {
+            this.parent = parent;
+            this.step = step;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        /**
+         * Compares this pair, pushing the comparisons of their parts onto
+         * the given stack so that the first part is popped first.
+         */
+        Difference compare(Deque<Pending> stack) {
+            Object e = expected;
+            Object a = actual;
+            if (e == a)
+                return null;
+            if (e == null || a == null || e.getClass() != a.getClass())
+                return differ(e, a);
+
+            Class<?> type = e.getClass();
+            if (type.isArray())
+                return compareArrays(e, a, stack);
+            if (e instanceof List<?>)
+                return compareLists((List<?>) e, (List<?>) a, stack);
+            if (e instanceof Map<?, ?>)
+                return compareMaps((Map<?, ?>) e, (Map<?, ?>) a, stack);
+            if (e instanceof Collection<?> && !(e instanceof Set<?>)) {
+                return compareSequences(
+                    (Collection<?>) e,
+                    (Collection<?>) a,
+                    stack);
+            }
+
+            Field[] fields = FIELDS.get(type);
+            if (fields == null)
+                return e.equals(a) ? null : differ(e, a);
+
+            try {
+                for (int i = fields.length - 1; i >= 0; --i) {
+                    Field each = fields[i];
+                    stack.push(new Pending(
+                        this,
+                        '.' + each.getName(),
+                        each.get(e),
+                        each.get(a)));
+                }
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return null;
+        }
+
+        private Difference compareArrays(
+            Object e,
+            Object a,
+            Deque<Pending> stack) {
+
+            int length = Array.getLength(e);
+            if (length != Array.getLength(a))
+                return differInSize(length, Array.getLength(a));
+
+            if (e.getClass().getComponentType().isPrimitive()) {
+                if (primitiveArraysEqual(e, a))
+                    return null;
+
+                int i = 0;
+                while (Array.get(e, i).equals(Array.get(a, i)))
+                    ++i;
+                Object expectedItem = Array.get(e, i);
+                Object actualItem = Array.get(a, i);
+                return new Pending(this, index(i), expectedItem, actualItem)
+                    .differ(expectedItem, actualItem);
+            }
+
+            Object[] expectedItems = (Object[]) e;
+            Object[] actualItems = (Object[]) a;
+            for (int i = length - 1; i >= 0; --i) {
+                stack.push(new Pending(
+                    this,
+                    index(i),
+                    expectedItems[i],
+                    actualItems[i]));
+            }
+            return null;
+        }
+
+        private Difference compareLists(
+            List<?> e,
+            List<?> a,
+            Deque<Pending> stack) {
+
+            if (e.size() != a.size())
+                return differInSize(e.size(), a.size());
+
+            for (int i = e.size() - 1; i >= 0; --i)
+                stack.push(new Pending(this, index(i), e.get(i), a.get(i)));
+            return null;
+        }
+
+        private Difference compareSequences(
+            Collection<?> e,
+            Collection<?> a,
+            Deque<Pending> stack) {
+
+            if (e.size() != a.size())
+                return differInSize(e.size(), a.size());
+
+            List<Pending> parts = new ArrayList<>(e.size());
+            Iterator<?> actualItems = a.iterator();
+            int i = 0;
+            for (Object each : e) {
+                parts.add(
+                    new Pending(this, index(i++), each, actualItems.next()));
+            }
+            for (int j = parts.size() - 1; j >= 0; --j)
+                stack.push(parts.get(j));
+            return null;
+        }
+
+        private Difference compareMaps(
+            Map<?, ?> e,
+            Map<?, ?> a,
+            Deque<Pending> stack) {
+
+            if (e.size() != a.size())
+                return differInSize(e.size(), a.size());
+
+            List<Pending> parts = new ArrayList<>(e.size());
+            for (Map.Entry<?, ?> each : e.entrySet()) {
+                Object key = each.getKey();
+                if (!a.containsKey(key))
+                    return new Difference(this, "lacked key [" + key + ']');
+                parts.add(new Pending(
+                    this,
+                    '[' + String.valueOf(key) + ']',
+                    each.getValue(),
+                    a.get(key)));
+            }
+            for (int j = parts.size() - 1; j >= 0; --j)
+                stack.push(parts.get(j));
+            return null;
+        }
+
+        private Difference differ(Object e, Object a) {
+            return new Difference(
+                this,
+                "expected [" + e + "] but was [" + a + ']');
+        }
+
+        private Difference differInSize(int e, int a) {
+            return new Difference(
+                this,
+                "expected size " + e + " but was " + a);
+        }
+
+        private static String index(int i) {
+            return "[" + i + ']';
+        }
+
+        String path() {
+            Deque<String> steps = new ArrayDeque<>();
+            for (Pending p = this; p.parent != null; p = p.parent)
+                steps.push(p.step);
+            if (steps.isEmpty())
+                return "<root>";
+
+            StringBuilder buffer = new StringBuilder("<root>");
+            for (String each : steps)
+                buffer.append(each);
+            return buffer.toString();
+        }
+    }
+
+    /** Where two graphs first differ, and how. */
+    private static final class Difference {
+        private final Pending at;
+        private final String how;
+
+        Difference(Pending at, String how) {
+            this.at = at;
+            this.how = how;
+        }
+
+        @Override public String toString() {
+            return "differed at " + at.path() + ": " + how;
+        }
+    }
+
+    /** Two objects compared with each other, compared by identity. */
+    private static final class Pair {
+        private final Object expected;
+        private final Object actual;
+
+        Pair(Object expected, Object actual) {
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Pair))
+                return false;
+
+            Pair other = (Pair) o;
+            return expected == other.expected && actual == other.actual;
+        }
+
+        @Override public int hashCode() {
+            return 31 * System.identityHashCode(expected)
+                + System.identityHashCode(actual);
+        }
+    }
+
+    /**
+     * Walks graphs on a fork-join pool, handing off half of its pending
+     * comparisons whenever the pool looks short of work.
+     */
+    private static final class Walk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Deque<Pending> stack;
+        private final Set<Pair> visited;
+        final AtomicBoolean differed;
+
+        Walk(Object expected, Object actual) {
+            this(
+                new ArrayDeque<>(),
+                ConcurrentHashMap.newKeySet(),
+                new AtomicBoolean());
+            stack.push(new Pending(null, null, expected, actual));
+        }
+
+        private Walk(
+            Deque<Pending> stack,
+            Set<Pair> visited,
+            AtomicBoolean differed) {
+
+            this.stack = stack;
+            this.visited = visited;
+            this.differed = differed;
+        }
+
+        @Override protected void compute() {
+            List<Walk> forked = new ArrayList<>();
+            while (!stack.isEmpty() && !differed.get()) {
+                Pending next = stack.pop();
+                if (!visited.add(new Pair(next.expected, next.actual)))
+                    continue;
+
+                if (next.compare(stack) != null) {
+                    differed.set(true);
+                    break;
+                }
+
+                if (stack.size() >= SPLIT_THRESHOLD
+                    && getSurplusQueuedTaskCount() <= 2) {
+
+                    Walk half = new Walk(new ArrayDeque<>(), visited, differed);
+                    for (int i = stack.size() / 2; i > 0; --i)
+                        half.stack.push(stack.pollLast());
+                    half.fork();
+                    forked.add(half);
+                }
+            }
+
+            for (Walk each : forked)
+                each.join();
+        }
+    }
+}
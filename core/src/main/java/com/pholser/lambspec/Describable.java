@@ -0,0 +1,48 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+/**
+ * <p>Implemented by predicates that can say more about why a target did not
+ * satisfy them than their {@link Object#toString()} does.</p>
+ *
+ * <p>Subjects consult this only when an expectation is not met, as the
+ * failure is made, so implementations may do costly work here without
+ * slowing down expectations that are met, and see the target as it was
+ * when it was tested. Predicates should still build their
+ * {@code toString()} descriptions no sooner than they are asked for, and
+ * keep them once built.</p>
+ */
+public interface Describable {
+    /**
+     * Describes why the given target does not satisfy this predicate.
+     *
+     * @param target an object that did not satisfy this predicate
+     * @return a description of the mismatch, or {@code null} if there is
+     * nothing to add
+     */
+    String describeMismatch(Object target);
+}
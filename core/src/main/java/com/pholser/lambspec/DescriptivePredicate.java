@@ -35,7 +35,9 @@ import java.util.function.Predicate;
  *
  * @param <T> a constraint on the type of arguments to the predicate
  */
-public class DescriptivePredicate<T> implements Predicate<T> {
+public class DescriptivePredicate<T>
+    implements Predicate<T>, StableDescription {
+
     private final String description;
     private final Predicate<T> delegate;
 
@@ -0,0 +1,557 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>The differences between two sequences, for use in failure messages:
+ * the shortest edit script that turns an expected sequence into an actual
+ * one, found with Myers' O(<em>ND</em>) algorithm in its linear-space,
+ * divide-and-conquer form.</p>
+ *
+ * <p>Lists and arrays are compared element by element. Character sequences
+ * are compared line by line if either has more than one line, otherwise
+ * character by character.</p>
+ *
+ * <p>Common heads and tails are stripped before searching, so a few
+ * changes in a large sequence cost little more than a scan. If the
+ * sequences differ by more than {@link #MAXIMUM_EDITS} edits, the search
+ * gives up and only the first difference is reported. Rendering shows a
+ * little context around each change, collapses longer unchanged runs, and
+ * stops after {@link #MAXIMUM_LINES} lines.</p>
+ */
+final class Diff {
+    /** The most edits to search for before giving up. */
+    static final int MAXIMUM_EDITS = 1000;
+
+    /** The most lines to render. */
+    static final int MAXIMUM_LINES = 40;
+
+    /** How many unchanged items to show on either side of a change. */
+    static final int CONTEXT = 2;
+
+    /** The most characters to render of any one item. */
+    static final int MAXIMUM_ITEM_LENGTH = 100;
+
+    private final Items expected;
+    private final Items actual;
+    private final List<int[]> matches = new ArrayList<>();
+    private int edits;
+
+    private Diff(Items expected, Items actual) {
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    /**
+     * @param expected an expected value
+     * @param actual an actual value
+     * @return a rendering of the differences between the two, or
+     * {@code null} if they are not sequences of the same kind, or have no
+     * differences
+     */
+    static String between(Object expected, Object actual) {
+        Items e;
+        Items a;
+        if (expected instanceof CharSequence
+            && actual instanceof CharSequence) {
+
+            CharSequence es = (CharSequence) expected;
+            CharSequence as = (CharSequence) actual;
+            if (hasLineBreak(es) || hasLineBreak(as)) {
+                e = new Elements(lines(es), "line");
+                a = new Elements(lines(as), "line");
+            } else {
+                e = new Characters(es);
+                a = new Characters(as);
+            }
+        } else if (expected instanceof List<?> && actual instanceof List<?>) {
+            e = new Elements(((List<?>) expected).toArray(), "index");
+            a = new Elements(((List<?>) actual).toArray(), "index");
+        } else if (expected != null
+            && actual != null
+            && expected.getClass().isArray()
+            && expected.getClass() == actual.getClass()) {
+
+            e = new Elements(elementsOf(expected), "index");
+            a = new Elements(elementsOf(actual), "index");
+        } else {
+            return null;
+        }
+
+        return new Diff(e, a).render();
+    }
+
+    /**
+     * @param s a string
+     * @param maximum the most characters to keep
+     * @return the string, or its head and a note of its length if it is
+     * longer than {@code maximum}
+     */
+    static String abbreviate(String s, int maximum) {
+        if (s.length() <= maximum)
+            return s;
+        return s.substring(0, maximum) + "... (" + s.length() + " chars)";
+    }
+
+    /**
+     * @param value an object
+     * @param maximum the most characters to keep
+     * @return an object whose {@link Object#toString()} gives the
+     * {@linkplain #abbreviate(String, int) abbreviated} rendering of the
+     * value
+     */
+    static Abbreviation abbreviated(Object value, int maximum) {
+        return new Abbreviation(value, maximum);
+    }
+
+    /** A value to be rendered no longer than some number of characters. */
+    static final class Abbreviation {
+        final Object value;
+        private final int maximum;
+
+        private Abbreviation(Object value, int maximum) {
+            this.value = value;
+            this.maximum = maximum;
+        }
+
+        /**
+         * @param rendering a rendering of the value
+         * @return the rendering, abbreviated
+         */
+        String of(String rendering) {
+            return abbreviate(rendering, maximum);
+        }
+
+        @Override public String toString() {
+            return of(String.valueOf(value));
+        }
+    }
+
+    private String render() {
+        boolean found;
+        try {
+            found = search(0, expected.size(), 0, actual.size());
+        } catch (TooManyEdits e) {
+            return firstDifference();
+        }
+        if (!found)
+            return null;
+
+        StringBuilder buffer = new StringBuilder()
+            .append("differed by ")
+            .append(edits)
+            .append(edits == 1 ? " edit" : " edits")
+            .append(" (- expected, + actual):");
+        expected.render(this, buffer);
+        return buffer.toString();
+    }
+
+    private String firstDifference() {
+        int i = 0;
+        int shorter = Math.min(expected.size(), actual.size());
+        while (i < shorter && expected.same(i, actual, i))
+            ++i;
+        return "differed by more than " + MAXIMUM_EDITS
+            + " edits, first at " + expected.unit + ' ' + i;
+    }
+
+    /**
+     * Finds the matches between the given ranges, in order.
+     *
+     * @return whether the ranges differ
+     */
+    private boolean search(int aLow, int aHigh, int bLow, int bHigh) {
+        int prefix = 0;
+        while (aLow + prefix < aHigh
+            && bLow + prefix < bHigh
+            && expected.same(aLow + prefix, actual, bLow + prefix)) {
+
+            ++prefix;
+        }
+        match(aLow, bLow, prefix);
+        aLow += prefix;
+        bLow += prefix;
+
+        int suffix = 0;
+        while (aLow < aHigh - suffix
+            && bLow < bHigh - suffix
+            && expected.same(aHigh - suffix - 1, actual, bHigh - suffix - 1)) {
+
+            ++suffix;
+        }
+        aHigh -= suffix;
+        bHigh -= suffix;
+
+        boolean differ = aLow < aHigh || bLow < bHigh;
+        if (aLow == aHigh || bLow == bHigh) {
+            edits += (aHigh - aLow) + (bHigh - bLow);
+            if (edits > MAXIMUM_EDITS)
+                throw new TooManyEdits();
+        } else {
+            int[] snake = middleSnake(aLow, aHigh, bLow, bHigh);
+            search(aLow, snake[0], bLow, snake[1]);
+            match(snake[0], snake[1], snake[2] - snake[0]);
+            search(snake[2], aHigh, snake[3], bHigh);
+        }
+
+        match(aHigh, bHigh, suffix);
+        return differ;
+    }
+
+    /**
+     * Finds the middle snake of an optimal path between the given ranges,
+     * by searching forward from their starts and backward from their ends
+     * until the searches meet.
+     *
+     * @return the start and end points of the snake, as
+     * {@code {x, y, u, v}}
+     */
+    private int[] middleSnake(int aLow, int aHigh, int bLow, int bHigh) {
+        int n = aHigh - aLow;
+        int m = bHigh - bLow;
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int max = (n + m + 1) / 2;
+        int offset = max + 1;
+        int[] forward = new int[2 * max + 3];
+        int[] backward = new int[2 * max + 3];
+
+        for (int d = 0; d <= max; ++d) {
+            if (2 * d - 1 > MAXIMUM_EDITS - edits)
+                throw new TooManyEdits();
+
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d
+                    || (k != d && forward[offset + k - 1]
+                        < forward[offset + k + 1])
+                    ? forward[offset + k + 1]
+                    : forward[offset + k - 1] + 1;
+                int y = x - k;
+                int x0 = x;
+                int y0 = y;
+                while (x < n
+                    && y < m
+                    && expected.same(aLow + x, actual, bLow + y)) {
+
+                    ++x;
+                    ++y;
+                }
+                forward[offset + k] = x;
+
+                if (odd
+                    && k >= delta - (d - 1)
+                    && k <= delta + (d - 1)
+                    && x + backward[offset + delta - k] >= n) {
+
+                    return new int[] {
+                        aLow + x0, bLow + y0, aLow + x, bLow + y
+                    };
+                }
+            }
+
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d
+                    || (k != d && backward[offset + k - 1]
+                        < backward[offset + k + 1])
+                    ? backward[offset + k + 1]
+                    : backward[offset + k - 1] + 1;
+                int y = x - k;
+                int x0 = x;
+                int y0 = y;
+                while (x < n
+                    && y < m
+                    && expected.same(
+                        aLow + n - x - 1,
+                        actual,
+                        bLow + m - y - 1)) {
+
+                    ++x;
+                    ++y;
+                }
+                backward[offset + k] = x;
+
+                if (!odd
+                    && k >= delta - d
+                    && k <= delta + d
+                    && x + forward[offset + delta - k] >= n) {
+
+                    return new int[] {
+                        aHigh - x, bHigh - y, aHigh - x0, bHigh - y0
+                    };
+                }
+            }
+        }
+
+        throw new AssertionError("no middle snake");
+    }
+
+    private void match(int a, int b, int length) {
+        if (length == 0)
+            return;
+
+        if (!matches.isEmpty()) {
+            int[] last = matches.get(matches.size() - 1);
+            if (last[0] + last[2] == a && last[1] + last[2] == b) {
+                last[2] += length;
+                return;
+            }
+        }
+        matches.add(new int[] { a, b, length });
+    }
+
+    /** Walks the edit script, handing each run to a visitor. */
+    private void walk(Visitor visitor) {
+        int a = 0;
+        int b = 0;
+        List<int[]> runs = new ArrayList<>(matches);
+        runs.add(new int[] { expected.size(), actual.size(), 0 });
+        for (int[] each : runs) {
+            if (a < each[0] || b < each[1])
+                visitor.change(a, each[0], b, each[1]);
+            if (each[2] > 0) {
+                visitor.same(
+                    each[0],
+                    each[1],
+                    each[2],
+                    a == 0 && b == 0,
+                    each[0] + each[2] == expected.size());
+            }
+            a = each[0] + each[2];
+            b = each[1] + each[2];
+        }
+    }
+
+    private static boolean hasLineBreak(CharSequence s) {
+        for (int i = 0; i < s.length(); ++i) {
+            if (s.charAt(i) == '\n')
+                return true;
+        }
+        return false;
+    }
+
+    private static Object[] lines(CharSequence s) {
+        return s.toString().split("\r?\n", -1);
+    }
+
+    private static Object[] elementsOf(Object array) {
+        if (array instanceof Object[])
+            return (Object[]) array;
+
+        Object[] elements = new Object[Array.getLength(array)];
+        for (int i = 0; i < elements.length; ++i)
+            elements[i] = Array.get(array, i);
+        return elements;
+    }
+
+    private interface Visitor {
+        void change(int aFrom, int aTo, int bFrom, int bTo);
+
+        void same(int a, int b, int length, boolean first, boolean last);
+    }
+
+    private static final class TooManyEdits extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TooManyEdits() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** The items of a sequence being compared. */
+    private abstract static class Items {
+        final String unit;
+
+        Items(String unit) {
+            this.unit = unit;
+        }
+
+        abstract int size();
+
+        abstract boolean same(int i, Items other, int j);
+
+        abstract void render(Diff diff, StringBuilder buffer);
+    }
+
+    /** Items rendered one to a line. */
+    private static final class Elements extends Items {
+        private final Object[] items;
+
+        Elements(Object[] items, String unit) {
+            super(unit);
+            this.items = items;
+        }
+
+        @Override int size() {
+            return items.length;
+        }
+
+        @Override boolean same(int i, Items other, int j) {
+            return Objects.equals(items[i], ((Elements) other).items[j]);
+        }
+
+        @Override void render(Diff diff, StringBuilder buffer) {
+            Object[] others = ((Elements) diff.actual).items;
+            int[] lines = new int[1];
+            diff.walk(new Visitor() {
+                @Override public void change(
+                    int aFrom,
+                    int aTo,
+                    int bFrom,
+                    int bTo) {
+
+                    for (int i = aFrom; i < aTo; ++i)
+                        line('-', i, items[i]);
+                    for (int j = bFrom; j < bTo; ++j)
+                        line('+', j, others[j]);
+                }
+
+                @Override public void same(
+                    int a,
+                    int b,
+                    int length,
+                    boolean first,
+                    boolean last) {
+
+                    int head = first ? 0 : Math.min(CONTEXT, length);
+                    int tail = last ? 0 : Math.min(CONTEXT, length - head);
+                    for (int i = 0; i < head; ++i)
+                        line(' ', a + i, items[a + i]);
+                    if (length > head + tail)
+                        elide(length - head - tail);
+                    for (int i = length - tail; i < length; ++i)
+                        line(' ', a + i, items[a + i]);
+                }
+
+                private void line(char sign, int index, Object item) {
+                    if (lines[0]++ == MAXIMUM_LINES)
+                        buffer.append("\n  ...");
+                    if (lines[0] > MAXIMUM_LINES)
+                        return;
+
+                    buffer.append('\n')
+                        .append(sign)
+                        .append(" [")
+                        .append(index)
+                        .append("] ")
+                        .append(abbreviate(
+                            String.valueOf(item),
+                            MAXIMUM_ITEM_LENGTH));
+                }
+
+                private void elide(int count) {
+                    if (lines[0]++ == MAXIMUM_LINES)
+                        buffer.append("\n  ...");
+                    if (lines[0] > MAXIMUM_LINES)
+                        return;
+
+                    buffer.append("\n  ... ")
+                        .append(count)
+                        .append(" unchanged");
+                }
+            });
+        }
+    }
+
+    /**
+     * Characters, rendered a change to a line with some surrounding text:
+     * deletions as {@code [-...-]}, insertions as <code>{+...+}</code>.
+     */
+    private static final class Characters extends Items {
+        private static final int CHARACTER_CONTEXT = 20;
+
+        private final CharSequence chars;
+
+        Characters(CharSequence chars) {
+            super("offset");
+            this.chars = chars;
+        }
+
+        @Override int size() {
+            return chars.length();
+        }
+
+        @Override boolean same(int i, Items other, int j) {
+            return chars.charAt(i) == ((Characters) other).chars.charAt(j);
+        }
+
+        @Override void render(Diff diff, StringBuilder buffer) {
+            CharSequence others = ((Characters) diff.actual).chars;
+            int[] lines = new int[1];
+            diff.walk(new Visitor() {
+                @Override public void change(
+                    int aFrom,
+                    int aTo,
+                    int bFrom,
+                    int bTo) {
+
+                    if (lines[0]++ == MAXIMUM_LINES)
+                        buffer.append("\n  ...");
+                    if (lines[0] > MAXIMUM_LINES)
+                        return;
+
+                    int before = Math.max(0, aFrom - CHARACTER_CONTEXT);
+                    int after = Math.min(size(), aTo + CHARACTER_CONTEXT);
+                    buffer.append("\n  at ").append(aFrom).append(": ");
+                    if (before > 0)
+                        buffer.append("...");
+                    buffer.append(chars, before, aFrom);
+                    if (aFrom < aTo) {
+                        buffer.append("[-")
+                            .append(excerpt(chars, aFrom, aTo))
+                            .append("-]");
+                    }
+                    if (bFrom < bTo) {
+                        buffer.append("{+")
+                            .append(excerpt(others, bFrom, bTo))
+                            .append("+}");
+                    }
+                    buffer.append(chars, aTo, after);
+                    if (after < size())
+                        buffer.append("...");
+                }
+
+                @Override public void same(
+                    int a,
+                    int b,
+                    int length,
+                    boolean first,
+                    boolean last) {
+                }
+            });
+        }
+
+        private static String excerpt(CharSequence s, int from, int to) {
+            return abbreviate(
+                s.subSequence(from, to).toString(),
+                MAXIMUM_ITEM_LENGTH);
+        }
+    }
+}
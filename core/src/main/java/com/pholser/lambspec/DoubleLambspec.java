@@ -0,0 +1,358 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+import java.util.function.Predicate;
+
+/**
+ * <p>Sugar methods/fields for creating expectations on {@code double} values in
+ * the form of {@link DoublePredicate}s, for use with {@link DoubleSubject}.</p>
+ *
+ * <p>These mirror the methods of {@link Lambspec}, so that checks on
+ * numbers need not box them. The predicates made here describe themselves
+ * in their {@link Object#toString()}, but do not build their descriptions
+ * until asked.</p>
+ */
+public class DoubleLambspec {
+    private DoubleLambspec() {
+        throw new UnsupportedOperationException();
+    }
+
+    /** Predicate that answers {@code true} no matter its argument. */
+    public static final DoublePredicate alwaysTrue =
+        DescriptiveDoublePredicate.meet("always true", i -> true);
+
+    /** Predicate that answers {@code false} no matter its argument. */
+    public static final DoublePredicate alwaysFalse =
+        DescriptiveDoublePredicate.meet("always false", i -> false);
+
+    /**
+     * <p>When the argument to {@link DoubleSubject#to(DoublePredicate)} is a
+     * lambda expression or named in a way that doesn't read fluently, this
+     * method can help.</p>
+     *
+     * @param p a predicate
+     * @return p
+     */
+    public static DoublePredicate satisfy(DoublePredicate p) {
+        return p;
+    }
+
+    /**
+     * Creates a disjunction predicate from many other predicates.
+     *
+     * @param first a predicate
+     * @param rest zero or more predicates
+     * @return a predicate that is the disjunction of the given predicates
+     */
+    public static DoublePredicate satisfyAny(
+        DoublePredicate first,
+        DoublePredicate... rest) {
+
+        DoublePredicate[] members = prepend(first, rest);
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                for (DoublePredicate each : members) {
+                    if (each.test(value))
+                        return true;
+                }
+                return false;
+            }
+
+            @Override public String toString() {
+                return "any of " + Arrays.toString(members);
+            }
+        };
+    }
+
+    /**
+     * Creates a conjunction predicate from many other predicates.
+     *
+     * @param first a predicate
+     * @param rest zero or more predicates
+     * @return a predicate that is the conjunction of the given predicates
+     */
+    public static DoublePredicate satisfyAll(
+        DoublePredicate first,
+        DoublePredicate... rest) {
+
+        DoublePredicate[] members = prepend(first, rest);
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                for (DoublePredicate each : members) {
+                    if (!each.test(value))
+                        return false;
+                }
+                return true;
+            }
+
+            @Override public String toString() {
+                return "all of " + Arrays.toString(members);
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether an element of its array
+     * argument satisfies the given predicate.
+     *
+     * @param p the predicate to apply to elements of an array
+     * @return a predicate that tests elements of the array against the
+     * given predicate
+     */
+    public static Predicate<double[]> haveAnItemSatisfying(DoublePredicate p) {
+        return new Predicate<double[]>() {
+            @Override public boolean test(double[] items) {
+                for (double each : items) {
+                    if (p.test(each))
+                        return true;
+                }
+                return false;
+            }
+
+            @Override public String toString() {
+                return "an item satisfying [" + p + ']';
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a given value is in an array.
+     *
+     * @param item the value to look for in the array
+     * @return a predicate that tests whether the given value is in an array
+     */
+    public static Predicate<double[]> have(double item) {
+        return haveAnItemSatisfying(be(item));
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether an array is sorted in
+     * ascending order, in one pass.</p>
+     *
+     * <p>Values are ordered as by {@link Double#compare(double, double)}:
+     * {@code -0.0} before {@code 0.0}, and {@code NaN} after everything
+     * else.</p>
+     *
+     * @return a predicate that tests whether an array is sorted
+     * @see SequenceShape
+     */
+    public static SequenceShape<double[]> beSorted() {
+        return SequenceShape.sortedDoubles(false);
+    }
+
+    /**
+     * Creates a predicate that decides whether each element of an array is
+     * greater than the one before it, in one pass, in the order of
+     * {@link Double#compare(double, double)}.
+     *
+     * @return a predicate that tests whether an array is strictly sorted
+     * @see SequenceShape
+     */
+    public static SequenceShape<double[]> beStrictlySorted() {
+        return SequenceShape.sortedDoubles(true);
+    }
+
+    /**
+     * Creates a predicate that decides whether an array has no duplicate
+     * elements, in one pass. As with {@link #be(double)}, {@code NaN} is a
+     * duplicate of itself, and {@code 0.0} is not a duplicate of
+     * {@code -0.0}.
+     *
+     * @return a predicate that tests whether an array has no duplicates
+     * @see SequenceShape
+     */
+    public static SequenceShape<double[]> haveNoDuplicates() {
+        return SequenceShape.distinctDoubles();
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a value is equal to
+     * another.</p>
+     *
+     * <p>Equality is in the sense of {@link Double#equals(Object)}, so that
+     * {@code NaN} is equal to itself and {@code 0.0} is not equal to
+     * {@code -0.0}. To allow for rounding error, use
+     * {@link #beCloseTo(double, double)}.</p>
+     *
+     * @param other a value to compare to another
+     * @return a predicate that tests whether the given value equals another
+     */
+    public static DoublePredicate be(double other) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return Double.compare(value, other) == 0;
+            }
+
+            @Override public String toString() {
+                return "equal to " + other;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that is the negation of the given predicate.
+     *
+     * @param p a predicate
+     * @return the negation of the given predicate
+     */
+    public static DoublePredicate not(DoublePredicate p) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return !p.test(value);
+            }
+
+            @Override public String toString() {
+                return "not [" + p + ']';
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is less than a bound.
+     *
+     * @param bound the exclusive upper bound
+     * @return a predicate that tests whether a value is less than the bound
+     */
+    public static DoublePredicate beLessThan(double bound) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return value < bound;
+            }
+
+            @Override public String toString() {
+                return "less than " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is at most a bound.
+     *
+     * @param bound the inclusive upper bound
+     * @return a predicate that tests whether a value is at most the bound
+     */
+    public static DoublePredicate beAtMost(double bound) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return value <= bound;
+            }
+
+            @Override public String toString() {
+                return "at most " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is greater than a
+     * bound.
+     *
+     * @param bound the exclusive lower bound
+     * @return a predicate that tests whether a value is greater than the
+     * bound
+     */
+    public static DoublePredicate beGreaterThan(double bound) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return value > bound;
+            }
+
+            @Override public String toString() {
+                return "greater than " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is at least a bound.
+     *
+     * @param bound the inclusive lower bound
+     * @return a predicate that tests whether a value is at least the bound
+     */
+    public static DoublePredicate beAtLeast(double bound) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return value >= bound;
+            }
+
+            @Override public String toString() {
+                return "at least " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value lies in a range.
+     *
+     * @param min the inclusive lower bound of the range
+     * @param max the inclusive upper bound of the range
+     * @return a predicate that tests whether a value is in the range
+     */
+    public static DoublePredicate beBetween(double min, double max) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return value >= min && value <= max;
+            }
+
+            @Override public String toString() {
+                return "between " + min + " and " + max;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is within a given
+     * tolerance of another.
+     *
+     * @param other a value to compare to another
+     * @param tolerance how far from {@code other} a value may lie
+     * @return a predicate that tests whether a value is close to another
+     */
+    public static DoublePredicate beCloseTo(double other, double tolerance) {
+        return new DoublePredicate() {
+            @Override public boolean test(double value) {
+                return Math.abs(value - other) <= tolerance;
+            }
+
+            @Override public String toString() {
+                return "within " + tolerance + " of " + other;
+            }
+        };
+    }
+
+    private static DoublePredicate[] prepend(
+        DoublePredicate first,
+        DoublePredicate[] rest) {
+
+        DoublePredicate[] all = new DoublePredicate[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Predicate that decides whether an object is
+ * {@linkplain Object#equals(Object) equal to} another. When lists, arrays
+ * or character sequences are not equal, the mismatch description is a
+ * {@linkplain Diff diff} of the two. Predicates equal to the same object
+ * are equal to each other.
+ *
+ * @param <S> the type of the objects compared
+ */
+final class Equality<S>
+    implements Predicate<S>, Describable, StableDescription {
+
+    /** The most characters of the expected or actual value to describe. */
+    static final int MAXIMUM_DESCRIPTION_LENGTH = 200;
+
+    private final Object expected;
+    private volatile String description;
+
+    private Equality(Object expected) {
+        this.expected = expected;
+    }
+
+    /**
+     * @param expected an object
+     * @return a predicate that tests whether an object equals the given one
+     */
+    static <S> Equality<S> to(Object expected) {
+        return new Equality<>(expected);
+    }
+
+    @Override public boolean test(S actual) {
+        return Objects.equals(expected, actual);
+    }
+
+    @Override public String describeMismatch(Object target) {
+        return Diff.between(expected, target);
+    }
+
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof Equality<?>))
+            return false;
+
+        return Objects.equals(expected, ((Equality<?>) o).expected);
+    }
+
+    @Override public int hashCode() {
+        return Objects.hashCode(expected);
+    }
+
+    @Override public String toString() {
+        String result = description;
+        if (result == null) {
+            result = "equal to " + Diff.abbreviate(
+                String.valueOf(expected),
+                MAXIMUM_DESCRIPTION_LENGTH);
+            description = result;
+        }
+        return result;
+    }
+}
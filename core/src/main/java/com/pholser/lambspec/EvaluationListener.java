@@ -0,0 +1,52 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+/**
+ * Notified of each evaluation of an expectation or guard while
+ * {@linkplain Instrumentation instrumentation} is on.
+ *
+ * <p>Listeners can be {@linkplain Instrumentation#addListener(
+ * EvaluationListener) added} directly, or provided as services: name
+ * implementations in a resource
+ * {@code META-INF/services/com.pholser.lambspec.EvaluationListener}, and
+ * they are loaded with {@link java.util.ServiceLoader} when instrumentation
+ * is first turned on.</p>
+ *
+ * <p>Listeners are called on the thread that evaluated the predicate, so
+ * they should be quick and must be safe to call from many threads at once.
+ * Runtime exceptions they throw are ignored, so that they cannot mask the
+ * outcome of an expectation.</p>
+ */
+@FunctionalInterface
+public interface EvaluationListener {
+    /**
+     * @param description describes the predicate evaluated
+     * @param nanos how long the evaluation took, in nanoseconds
+     * @param failed whether the predicate was not satisfied
+     */
+    void evaluated(String description, long nanos, boolean failed);
+}
@@ -0,0 +1,440 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static java.util.Objects.*;
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * <p>A test subject whose value becomes available, or settles, only after
+ * some time: the eventual result of a {@link CompletableFuture}, or the
+ * value a {@link Supplier} gives once an asynchronous process has caught
+ * up.</p>
+ *
+ * <p>An expectation on a supplied value is re-evaluated on a shared
+ * scheduler, at intervals that grow from an initial delay, until it is met
+ * or a deadline passes. An expectation on a future waits for the future to
+ * complete, up to the deadline. Either way, the thread setting the
+ * expectation does nothing but wait on a {@link CompletableFuture}, and
+ * returns as soon as the expectation is met.</p>
+ *
+ * <p>For example:</p>
+ *
+ * <pre>
+ * expectEventually(queue::size)
+ *     .within(Duration.ofSeconds(2))
+ *     .to(be(0));
+ * </pre>
+ *
+ * @param <S> the type of the test subject
+ */
+public abstract class EventualSubject<S> extends Subject<S> {
+    /** How long to wait for an expectation by default. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final long DEFAULT_INITIAL_DELAY = MILLISECONDS.toNanos(10);
+    private static final double DEFAULT_BACKOFF = 1.5;
+    private static final long DEFAULT_MAXIMUM_DELAY =
+        MILLISECONDS.toNanos(500);
+
+    final long timeout;
+    final long initialDelay;
+    final double backoff;
+    final long maximumDelay;
+
+    EventualSubject(
+        long timeout,
+        long initialDelay,
+        double backoff,
+        long maximumDelay) {
+
+        this.timeout = timeout;
+        this.initialDelay = initialDelay;
+        this.backoff = backoff;
+        this.maximumDelay = maximumDelay;
+    }
+
+    /**
+     * Establishes the values given by the given supplier as a test subject,
+     * whose expectations must be met eventually.
+     *
+     * @param <T> the type of the test subject
+     * @param supplier supplies the latest value of the test subject; must
+     * be safe to call from a thread other than the caller's
+     * @return a test subject in the fluent interface
+     */
+    public static <T> EventualSubject<T> expectEventually(
+        Supplier<? extends T> supplier) {
+
+        return new Polled<>(
+            requireNonNull(supplier),
+            DEFAULT_TIMEOUT.toNanos(),
+            DEFAULT_INITIAL_DELAY,
+            DEFAULT_BACKOFF,
+            DEFAULT_MAXIMUM_DELAY);
+    }
+
+    /**
+     * Establishes the eventual result of the given future as a test
+     * subject.
+     *
+     * @param <T> the type of the test subject
+     * @param future a future whose result to test
+     * @return a test subject in the fluent interface
+     */
+    public static <T> EventualSubject<T> expect(
+        CompletableFuture<? extends T> future) {
+
+        return new Completed<>(
+            requireNonNull(future),
+            DEFAULT_TIMEOUT.toNanos(),
+            DEFAULT_INITIAL_DELAY,
+            DEFAULT_BACKOFF,
+            DEFAULT_MAXIMUM_DELAY);
+    }
+
+    /**
+     * @param timeout how long to wait for each expectation to be met
+     * @return a test subject like this one that waits the given time
+     * @throws IllegalArgumentException if {@code timeout} is negative
+     */
+    public EventualSubject<S> within(Duration timeout) {
+        if (timeout.isNegative())
+            throw new IllegalArgumentException("negative timeout: " + timeout);
+
+        return with(timeout.toNanos(), initialDelay, backoff, maximumDelay);
+    }
+
+    /**
+     * @param interval how long to wait between evaluations of an
+     * expectation on a supplied value
+     * @return a test subject like this one that polls at a fixed interval
+     * @throws IllegalArgumentException if {@code interval} is not positive
+     */
+    public EventualSubject<S> pollingEvery(Duration interval) {
+        long nanos = positive(interval);
+        return with(timeout, nanos, 1, nanos);
+    }
+
+    /**
+     * @param initial how long to wait before the second evaluation of an
+     * expectation on a supplied value
+     * @param factor how much longer to wait before each evaluation after
+     * that than before the one preceding it
+     * @param maximum the longest to wait between evaluations
+     * @return a test subject like this one that polls at growing intervals
+     * @throws IllegalArgumentException if {@code initial} or {@code maximum}
+     * is not positive, or {@code factor} is less than 1
+     */
+    public EventualSubject<S> backingOff(
+        Duration initial,
+        double factor,
+        Duration maximum) {
+
+        if (!(factor >= 1))
+            throw new IllegalArgumentException("bad backoff factor: " + factor);
+
+        return with(timeout, positive(initial), factor, positive(maximum));
+    }
+
+    abstract EventualSubject<S> with(
+        long timeout,
+        long initialDelay,
+        double backoff,
+        long maximumDelay);
+
+    String timeoutDescription() {
+        return Duration.ofNanos(timeout).toString();
+    }
+
+    private static long positive(Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException(
+                "non-positive interval: " + interval);
+        }
+        return interval.toNanos();
+    }
+
+    private static final class Polled<S> extends EventualSubject<S> {
+        private final Supplier<? extends S> supplier;
+
+        Polled(
+            Supplier<? extends S> supplier,
+            long timeout,
+            long initialDelay,
+            double backoff,
+            long maximumDelay) {
+
+            super(timeout, initialDelay, backoff, maximumDelay);
+            this.supplier = supplier;
+        }
+
+        @Override EventualSubject<S> with(
+            long timeout,
+            long initialDelay,
+            double backoff,
+            long maximumDelay) {
+
+            return new Polled<>(
+                supplier,
+                timeout,
+                initialDelay,
+                backoff,
+                maximumDelay);
+        }
+
+        @Override protected void test(Predicate<? super S> p) {
+            Poll<S> poll = new Poll<>(this, p);
+            poll.run();
+            Attempt<S> outcome = poll.result.isDone()
+                ? poll.result.join()
+                : await(poll);
+            if (outcome.satisfied)
+                return;
+
+            if (outcome.failure != null) {
+                fail(
+                    "No value supplied satisfied [%s] within %s"
+                        + " (%d attempts; last attempt threw [%s])",
+                    p,
+                    timeoutDescription(),
+                    outcome.number,
+                    outcome.failure);
+            } else {
+                fail(
+                    "[%s] did not satisfy [%s] within %s (%d attempts)%s",
+                    outcome.value,
+                    p,
+                    timeoutDescription(),
+                    outcome.number,
+                    Mismatch.of(p, outcome.value));
+            }
+        }
+
+        private Attempt<S> await(Poll<S> poll) {
+            try {
+                return poll.result.get(
+                    Math.max(poll.deadline - System.nanoTime(), 0),
+                    NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // settle on the last attempt decided, below
+            }
+
+            /*
+             * An attempt under way on the scheduler may yet find a value
+             * that satisfies the expectation; whichever of it and this
+             * settles the result first decides the outcome.
+             */
+            poll.result.complete(poll.last);
+            return poll.result.join();
+        }
+    }
+
+    /**
+     * The outcome of one attempt to supply a value that satisfies an
+     * expectation. Published only once decided, so that the value reported
+     * is always the one the verdict is about.
+     */
+    private static final class Attempt<S> {
+        final int number;
+        final S value;
+        final RuntimeException failure;
+        final boolean satisfied;
+
+        Attempt(
+            int number,
+            S value,
+            RuntimeException failure,
+            boolean satisfied) {
+
+            this.number = number;
+            this.value = value;
+            this.failure = failure;
+            this.satisfied = satisfied;
+        }
+    }
+
+    /**
+     * Repeatedly evaluates an expectation on a supplied value, rescheduling
+     * itself until the expectation is met, the deadline passes, or its
+     * result is completed from outside.
+     */
+    private static final class Poll<S> implements Runnable {
+        final CompletableFuture<Attempt<S>> result = new CompletableFuture<>();
+        final long deadline;
+        private final Polled<S> subject;
+        private final Predicate<? super S> p;
+        private final AtomicInteger attempts = new AtomicInteger();
+        private long delay;
+        volatile Attempt<S> last;
+
+        Poll(Polled<S> subject, Predicate<? super S> p) {
+            this.subject = subject;
+            this.p = p;
+            this.deadline = System.nanoTime() + subject.timeout;
+            this.delay = subject.initialDelay;
+        }
+
+        @Override public void run() {
+            if (result.isDone())
+                return;
+
+            int number = attempts.incrementAndGet();
+            Attempt<S> attempt;
+            try {
+                S value = subject.supplier.get();
+                attempt = new Attempt<>(number, value, null, p.test(value));
+            } catch (RuntimeException e) {
+                attempt = new Attempt<>(number, null, e, false);
+            }
+            last = attempt;
+            if (attempt.satisfied) {
+                result.complete(attempt);
+                return;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                result.complete(attempt);
+                return;
+            }
+
+            try {
+                Scheduler.INSTANCE.schedule(
+                    this,
+                    Math.min(delay, remaining),
+                    NANOSECONDS);
+            } catch (RuntimeException e) {
+                result.complete(new Attempt<>(number, null, e, false));
+                return;
+            }
+            delay = Math.min(
+                subject.maximumDelay,
+                (long) Math.min(delay * subject.backoff, Long.MAX_VALUE));
+        }
+    }
+
+    private static final class Completed<S> extends EventualSubject<S> {
+        private final CompletableFuture<? extends S> future;
+
+        Completed(
+            CompletableFuture<? extends S> future,
+            long timeout,
+            long initialDelay,
+            double backoff,
+            long maximumDelay) {
+
+            super(timeout, initialDelay, backoff, maximumDelay);
+            this.future = future;
+        }
+
+        @Override EventualSubject<S> with(
+            long timeout,
+            long initialDelay,
+            double backoff,
+            long maximumDelay) {
+
+            return new Completed<>(
+                future,
+                timeout,
+                initialDelay,
+                backoff,
+                maximumDelay);
+        }
+
+        @Override protected void test(Predicate<? super S> p) {
+            S value;
+            try {
+                value = future.get(timeout, NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(
+                    "Interrupted while waiting for [%s] to satisfy [%s]",
+                    future,
+                    p);
+                return;
+            } catch (TimeoutException e) {
+                fail(
+                    "[%s] did not complete within %s, so could not satisfy"
+                        + " [%s]",
+                    future,
+                    timeoutDescription(),
+                    p);
+                return;
+            } catch (ExecutionException | CancellationException e) {
+                fail(
+                    "[%s] completed exceptionally with [%s] instead of"
+                        + " satisfying [%s]",
+                    future,
+                    e instanceof ExecutionException ? e.getCause() : e,
+                    p);
+                return;
+            }
+
+            if (!p.test(value)) {
+                fail(
+                    "[%s] did not satisfy [%s]%s",
+                    value,
+                    p,
+                    Mismatch.of(p, value));
+            }
+        }
+    }
+
+    /** Lazily created scheduler shared by all eventual subjects. */
+    private static final class Scheduler {
+        static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            AtomicInteger count = new AtomicInteger();
+            ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(
+                    Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+                    r -> {
+                        Thread thread = new Thread(
+                            r,
+                            "lambspec-eventually-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.Buffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * <p>An {@link AssertionError} whose message is not formatted until someone
+ * asks for it. Rendering the subjects of an unmet expectation can be costly,
+ * and many failures are caught and discarded without their messages ever
+ * being read.</p>
+ *
+ * <p>Subjects that are cheap to render but likely to change afterwards
+ * are rendered when the failure is made: collections and maps of at most
+ * {@value #SNAPSHOT_LIMIT} entries, character sequences other than strings
+ * of at most {@value #SNAPSHOT_LENGTH} characters, and NIO buffers, whose
+ * positions move. Anything else is rendered when the message is first read,
+ * and so shows the state it is in at that time; the failure keeps it
+ * reachable until then.</p>
+ */
+class ExpectationFailure extends AssertionError {
+    private static final long serialVersionUID = 1L;
+
+    /** Most entries in a collection or map rendered when a failure is made. */
+    static final int SNAPSHOT_LIMIT = 100;
+
+    /** Longest character sequence rendered when a failure is made. */
+    static final int SNAPSHOT_LENGTH = 10_000;
+
+    private final transient String messageTemplate;
+    private final transient Object[] args;
+    private volatile String message;
+
+    ExpectationFailure(String messageTemplate, Object... args) {
+        this.messageTemplate = messageTemplate;
+        this.args = snapshot(args);
+    }
+
+    /**
+     * Makes a failure for an unmet expectation, for its subject to throw.
+     * While {@linkplain SoftExpectations soft expectations} are being
+     * collected on the current thread, the failure will be recorded rather
+     * than reach the caller, so it does not capture a stack trace.
+     *
+     * @param messageTemplate a {@linkplain String#format(String, Object...)
+     * message format pattern}
+     * @param args arguments to the message template
+     * @return a failure to throw
+     */
+    static ExpectationFailure of(String messageTemplate, Object... args) {
+        return SoftExpectations.collecting()
+            ? new Stackless(messageTemplate, args)
+            : new ExpectationFailure(messageTemplate, args);
+    }
+
+    @Override public String getMessage() {
+        String result = message;
+        if (result == null) {
+            result = String.format(
+                messageTemplate,
+                LambdaDescriptions.ofEach(args));
+            message = result;
+        }
+        return result;
+    }
+
+    private static Object[] snapshot(Object[] args) {
+        if (args == null)
+            return null;
+
+        Object[] taken = args;
+        for (int i = 0; i < args.length; ++i) {
+            Object each = snapshot(args[i]);
+            if (each != args[i]) {
+                if (taken == args)
+                    taken = Arrays.copyOf(args, args.length, Object[].class);
+                taken[i] = each;
+            }
+        }
+        return taken;
+    }
+
+    private static Object snapshot(Object arg) {
+        if (arg instanceof Diff.Abbreviation) {
+            Diff.Abbreviation abbreviation = (Diff.Abbreviation) arg;
+            Object taken = snapshot(abbreviation.value);
+            return taken == abbreviation.value
+                ? arg
+                : abbreviation.of(String.valueOf(taken));
+        }
+
+        try {
+            if (arg instanceof Collection<?>
+                && ((Collection<?>) arg).size() <= SNAPSHOT_LIMIT) {
+
+                return String.valueOf(arg);
+            }
+            if (arg instanceof Map<?, ?>
+                && ((Map<?, ?>) arg).size() <= SNAPSHOT_LIMIT) {
+
+                return String.valueOf(arg);
+            }
+            if (arg instanceof CharSequence
+                && !(arg instanceof String)
+                && ((CharSequence) arg).length() <= SNAPSHOT_LENGTH) {
+
+                return arg.toString();
+            }
+            if (arg instanceof Buffer)
+                return arg.toString();
+        } catch (RuntimeException ex) {
+            // Changing under us, perhaps; render it when asked instead.
+        }
+        return arg;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getMessage();
+        out.defaultWriteObject();
+    }
+
+    private static final class Stackless extends ExpectationFailure {
+        private static final long serialVersionUID = 1L;
+
+        Stackless(String messageTemplate, Object... args) {
+            super(messageTemplate, args);
+        }
+
+        @Override public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static java.nio.channels.FileChannel.MapMode.*;
+import static java.nio.file.StandardOpenOption.*;
+import static java.util.Objects.*;
+
+/**
+ * <p>A test subject made up of the lines, or other records, of a file.</p>
+ *
+ * <p>The file is never loaded whole. It is divided into chunks that begin
+ * and end on record boundaries, each chunk is mapped into memory when it
+ * is tested, and records are decoded one at a time, so that files much
+ * larger than the heap can be tested. Use {@link #inParallel()} to test
+ * chunks on many cores at once; as with {@link SequenceSubject}, parallel
+ * testing reports the same offending record that sequential testing
+ * would.</p>
+ *
+ * <p>When an expectation is not met, the failure message gives the byte
+ * offset of the offending record, and its line or record number. The
+ * number is tallied from the records counted while scanning, so no part
+ * of the file is read again to report it.</p>
+ *
+ * <p>For example:</p>
+ *
+ * <pre>
+ * expectEachLineOf(Paths.get("export.csv"))
+ *     .inParallel()
+ *     .to(meet("has 12 fields", s -&gt; s.split(",", -1).length == 12));
+ * </pre>
+ */
+public final class FileSubject extends Subject<String> {
+    private static final long MAXIMUM_CHUNK = 64L << 20;
+    private static final long MINIMUM_PARALLEL_CHUNK = 64L << 10;
+    private static final long NOT_FOUND = Long.MAX_VALUE;
+
+    private final Path file;
+    private final RecordFormat format;
+    private final boolean each;
+    private ForkJoinPool pool;
+
+    private FileSubject(Path file, RecordFormat format, boolean each) {
+        this.file = requireNonNull(file);
+        this.format = requireNonNull(format);
+        this.each = each;
+    }
+
+    /**
+     * Establishes the lines of the given UTF-8 text file as test subjects,
+     * all of which must meet subsequent expectations.
+     *
+     * @param file a file to test
+     * @return a test subject in the fluent interface
+     */
+    public static FileSubject expectEachLineOf(Path file) {
+        return new FileSubject(file, RecordFormat.lines(), true);
+    }
+
+    /**
+     * Establishes the lines of the given UTF-8 text file as test subjects,
+     * at least one of which must meet subsequent expectations.
+     *
+     * @param file a file to test
+     * @return a test subject in the fluent interface
+     */
+    public static FileSubject expectAtLeastOneLineOf(Path file) {
+        return new FileSubject(file, RecordFormat.lines(), false);
+    }
+
+    /**
+     * Establishes the records of the given file as test subjects, all of
+     * which must meet subsequent expectations.
+     *
+     * @param file a file to test
+     * @param format how the file is divided into records
+     * @return a test subject in the fluent interface
+     */
+    public static FileSubject expectEachRecordOf(
+        Path file,
+        RecordFormat format) {
+
+        return new FileSubject(file, format, true);
+    }
+
+    /**
+     * Establishes the records of the given file as test subjects, at least
+     * one of which must meet subsequent expectations.
+     *
+     * @param file a file to test
+     * @param format how the file is divided into records
+     * @return a test subject in the fluent interface
+     */
+    public static FileSubject expectAtLeastOneRecordOf(
+        Path file,
+        RecordFormat format) {
+
+        return new FileSubject(file, format, false);
+    }
+
+    /**
+     * Arranges for subsequent expectations to be tested in parallel, on the
+     * {@linkplain ForkJoinPool#commonPool() common fork-join pool}.
+     *
+     * @return self, so that expectations can be chained
+     */
+    public FileSubject inParallel() {
+        return inParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Arranges for subsequent expectations to be tested in parallel, on the
+     * given fork-join pool.
+     *
+     * @param pool where to test expectations
+     * @return self, so that expectations can be chained
+     */
+    public FileSubject inParallel(ForkJoinPool pool) {
+        this.pool = requireNonNull(pool);
+        return this;
+    }
+
+    /**
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override protected void test(Predicate<? super String> p) {
+        Scan scan;
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            scan = new Scan(channel, p, chunks(channel));
+            if (pool == null) {
+                for (int i = 0; i < scan.chunks.length - 1; ++i)
+                    scan.chunk(i);
+            } else {
+                pool.invoke(scan.new Task(0, scan.chunks.length - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (each && scan.foundOffset != NOT_FOUND) {
+            fail(
+                "[%s] from file [%s] did not satisfy [%s] (%s %s at byte"
+                    + " offset %d)%s",
+                scan.found,
+                file,
+                p,
+                format.noun(),
+                scan.foundNumber(),
+                scan.foundOffset,
+                Mismatch.of(p, scan.found));
+        } else if (!each && scan.foundOffset == NOT_FOUND) {
+            long count = scan.visited.sum();
+            fail(
+                "No %s from file [%s] satisfied [%s] (%d %s%s)",
+                format.noun(),
+                file,
+                p,
+                count,
+                format.noun(),
+                count == 1 ? "" : "s");
+        }
+    }
+
+    private long[] chunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunk = MAXIMUM_CHUNK;
+        if (pool != null) {
+            chunk = Math.max(
+                MINIMUM_PARALLEL_CHUNK,
+                Math.min(chunk, size / (pool.getParallelism() << 2)));
+        }
+
+        List<Long> starts = new ArrayList<>();
+        for (long start = 0; start < size;) {
+            starts.add(start);
+            long next = format.boundaryAtOrAfter(channel, start + chunk, size);
+            if (next - start > Integer.MAX_VALUE) {
+                throw new IllegalStateException(
+                    "record at offset " + start + " of " + file
+                        + " is too long to map");
+            }
+            start = next;
+        }
+
+        long[] boundaries = new long[starts.size() + 1];
+        for (int i = 0; i < starts.size(); ++i)
+            boundaries[i] = starts.get(i);
+        boundaries[starts.size()] = size;
+        return boundaries;
+    }
+
+    /**
+     * The state of testing the records of a file, chunk by chunk, looking
+     * for the first record that fails an expectation, or any that meets it.
+     */
+    private final class Scan {
+        final long[] chunks;
+        final LongAdder visited = new LongAdder();
+        private final FileChannel channel;
+        private final Predicate<? super String> p;
+        private final long[] counts;
+        volatile long foundOffset = NOT_FOUND;
+        String found;
+        private int foundChunk;
+        private long foundOrdinal;
+
+        Scan(FileChannel channel, Predicate<? super String> p, long[] chunks) {
+            this.channel = channel;
+            this.p = p;
+            this.chunks = chunks;
+            this.counts = new long[chunks.length - 1];
+        }
+
+        /**
+         * Every chunk before the one holding the record found is scanned in
+         * full, so its count of records is exact.
+         *
+         * @return the number of the record found, counting from 1
+         */
+        synchronized long foundNumber() {
+            long number = foundOrdinal;
+            for (int i = 0; i < foundChunk; ++i)
+                number += counts[i];
+            return number;
+        }
+
+        void chunk(int index) {
+            long start = chunks[index];
+            if (decided(start))
+                return;
+
+            long size = chunks[index + 1] - start;
+            MappedByteBuffer records;
+            try {
+                records = channel.map(READ_ONLY, start, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            CharsetDecoder decoder = format.decoder();
+            long count = 0;
+            for (int at = 0; at < records.limit() && !decided(start + at);) {
+                int next = format.next(records, at);
+                String record = format.decode(records, at, next, decoder);
+                ++count;
+                if (p.test(record) != each)
+                    found(start + at, record, index, count);
+                at = next;
+            }
+            counts[index] = count;
+            visited.add(count);
+        }
+
+        private boolean decided(long offset) {
+            long current = foundOffset;
+            return each ? offset >= current : current != NOT_FOUND;
+        }
+
+        private synchronized void found(
+            long offset,
+            String record,
+            int chunk,
+            long ordinal) {
+
+            if (offset < foundOffset) {
+                found = record;
+                foundChunk = chunk;
+                foundOrdinal = ordinal;
+                foundOffset = offset;
+            }
+        }
+
+        final class Task extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int low;
+            private final int high;
+
+            Task(int low, int high) {
+                this.low = low;
+                this.high = high;
+            }
+
+            @Override protected void compute() {
+                if (high - low == 1) {
+                    chunk(low);
+                } else if (high > low) {
+                    int middle = (low + high) >>> 1;
+                    invokeAll(new Task(low, middle), new Task(middle, high));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>A test subject made up of randomly generated values, all of which must
+ * meet subsequent expectations.</p>
+ *
+ * <p>Each expectation is tried against a number of values, one per trial.
+ * Trial <em>i</em> draws its value from a source of randomness seeded from
+ * the run's seed and <em>i</em> alone, so a run can be reproduced from its
+ * seed no matter how trials were scheduled. Use {@link #inParallel()} to
+ * spread trials across the cores of a fork-join pool; workers share
+ * nothing but the index of the earliest failing trial found so far, and
+ * stop at the first counterexample.</p>
+ *
+ * <p>A counterexample is shrunk before it is reported: the simpler values
+ * its {@linkplain Generator#shrink(Object) generator suggests} are tried,
+ * in parallel if this subject is, and the first that also fails takes its
+ * place, until none do.</p>
+ *
+ * <p>For example:</p>
+ *
+ * <pre>
+ * forAll(lists(ints(-100, 100), 20))
+ *     .inParallel()
+ *     .to(meet("sorts idempotently", l -&gt; sort(sort(l)).equals(sort(l))));
+ * </pre>
+ *
+ * @param <S> the type of the generated values
+ */
+public final class ForAllSubject<S> extends Subject<S> {
+    /** How many trials to run by default. */
+    public static final int DEFAULT_TRIALS = 1000;
+
+    /** The most shrinking steps to take. */
+    static final int MAXIMUM_SHRINKS = 1000;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long NOT_FOUND = Long.MAX_VALUE;
+
+    private final Generator<? extends S> generator;
+    private int trials = DEFAULT_TRIALS;
+    private Long seed;
+    private ForkJoinPool pool;
+
+    private ForAllSubject(Generator<? extends S> generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Establishes values made by the given generator as test subjects.
+     *
+     * @param <T> the type of the generated values
+     * @param generator makes values
+     * @return a test subject in the fluent interface
+     */
+    public static <T> ForAllSubject<T> forAll(
+        Generator<? extends T> generator) {
+
+        return new ForAllSubject<>(requireNonNull(generator));
+    }
+
+    /**
+     * @param trials how many values to try each subsequent expectation on
+     * @return self, so that expectations can be chained
+     * @throws IllegalArgumentException if {@code trials} is negative
+     */
+    public ForAllSubject<S> trials(int trials) {
+        if (trials < 0)
+            throw new IllegalArgumentException("negative trials: " + trials);
+
+        this.trials = trials;
+        return this;
+    }
+
+    /**
+     * Fixes the seed from which subsequent expectations draw their values,
+     * to reproduce a run. By default each expectation picks a seed at
+     * random and reports it on failure.
+     *
+     * @param seed a seed
+     * @return self, so that expectations can be chained
+     */
+    public ForAllSubject<S> seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Arranges for subsequent expectations to be tried in parallel, on the
+     * {@linkplain ForkJoinPool#commonPool() common fork-join pool}.
+     *
+     * @return self, so that expectations can be chained
+     */
+    public ForAllSubject<S> inParallel() {
+        return inParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Arranges for subsequent expectations to be tried in parallel, on the
+     * given fork-join pool.
+     *
+     * @param pool where to try expectations
+     * @return self, so that expectations can be chained
+     */
+    public ForAllSubject<S> inParallel(ForkJoinPool pool) {
+        this.pool = requireNonNull(pool);
+        return this;
+    }
+
+    @Override protected void test(Predicate<? super S> p) {
+        long runSeed =
+            seed == null ? ThreadLocalRandom.current().nextLong() : seed;
+        Run run = new Run(p, runSeed);
+        if (pool == null)
+            run.trials(0, trials);
+        else
+            pool.invoke(run.new Task(0, trials));
+
+        if (run.failedTrial == NOT_FOUND)
+            return;
+
+        S original = run.counterexample;
+        S shrunk = original;
+        int shrinks = 0;
+        for (; shrinks < MAXIMUM_SHRINKS; ++shrinks) {
+            S simpler = simplerFailure(shrunk, p);
+            if (simpler == null)
+                break;
+            shrunk = simpler;
+        }
+
+        fail(
+            "[%s] did not satisfy [%s]%s (trial %d of %d, seed %d%s)",
+            shrunk,
+            p,
+            Mismatch.of(p, shrunk),
+            run.failedTrial + 1,
+            trials,
+            runSeed,
+            new Shrinking<>(original, shrinks));
+    }
+
+    private S simplerFailure(S value, Predicate<? super S> p) {
+        @SuppressWarnings("unchecked")
+        List<S> candidates =
+            ((Generator<S>) generator).shrink(value);
+
+        if (pool == null) {
+            for (S each : candidates) {
+                if (!p.test(each))
+                    return each;
+            }
+            return null;
+        }
+
+        ParallelSearch<S> search = ParallelSearch.firstFailure(
+            candidates,
+            p,
+            pool,
+            Deadline.after(null));
+        return search.succeeded() ? search.found() : null;
+    }
+
+    /**
+     * @param seed the seed of a run
+     * @param trial the index of a trial
+     * @return a seed for the trial, well mixed, so that neighboring trials
+     * draw unrelated values
+     */
+    static long trialSeed(long seed, long trial) {
+        long z = seed + (trial + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /** The state of trying one expectation. */
+    private final class Run {
+        private final Predicate<? super S> p;
+        private final long seed;
+        volatile long failedTrial = NOT_FOUND;
+        S counterexample;
+
+        Run(Predicate<? super S> p, long seed) {
+            this.p = p;
+            this.seed = seed;
+        }
+
+        void trials(int from, int to) {
+            for (int i = from; i < to && i < failedTrial; ++i) {
+                SplittableRandom random =
+                    new SplittableRandom(trialSeed(seed, i));
+                S value = generator.generate(random);
+                if (!p.test(value))
+                    failed(i, value);
+            }
+        }
+
+        private synchronized void failed(long trial, S value) {
+            if (trial < failedTrial) {
+                counterexample = value;
+                failedTrial = trial;
+            }
+        }
+
+        final class Task extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+
+            Task(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override protected void compute() {
+                if (from >= failedTrial)
+                    return;
+
+                int threshold = Math.max(
+                    1,
+                    trials / (getPool().getParallelism() << 3));
+                if (to - from <= threshold) {
+                    trials(from, to);
+                } else {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new Task(from, middle), new Task(middle, to));
+                }
+            }
+        }
+    }
+
+    /** Describes, when asked, how a counterexample was shrunk. */
+    private static final class Shrinking<S> {
+        private final S original;
+        private final int shrinks;
+
+        Shrinking(S original, int shrinks) {
+            this.original = original;
+            this.shrinks = shrinks;
+        }
+
+        @Override public String toString() {
+            if (shrinks == 0)
+                return "";
+            return "; shrunk " + shrinks + (shrinks == 1 ? " time" : " times")
+                + " from [" + original + ']';
+        }
+    }
+}
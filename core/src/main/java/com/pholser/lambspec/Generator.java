@@ -0,0 +1,196 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>Makes random values for {@linkplain ForAllSubject#forAll(Generator)
+ * generative checking}, and suggests simpler values to try in place of
+ * one that does not meet an expectation.</p>
+ *
+ * <p>A generator must make its values from the source of randomness it is
+ * given and nothing else, so that a run can be reproduced from its seed,
+ * and must be safe to call from many threads at once.</p>
+ *
+ * @param <T> the type of values generated
+ */
+@FunctionalInterface
+public interface Generator<T> {
+    /**
+     * @param random a source of randomness
+     * @return a value
+     */
+    T generate(SplittableRandom random);
+
+    /**
+     * Suggests values simpler than the given one, simplest first. Shrinking
+     * a counterexample tries these in turn. By default, suggests none.
+     *
+     * @param value a value made by this generator
+     * @return simpler values
+     */
+    default List<T> shrink(T value) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param shrinker suggests values simpler than a given one
+     * @return a generator that makes the values this one does, and shrinks
+     * them with the given shrinker
+     */
+    default Generator<T> shrinkingWith(Function<T, List<T>> shrinker) {
+        requireNonNull(shrinker);
+        Generator<T> self = this;
+        return new Generator<T>() {
+            @Override public T generate(SplittableRandom random) {
+                return self.generate(random);
+            }
+
+            @Override public List<T> shrink(T value) {
+                return shrinker.apply(value);
+            }
+        };
+    }
+
+    /**
+     * @param min the least value to make
+     * @param max the greatest value to make
+     * @return a generator of {@code int}s in the given range, which shrinks
+     * them toward zero, or toward whichever end of the range is nearer to
+     * zero
+     * @throws IllegalArgumentException if {@code min > max}
+     */
+    static Generator<Integer> ints(int min, int max) {
+        if (min > max)
+            throw new IllegalArgumentException(min + " > " + max);
+
+        Generator<Long> longs = longs(min, max);
+        return new Generator<Integer>() {
+            @Override public Integer generate(SplittableRandom random) {
+                return longs.generate(random).intValue();
+            }
+
+            @Override public List<Integer> shrink(Integer value) {
+                List<Integer> simpler = new ArrayList<>();
+                for (Long each : longs.shrink(value.longValue()))
+                    simpler.add(each.intValue());
+                return simpler;
+            }
+        };
+    }
+
+    /**
+     * @param min the least value to make
+     * @param max the greatest value to make
+     * @return a generator of {@code long}s in the given range, which
+     * shrinks them toward zero, or toward whichever end of the range is
+     * nearer to zero
+     * @throws IllegalArgumentException if {@code min > max}
+     */
+    static Generator<Long> longs(long min, long max) {
+        if (min > max)
+            throw new IllegalArgumentException(min + " > " + max);
+
+        long origin = min > 0 ? min : max < 0 ? max : 0;
+        return new Generator<Long>() {
+            @Override public Long generate(SplittableRandom random) {
+                if (min == Long.MIN_VALUE && max == Long.MAX_VALUE)
+                    return random.nextLong();
+                if (max == Long.MAX_VALUE)
+                    return random.nextLong(min - 1, max) + 1;
+                return random.nextLong(min, max + 1);
+            }
+
+            @Override public List<Long> shrink(Long value) {
+                List<Long> simpler = new ArrayList<>();
+                for (long distance = value - origin;
+                    distance != 0;
+                    distance /= 2) {
+
+                    simpler.add(value - distance);
+                }
+                return simpler;
+            }
+        };
+    }
+
+    /**
+     * @param <E> the type of the elements of the lists
+     * @param elements makes the elements of the lists
+     * @param maxSize the most elements a list may have
+     * @return a generator of lists, which shrinks them by dropping elements
+     * and by shrinking elements
+     * @throws IllegalArgumentException if {@code maxSize} is negative
+     */
+    static <E> Generator<List<E>> lists(Generator<E> elements, int maxSize) {
+        requireNonNull(elements);
+        if (maxSize < 0)
+            throw new IllegalArgumentException("negative size: " + maxSize);
+
+        return new Generator<List<E>>() {
+            @Override public List<E> generate(SplittableRandom random) {
+                int size = random.nextInt(maxSize + 1);
+                List<E> list = new ArrayList<>(size);
+                for (int i = 0; i < size; ++i)
+                    list.add(elements.generate(random));
+                return list;
+            }
+
+            @Override public List<List<E>> shrink(List<E> value) {
+                List<List<E>> simpler = new ArrayList<>();
+                int size = value.size();
+                if (size == 0)
+                    return simpler;
+
+                simpler.add(new ArrayList<>());
+                if (size > 1) {
+                    simpler.add(new ArrayList<>(value.subList(0, size / 2)));
+                    simpler.add(new ArrayList<>(value.subList(size / 2, size)));
+                }
+                for (int i = 0; i < size; ++i) {
+                    List<E> without = new ArrayList<>(value);
+                    without.remove(i);
+                    simpler.add(without);
+                }
+                for (int i = 0; i < size; ++i) {
+                    for (E each : elements.shrink(value.get(i))) {
+                        List<E> shrunk = new ArrayList<>(value);
+                        shrunk.set(i, each);
+                        simpler.add(shrunk);
+                    }
+                }
+                return simpler;
+            }
+        };
+    }
+}
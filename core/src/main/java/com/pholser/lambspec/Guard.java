@@ -0,0 +1,224 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>An invariant to check in production code paths. Rather than throwing
+ * when the invariant does not hold, a guard reports the violation to a
+ * {@link ViolationSink}, at most so many times in a period.</p>
+ *
+ * <p>Make one guard per call site, and keep it in a {@code static final}
+ * field, so that checking it allocates nothing:</p>
+ *
+ * <pre>
+ * private static final Guard&lt;Order&gt; balanced =
+ *     Guard.that(meet("balanced", Order::isBalanced)).sampling(100);
+ *
+ * void submit(Order order) {
+ *     balanced.check(order);
+ *     ...
+ * }
+ * </pre>
+ *
+ * <p>Guards are on unless the system property {@code lambspec.guards} is
+ * {@code false} when this class is initialized. The switch is held in a
+ * {@code static final} field, so when guards are off the JIT compiler can
+ * remove checks altogether.</p>
+ *
+ * <p>A guard may check only a random sample of its targets, one in
+ * <em>n</em> on average, to bound the cost of an expensive invariant under
+ * load.</p>
+ *
+ * @param <T> the type of the targets of the guard
+ */
+public final class Guard<T> {
+    /** Whether guards are on; fixed when this class is initialized. */
+    public static final boolean ENABLED =
+        !"false".equalsIgnoreCase(System.getProperty("lambspec.guards"));
+
+    /** How many violations a guard reports per minute by default. */
+    public static final int DEFAULT_REPORTS_PER_MINUTE = 10;
+
+    private static final ViolationSink DEFAULT_SINK =
+        ViolationSink.logTo(Logger.getLogger(Guard.class.getName()));
+
+    private final Predicate<? super T> invariant;
+    private final int oneIn;
+    private final ViolationSink sink;
+    private final long reports;
+    private final Duration period;
+    private final RateLimiter limiter;
+    private final LongAdder violations = new LongAdder();
+    private final AtomicLong unreported = new AtomicLong();
+
+    private Guard(
+        Predicate<? super T> invariant,
+        int oneIn,
+        ViolationSink sink,
+        long reports,
+        Duration period) {
+
+        this.invariant = invariant;
+        this.oneIn = oneIn;
+        this.sink = sink;
+        this.reports = reports;
+        this.period = period;
+        this.limiter = new RateLimiter(reports, period.toNanos());
+    }
+
+    /**
+     * Makes a guard that checks every target against the given invariant,
+     * logging at most {@link #DEFAULT_REPORTS_PER_MINUTE} violations a
+     * minute to the {@link java.util.logging.Logger} named for this class.
+     *
+     * @param <T> the type of the targets of the guard
+     * @param invariant a predicate that targets should satisfy
+     * @return a guard
+     */
+    public static <T> Guard<T> that(Predicate<? super T> invariant) {
+        return new Guard<>(
+            requireNonNull(invariant),
+            1,
+            DEFAULT_SINK,
+            DEFAULT_REPORTS_PER_MINUTE,
+            Duration.ofMinutes(1));
+    }
+
+    /**
+     * @param oneIn check, on average, one target in this many
+     * @return a guard like this one that checks only a random sample of its
+     * targets
+     * @throws IllegalArgumentException if {@code oneIn} is not positive
+     */
+    public Guard<T> sampling(int oneIn) {
+        if (oneIn <= 0)
+            throw new IllegalArgumentException("non-positive rate: " + oneIn);
+
+        return new Guard<>(invariant, oneIn, sink, reports, period);
+    }
+
+    /**
+     * @param sink where to report violations
+     * @return a guard like this one that reports to the given sink
+     */
+    public Guard<T> reportingTo(ViolationSink sink) {
+        return new Guard<>(
+            invariant,
+            oneIn,
+            requireNonNull(sink),
+            reports,
+            period);
+    }
+
+    /**
+     * @param reports how many violations to report in each period
+     * @param period length of a period
+     * @return a guard like this one that reports at most the given number of
+     * violations in each period, and only counts the rest
+     * @throws IllegalArgumentException if {@code reports} is negative or
+     * {@code period} is not positive
+     */
+    public Guard<T> atMost(long reports, Duration period) {
+        if (reports < 0)
+            throw new IllegalArgumentException("negative reports: " + reports);
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException(
+                "non-positive period: " + period);
+        }
+
+        return new Guard<>(invariant, oneIn, sink, reports, period);
+    }
+
+    /**
+     * Checks the given target against this guard's invariant, if guards are
+     * {@linkplain #ENABLED on} and the target is sampled, reporting a
+     * violation if it does not hold.
+     *
+     * @param target an object to check
+     */
+    public void check(T target) {
+        if (!ENABLED)
+            return;
+        if (oneIn > 1 && ThreadLocalRandom.current().nextInt(oneIn) != 0)
+            return;
+
+        if (Instrumentation.enabled) {
+            long start = System.nanoTime();
+            boolean held = invariant.test(target);
+            Instrumentation.record(invariant, System.nanoTime() - start, !held);
+            if (!held)
+                violated(target);
+        } else if (!invariant.test(target)) {
+            violated(target);
+        }
+    }
+
+    /**
+     * @return how many violations this guard has found
+     */
+    public long violationCount() {
+        return violations.sum();
+    }
+
+    /**
+     * @return how many violations this guard has found but not reported,
+     * because of its limit on reports
+     */
+    public long suppressedCount() {
+        return limiter.refusedCount();
+    }
+
+    @Override public String toString() {
+        return invariant.toString();
+    }
+
+    private void violated(T target) {
+        violations.increment();
+        if (!limiter.tryAcquire()) {
+            unreported.incrementAndGet();
+            return;
+        }
+
+        long suppressed = unreported.getAndSet(0);
+        sink.violated(new ExpectationFailure(
+            "[%s] did not satisfy [%s]%s%s",
+            target,
+            invariant,
+            Mismatch.of(invariant, target),
+            suppressed == 0
+                ? ""
+                : " (" + suppressed + " other violations not reported)"));
+    }
+}
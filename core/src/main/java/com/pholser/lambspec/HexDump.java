@@ -0,0 +1,98 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Renders a few bytes of a buffer around a byte of interest in hex, for
+ * use in failure messages. Reads the buffer with absolute gets, so never
+ * disturbs its position.
+ */
+final class HexDump {
+    /** How many bytes to show on either side of a byte of interest. */
+    static final int RADIUS = 8;
+
+    private HexDump() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @param buffer a buffer
+     * @param index index of a byte of interest, relative to the buffer's
+     * position; may equal the number of bytes remaining, to show the end of
+     * the buffer
+     * @return the bytes around the byte of interest, such as
+     * {@code "... 0a 0b [0c] 0d"}
+     */
+    static String around(ByteBuffer buffer, int index) {
+        int base = buffer.position();
+        int size = buffer.remaining();
+        int first = Math.max(0, index - RADIUS);
+        int last = Math.min(size, index + RADIUS + 1);
+
+        StringBuilder dump = new StringBuilder();
+        if (first > 0)
+            dump.append("...");
+        for (int i = first; i < last; ++i) {
+            if (dump.length() > 0)
+                dump.append(' ');
+            if (i == index)
+                dump.append('[');
+            appendByte(dump, buffer.get(base + i));
+            if (i == index)
+                dump.append(']');
+        }
+        if (index >= size)
+            dump.append(dump.length() > 0 ? " [end]" : "[end]");
+        else if (last < size)
+            dump.append(" ...");
+        return dump.toString();
+    }
+
+    /**
+     * @param bytes some bytes
+     * @return the bytes in hex, such as {@code "ca fe ba be"}, eliding all
+     * but the first few
+     */
+    static String of(byte[] bytes) {
+        StringBuilder dump = new StringBuilder();
+        int shown = Math.min(bytes.length, 2 * RADIUS);
+        for (int i = 0; i < shown; ++i) {
+            if (i > 0)
+                dump.append(' ');
+            appendByte(dump, bytes[i]);
+        }
+        if (shown < bytes.length)
+            dump.append(" ... (").append(bytes.length).append(" bytes)");
+        return dump.toString();
+    }
+
+    private static void appendByte(StringBuilder dump, byte b) {
+        dump.append(Character.forDigit((b >> 4) & 0xf, 16))
+            .append(Character.forDigit(b & 0xf, 16));
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>Opt-in measurement of expectations and {@linkplain Guard guards}: how
+ * often each predicate is evaluated, how often it is not satisfied, and how
+ * long it takes.</p>
+ *
+ * <p>Instrumentation is off unless {@link #enable()}d, or the system
+ * property {@code lambspec.instrumentation} is {@code true} when this
+ * class is initialized. While it is off, setting an expectation costs one
+ * extra volatile read.</p>
+ *
+ * <p>Predicates with a {@linkplain StableDescription stable description},
+ * such as those named with {@link DescriptivePredicate#meet(String,
+ * Predicate) meet}, made by {@link Lambspec#be(Object) be(...)} or
+ * {@link Lambspec#satisfyAll(Predicate, Predicate[]) satisfyAll(...)}, or
+ * adapted from Hamcrest or Guava, are measured by description, so that
+ * every such predicate described alike shares one set of metrics. Any
+ * other predicate is measured by its class: a lambda expression or method
+ * reference by the class made for it. Recording an evaluation thus renders
+ * a predicate's {@code toString()} at most once, and never takes a
+ * lock. At most {@link #MAXIMUM_DESCRIPTIONS} descriptions are tracked;
+ * evaluations of predicates beyond that are pooled under
+ * {@link #OTHERS}.</p>
+ *
+ * <p>Metrics can be read {@linkplain #metrics() directly}, through
+ * {@linkplain EvaluationListener listeners}, or through JMX once
+ * {@linkplain #registerMBean() registered}.</p>
+ */
+public final class Instrumentation {
+    /** The most distinct predicate descriptions to track. */
+    public static final int MAXIMUM_DESCRIPTIONS = 1024;
+
+    /** Key for evaluations beyond {@link #MAXIMUM_DESCRIPTIONS}. */
+    public static final String OTHERS = "(other predicates)";
+
+    /** Name under which {@link #registerMBean()} registers. */
+    public static final String OBJECT_NAME =
+        "com.pholser.lambspec:type=Instrumentation";
+
+    static volatile boolean enabled =
+        Boolean.getBoolean("lambspec.instrumentation");
+
+    private static final ConcurrentMap<Object, PredicateMetrics> metrics =
+        new ConcurrentHashMap<>();
+    private static final List<EvaluationListener> listeners =
+        new CopyOnWriteArrayList<>();
+    private static boolean servicesLoaded;
+
+    private Instrumentation() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Turns instrumentation on, loading any {@linkplain EvaluationListener
+     * listener services} the first time.
+     */
+    public static void enable() {
+        loadServices();
+        enabled = true;
+    }
+
+    /** Turns instrumentation off. Metrics gathered so far are kept. */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * @return whether instrumentation is on
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param listener a listener to notify of each evaluation
+     */
+    public static void addListener(EvaluationListener listener) {
+        listeners.add(requireNonNull(listener));
+    }
+
+    /**
+     * @param listener a listener to stop notifying
+     */
+    public static void removeListener(EvaluationListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return metrics for each predicate description evaluated so far,
+     * ordered by description
+     */
+    public static List<PredicateMetrics> metrics() {
+        List<PredicateMetrics> all = new ArrayList<>(metrics.values());
+        all.sort((a, b) -> a.description().compareTo(b.description()));
+        return Collections.unmodifiableList(all);
+    }
+
+    /**
+     * @param p a predicate
+     * @return metrics for predicates described as the given one is, or
+     * {@code null} if none have been evaluated
+     */
+    public static PredicateMetrics metricsFor(Object p) {
+        return metrics.get(keyOf(p));
+    }
+
+    /** Discards all metrics gathered so far. */
+    public static void reset() {
+        metrics.clear();
+    }
+
+    /**
+     * Registers an {@link InstrumentationMXBean} with the platform MBean
+     * server under {@link #OBJECT_NAME}, unless one is registered already.
+     *
+     * @return the name of the MBean
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static synchronized ObjectName registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(name))
+                server.registerMBean(new Bean(), name);
+            return name;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs a test of the given predicate, measuring it. The test is taken
+     * to have failed if it throws, as it does even while
+     * {@linkplain SoftExpectations soft expectations} are being collected.
+     *
+     * @param p the predicate being tested
+     * @param test the test
+     */
+    static void measure(Object p, Runnable test) {
+        boolean failed = true;
+        long start = System.nanoTime();
+        try {
+            test.run();
+            failed = false;
+        } finally {
+            record(p, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Records an evaluation of the given predicate.
+     *
+     * @param p the predicate evaluated
+     * @param nanos how long the evaluation took, in nanoseconds
+     * @param failed whether the predicate was not satisfied
+     */
+    static void record(Object p, long nanos, boolean failed) {
+        Object key = keyOf(p);
+        PredicateMetrics entry = metrics.get(key);
+        if (entry == null) {
+            entry = metrics.size() < MAXIMUM_DESCRIPTIONS
+                ? metrics.computeIfAbsent(key, Instrumentation::newMetrics)
+                : metrics.computeIfAbsent(OTHERS, Instrumentation::newMetrics);
+        }
+        entry.record(nanos, failed);
+
+        for (EvaluationListener each : listeners) {
+            try {
+                each.evaluated(entry.description(), nanos, failed);
+            } catch (RuntimeException ignored) {
+                // a listener must not mask the outcome of the evaluation
+            }
+        }
+    }
+
+    private static Object keyOf(Object p) {
+        return p instanceof StableDescription ? p.toString() : p.getClass();
+    }
+
+    private static PredicateMetrics newMetrics(Object key) {
+        return new PredicateMetrics(
+            key instanceof Class<?>
+                ? ((Class<?>) key).getName().replaceFirst("/.*$", "")
+                : (String) key);
+    }
+
+    private static synchronized void loadServices() {
+        if (servicesLoaded)
+            return;
+
+        for (EvaluationListener each : ServiceLoader.load(
+            EvaluationListener.class,
+            Instrumentation.class.getClassLoader())) {
+
+            listeners.add(each);
+        }
+        servicesLoaded = true;
+    }
+
+    private static final class Bean implements InstrumentationMXBean {
+        @Override public boolean isEnabled() {
+            return Instrumentation.isEnabled();
+        }
+
+        @Override public void setEnabled(boolean enabled) {
+            if (enabled)
+                enable();
+            else
+                disable();
+        }
+
+        @Override public Map<String, Long> getEvaluations() {
+            return longs(PredicateMetrics::evaluations);
+        }
+
+        @Override public Map<String, Long> getFailures() {
+            return longs(PredicateMetrics::failures);
+        }
+
+        @Override public Map<String, Double> getMeanNanos() {
+            return doubles(PredicateMetrics::meanNanos);
+        }
+
+        @Override public Map<String, Long> getP99Nanos() {
+            return longs(m -> m.percentileNanos(99));
+        }
+
+        @Override public void reset() {
+            Instrumentation.reset();
+        }
+
+        private static Map<String, Long> longs(
+            ToLongFunction<PredicateMetrics> reading) {
+
+            Map<String, Long> readings = new TreeMap<>();
+            for (PredicateMetrics each : metrics.values())
+                readings.put(each.description(), reading.applyAsLong(each));
+            return readings;
+        }
+
+        private static Map<String, Double> doubles(
+            ToDoubleFunction<PredicateMetrics> reading) {
+
+            Map<String, Double> readings = new TreeMap<>();
+            for (PredicateMetrics each : metrics.values())
+                readings.put(each.description(), reading.applyAsDouble(each));
+            return readings;
+        }
+    }
+}
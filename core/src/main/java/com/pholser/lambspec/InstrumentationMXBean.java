@@ -0,0 +1,69 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.Map;
+
+/**
+ * Management interface to {@link Instrumentation}, registered by
+ * {@link Instrumentation#registerMBean()}. Maps are keyed by predicate
+ * description.
+ */
+public interface InstrumentationMXBean {
+    /**
+     * @return whether instrumentation is on
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled whether instrumentation should be on
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return how many times each predicate has been evaluated
+     */
+    Map<String, Long> getEvaluations();
+
+    /**
+     * @return how many times each predicate has not been satisfied
+     */
+    Map<String, Long> getFailures();
+
+    /**
+     * @return mean time to evaluate each predicate, in nanoseconds
+     */
+    Map<String, Double> getMeanNanos();
+
+    /**
+     * @return approximate 99th percentile time to evaluate each predicate,
+     * in nanoseconds
+     */
+    Map<String, Long> getP99Nanos();
+
+    /** Discards all metrics gathered so far. */
+    void reset();
+}
@@ -0,0 +1,246 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Readable descriptions of serializable lambda expressions and method
+ * references. The {@code toString()} of a lambda names only its synthetic
+ * class; a serializable one can instead be described by the method that
+ * implements it and the values it captured, recovered from its
+ * {@link SerializedLambda}.
+ *
+ * <p>The name of the implementing method is worked out once per lambda
+ * class. Captured values differ from instance to instance, so they are
+ * rendered only when a description is actually asked for; a class found
+ * to capture nothing is described by its name alone thereafter, without
+ * taking the serialized form again.</p>
+ */
+final class LambdaDescriptions {
+    private static final int MAXIMUM_CAPTURE_LENGTH = 100;
+
+    private static final LongAdder sitesResolved = new LongAdder();
+    private static final LongAdder formsTaken = new LongAdder();
+    private static final ClassValue<Site> sites = new ClassValue<Site>() {
+        @Override protected Site computeValue(Class<?> type) {
+            sitesResolved.increment();
+            return Site.of(type);
+        }
+    };
+
+    private LambdaDescriptions() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * @param o an object
+     * @return an object whose {@link Object#toString()} describes {@code o}
+     * readably if it is a serializable lambda or method reference;
+     * otherwise {@code o} itself
+     */
+    static Object of(Object o) {
+        if (o == null)
+            return null;
+
+        Site site = sites.get(o.getClass());
+        return site == null ? o : new Described(site, o);
+    }
+
+    /**
+     * @param args format arguments
+     * @return the arguments, with any serializable lambdas or method
+     * references among them {@linkplain #of(Object) described readably};
+     * the given array if there are none
+     */
+    static Object[] ofEach(Object[] args) {
+        if (args == null)
+            return null;
+
+        Object[] described = args;
+        for (int i = 0; i < args.length; ++i) {
+            Object each = of(args[i]);
+            if (each != args[i]) {
+                if (described == args)
+                    described =
+                        Arrays.copyOf(args, args.length, Object[].class);
+                described[i] = each;
+            }
+        }
+        return described;
+    }
+
+    /**
+     * @param o an object
+     * @return a readable description of {@code o} if it is a serializable
+     * lambda or method reference; otherwise its {@code toString()}
+     */
+    static String describe(Object o) {
+        return String.valueOf(of(o));
+    }
+
+    /**
+     * @return how many classes have been examined for a serializable lambda
+     * form, for testing that the examination is done once per class
+     */
+    static long sitesResolved() {
+        return sitesResolved.sum();
+    }
+
+    /**
+     * @return how many serialized forms of lambdas have been taken, for
+     * testing that lambdas capturing nothing are not asked for theirs
+     */
+    static long formsTaken() {
+        return formsTaken.sum();
+    }
+
+    private static final class Site {
+        private final Method writeReplace;
+        private volatile String name;
+        private volatile boolean capturesNothing;
+
+        private Site(Method writeReplace) {
+            this.writeReplace = writeReplace;
+        }
+
+        static Site of(Class<?> type) {
+            if (!type.isSynthetic()
+                || !Serializable.class.isAssignableFrom(type)) {
+
+                return null;
+            }
+
+            try {
+                Method writeReplace = type.getDeclaredMethod("writeReplace");
+                writeReplace.setAccessible(true);
+                return new Site(writeReplace);
+            } catch (NoSuchMethodException | RuntimeException ex) {
+                return null;
+            }
+        }
+
+        String describe(Object lambda) {
+            if (capturesNothing)
+                return name;
+
+            SerializedLambda form;
+            try {
+                formsTaken.increment();
+                Object replacement = writeReplace.invoke(lambda);
+                if (!(replacement instanceof SerializedLambda))
+                    return lambda.toString();
+                form = (SerializedLambda) replacement;
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                return lambda.toString();
+            }
+
+            String result = name;
+            if (result == null) {
+                result = nameOf(form);
+                name = result;
+            }
+
+            int captured = form.getCapturedArgCount();
+            if (captured == 0) {
+                capturesNothing = true;
+                return result;
+            }
+
+            StringBuilder buffer = new StringBuilder(result);
+            int first = 0;
+            if (isBoundReference(form)) {
+                buffer.append(" on [")
+                    .append(abbreviated(form.getCapturedArg(0)))
+                    .append(']');
+                first = 1;
+            }
+            if (first < captured) {
+                buffer.append(" capturing [");
+                for (int i = first; i < captured; ++i) {
+                    if (i > first)
+                        buffer.append(", ");
+                    buffer.append(abbreviated(form.getCapturedArg(i)));
+                }
+                buffer.append(']');
+            }
+            return buffer.toString();
+        }
+
+        private static String nameOf(SerializedLambda form) {
+            String owner = form.getImplClass().replace('/', '.');
+            String method = form.getImplMethodName();
+
+            if (form.getImplMethodKind()
+                == MethodHandleInfo.REF_newInvokeSpecial) {
+
+                return owner + "::new";
+            }
+            if (method.startsWith("lambda$")) {
+                int end = method.indexOf('$', 7);
+                String enclosing =
+                    method.substring(7, end < 0 ? method.length() : end);
+                return owner + '.' + enclosing + " lambda";
+            }
+            return owner + "::" + method;
+        }
+
+        private static boolean isBoundReference(SerializedLambda form) {
+            if (form.getImplMethodName().startsWith("lambda$"))
+                return false;
+
+            int kind = form.getImplMethodKind();
+            return kind == MethodHandleInfo.REF_invokeVirtual
+                || kind == MethodHandleInfo.REF_invokeInterface
+                || kind == MethodHandleInfo.REF_invokeSpecial;
+        }
+
+        private static String abbreviated(Object captured) {
+            return Diff.abbreviate(
+                String.valueOf(captured),
+                MAXIMUM_CAPTURE_LENGTH);
+        }
+    }
+
+    private static final class Described {
+        private final Site site;
+        private final Object lambda;
+
+        Described(Site site, Object lambda) {
+            this.site = site;
+            this.lambda = lambda;
+        }
+
+        @Override public String toString() {
+            return site.describe(lambda);
+        }
+    }
+}
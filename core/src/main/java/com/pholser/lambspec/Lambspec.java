@@ -25,8 +25,16 @@
 
 package com.pholser.lambspec;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Predicate;
 
+import static java.util.Arrays.*;
+import static java.util.Objects.*;
+
 /**
  * Sugar methods/fields for creating expectations in the form of
  * {@link Predicate}s.
@@ -62,8 +70,10 @@ public class Lambspec {
     /**
      * <p>Creates a disjunction predicate from many other predicates.</p>
      *
-     * <p>This method is sugar for chained calls to
-     * {@link Predicate#or(Predicate)}.</p>
+     * <p>This method is an alternative to chained calls to
+     * {@link Predicate#or(Predicate)}. The predicates are held in a flat
+     * {@linkplain CompositePredicate composite}, which is cheaper to test and
+     * gives better failure messages than a chain of nested lambdas.</p>
      *
      * <p>For example:</p>
      *
@@ -74,21 +84,44 @@ public class Lambspec {
      * @param rest zero or more predicates
      * @return a predicate that is the disjunction of the given predicates
      */
-    @SafeVarargs public static <S> Predicate<S> satisfyAny(
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> Predicate<S> satisfyAny(
         Predicate<S> first,
         Predicate<? super S>... rest) {
 
-        Predicate<S> disjunction = first;
-        for (Predicate<? super S> each : rest)
-            disjunction = disjunction.or(each);
-        return disjunction;
+        return CompositePredicate.anyOf(prepend(first, rest));
+    }
+
+    /**
+     * <p>Creates a disjunction predicate from many other predicates, that
+     * learns which order to test them in: those that most often pass, at
+     * least cost, first. The predicates should be free of side effects,
+     * since which of them are tested will change.</p>
+     *
+     * @param <S> a constraint on the type of the arguments to the predicates
+     * @param first a predicate
+     * @param rest zero or more predicates
+     * @return an {@linkplain CompositePredicate#adaptive() adaptive}
+     * disjunction of the given predicates
+     * @see #satisfyAny(Predicate, Predicate[])
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> CompositePredicate<S> satisfyAnyAdaptively(
+        Predicate<S> first,
+        Predicate<? super S>... rest) {
+
+        return CompositePredicate.<S> anyOf(prepend(first, rest)).adaptive();
     }
 
     /**
      * <p>Creates a conjunction predicate from many other predicates.</p>
      *
-     * <p>This method is sugar for chained calls to
-     * {@link Predicate#and(Predicate)}.</p>
+     * <p>This method is an alternative to chained calls to
+     * {@link Predicate#and(Predicate)}. The predicates are held in a flat
+     * {@linkplain CompositePredicate composite}, which is cheaper to test and
+     * gives better failure messages than a chain of nested lambdas.</p>
      *
      * <p>For example:</p>
      *
@@ -99,14 +132,82 @@ public class Lambspec {
      * @param rest zero or more predicates
      * @return a predicate that is the conjunction of the given predicates
      */
-    @SafeVarargs public static <S> Predicate<S> satisfyAll(
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> Predicate<S> satisfyAll(
         Predicate<S> first,
         Predicate<? super S>... rest) {
 
-        Predicate<S> conjunction = first;
-        for (Predicate<? super S> each : rest)
-            conjunction = conjunction.and(each);
-        return conjunction;
+        return CompositePredicate.allOf(prepend(first, rest));
+    }
+
+    /**
+     * <p>Creates a conjunction predicate from many other predicates, that
+     * learns which order to test them in: those that most often fail, at
+     * least cost, first. The predicates should be free of side effects,
+     * since which of them are tested will change.</p>
+     *
+     * @param <S> a constraint on the type of the arguments to the predicates
+     * @param first a predicate
+     * @param rest zero or more predicates
+     * @return an {@linkplain CompositePredicate#adaptive() adaptive}
+     * conjunction of the given predicates
+     * @see #satisfyAll(Predicate, Predicate[])
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> CompositePredicate<S> satisfyAllAdaptively(
+        Predicate<S> first,
+        Predicate<? super S>... rest) {
+
+        return CompositePredicate.<S> allOf(prepend(first, rest)).adaptive();
+    }
+
+    /**
+     * <p>Creates a predicate that remembers the answers the given predicate
+     * gives, for use when the given predicate is expensive and is tested
+     * repeatedly on the same targets.</p>
+     *
+     * <p>For example:</p>
+     *
+     * <pre>Predicate&lt;Document&gt; valid = <strong>cached(schema::validates)</strong>;</pre>
+     *
+     * @param <S> the type of the argument to the predicate
+     * @param p a predicate
+     * @return a predicate that caches the answers of {@code p}
+     * @see CachingPredicate
+     */
+    public static <S> CachingPredicate<S> cached(Predicate<S> p) {
+        return CachingPredicate.of(p);
+    }
+
+    /**
+     * <p>Creates a predicate that gives the given predicate a limited time
+     * to answer.</p>
+     *
+     * <p>The given predicate is evaluated on the calling thread, watched by
+     * a shared daemon thread. If it has not answered when the time runs out,
+     * the calling thread is interrupted, and the created predicate answers
+     * that the target is not satisfactory; the failure message says that
+     * time ran out. A predicate that ignores interruption runs until it
+     * finishes before the created predicate answers.</p>
+     *
+     * <p>For example:</p>
+     *
+     * <pre>expect(document).to(<strong>within(Duration.ofSeconds(1), schema::validates)</strong>);</pre>
+     *
+     * @param <S> the type of the argument to the predicate
+     * @param budget how long to allow the predicate to answer
+     * @param p a predicate
+     * @return a predicate that answers as {@code p} does, within the given
+     * time
+     * @throws IllegalArgumentException if {@code budget} is negative
+     */
+    public static <S> Predicate<S> within(Duration budget, Predicate<S> p) {
+        if (budget.isNegative())
+            throw new IllegalArgumentException("negative budget: " + budget);
+
+        return new TimeBoundPredicate<>(budget, requireNonNull(p));
     }
 
     /**
@@ -131,30 +232,449 @@ public class Lambspec {
     }
 
     /**
-     * Creates a predicate that decides whether a given item is in the given
-     * sequence.
+     * <p>Creates a predicate that decides whether a given item is in the
+     * given sequence.</p>
+     *
+     * <p>When the sequence is a {@link java.util.Collection}, its own
+     * {@link java.util.Collection#contains(Object) contains} is used, so
+     * hashed and sorted sets answer without a linear scan.</p>
      *
      * @param <S> the type of the item
      * @param item the item to look for in the sequence
      * @return a predicate that tests whether the given item is in a sequence
      */
     public static <S> Predicate<Iterable<S>> have(S item) {
-        return haveAnItemSatisfying(be(item));
+        return Containment.allOf(new Object[] { item });
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether all of the given items are
+     * in a sequence.</p>
+     *
+     * <p>The items are indexed once, when the predicate is created, so a
+     * sequence is traversed at most once no matter how many items are
+     * sought. When the sequence is a {@link java.util.Set}, its own
+     * {@link java.util.Collection#contains(Object) contains} is used
+     * instead.</p>
+     *
+     * <p>For example:</p>
+     *
+     * <pre>expect(asList("a", "b", "c")).to(<strong>haveAll("c", "a")</strong>);</pre>
+     *
+     * @param <S> the type of the items
+     * @param items the items to look for in the sequence
+     * @return a predicate that tests whether all the given items are in a
+     * sequence
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> Predicate<Iterable<S>> haveAll(
+        S... items) {
+
+        return Containment.allOf(items);
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether none of the given items
+     * are in a sequence.</p>
+     *
+     * <p>As with {@link #haveAll(Object[])}, the items are indexed once, so a
+     * sequence is traversed at most once.</p>
+     *
+     * @param <S> the type of the items
+     * @param items the items to look for in the sequence
+     * @return a predicate that tests whether none of the given items are in a
+     * sequence
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> Predicate<Iterable<S>> haveNoneOf(
+        S... items) {
+
+        return Containment.noneOf(items);
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a sequence holds exactly
+     * the given items, each as many times as it is given, in any
+     * order.</p>
+     *
+     * <p>The items are counted once, when the predicate is created, so a
+     * sequence is tested in time linear in its length. When the sequence
+     * does not match, the failure message lists the items it lacked and
+     * the extra items it had, with their counts.</p>
+     *
+     * <p>For example:</p>
+     *
+     * <pre>
+     * expect(asList("b", "a", "b"))
+     *     .to(<strong>containExactlyInAnyOrder("a", "b", "b")</strong>);
+     * </pre>
+     *
+     * @param <S> the type of the items
+     * @param items the items expected in the sequence
+     * @return a predicate that tests whether a sequence holds exactly the
+     * given items
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> Predicate<Iterable<S>> containExactlyInAnyOrder(
+        S... items) {
+
+        return containExactlyInAnyOrder(asList(items));
+    }
+
+    /**
+     * Creates a predicate that decides whether a sequence holds exactly the
+     * items of the given sequence, each as many times, in any order.
+     *
+     * @param <S> the type of the items
+     * @param items the items expected in the sequence
+     * @return a predicate that tests whether a sequence holds exactly the
+     * given items
+     * @see #containExactlyInAnyOrder(Object[])
+     */
+    public static <S> Predicate<Iterable<S>> containExactlyInAnyOrder(
+        Iterable<? extends S> items) {
+
+        return MultisetComparison.sameAs(items);
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a sequence holds all the
+     * given items, each at least as many times as it is given, and perhaps
+     * others besides.</p>
+     *
+     * <p>Unlike {@link #haveAll(Object[])}, repeated items must be repeated
+     * in the sequence.</p>
+     *
+     * @param <S> the type of the items
+     * @param items the items expected in the sequence
+     * @return a predicate that tests whether a sequence holds all the given
+     * items
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> Predicate<Iterable<S>> containAll(
+        S... items) {
+
+        return containAll(asList(items));
+    }
+
+    /**
+     * Creates a predicate that decides whether a sequence holds all the
+     * items of the given sequence, each at least as many times.
+     *
+     * @param <S> the type of the items
+     * @param items the items expected in the sequence
+     * @return a predicate that tests whether a sequence holds all the given
+     * items
+     * @see #containAll(Object[])
+     */
+    public static <S> Predicate<Iterable<S>> containAll(
+        Iterable<? extends S> items) {
+
+        return MultisetComparison.supersetOf(items);
+    }
+
+    /**
+     * Creates a predicate that decides whether every element of a sequence
+     * is among the given items, each occurring no more often in the
+     * sequence than it is given.
+     *
+     * @param <S> the type of the items
+     * @param items the items permitted in the sequence
+     * @return a predicate that tests whether a sequence holds only the given
+     * items
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    public static <S> Predicate<Iterable<S>> beSubsetOf(
+        S... items) {
+
+        return beSubsetOf(asList(items));
+    }
+
+    /**
+     * Creates a predicate that decides whether every element of a sequence
+     * is among the items of the given sequence, each occurring no more
+     * often.
+     *
+     * @param <S> the type of the items
+     * @param items the items permitted in the sequence
+     * @return a predicate that tests whether a sequence holds only the given
+     * items
+     * @see #beSubsetOf(Object[])
+     */
+    public static <S> Predicate<Iterable<S>> beSubsetOf(
+        Iterable<? extends S> items) {
+
+        return MultisetComparison.subsetOf(items);
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a sequence is sorted by
+     * its elements' natural order, in one pass.</p>
+     *
+     * <p>For example:</p>
+     *
+     * <pre>
+     * expect(asList(1, 2, 2, 3)).to(<strong>beSorted()</strong>);
+     * expect(ids).to(<strong>Lambspec.&lt;Long&gt; beSorted()
+     *     .withoutDuplicates()</strong>);
+     * </pre>
+     *
+     * @param <S> the type of the elements of the sequence
+     * @return a predicate that tests whether a sequence is sorted
+     * @see SequenceShape
+     */
+    public static <S extends Comparable<? super S>>
+        SequenceShape<Iterable<S>> beSorted() {
+
+        return SequenceShape.sortedBy(
+            Comparator.<S> naturalOrder(),
+            null,
+            false);
+    }
+
+    /**
+     * Creates a predicate that decides whether a sequence is sorted by the
+     * given comparator, in one pass.
+     *
+     * @param <S> the type of the elements of the sequence
+     * @param order a comparator
+     * @return a predicate that tests whether a sequence is sorted
+     * @see SequenceShape
+     */
+    public static <S> SequenceShape<Iterable<S>> beSortedBy(
+        Comparator<? super S> order) {
+
+        return SequenceShape.sortedBy(order, String.valueOf(order), false);
+    }
+
+    /**
+     * Creates a predicate that decides whether each element of a sequence
+     * is greater than the one before it in their natural order, in one
+     * pass.
+     *
+     * @param <S> the type of the elements of the sequence
+     * @return a predicate that tests whether a sequence is strictly sorted
+     * @see SequenceShape
+     */
+    public static <S extends Comparable<? super S>>
+        SequenceShape<Iterable<S>> beStrictlySorted() {
+
+        return SequenceShape.sortedBy(
+            Comparator.<S> naturalOrder(),
+            null,
+            true);
+    }
+
+    /**
+     * Creates a predicate that decides whether each element of a sequence
+     * comes after the one before it by the given comparator, in one pass.
+     * To check that a sequence is strictly decreasing, give a
+     * {@linkplain Comparator#reversed() reversed} comparator.
+     *
+     * @param <S> the type of the elements of the sequence
+     * @param order a comparator
+     * @return a predicate that tests whether a sequence is strictly sorted
+     * @see SequenceShape
+     */
+    public static <S> SequenceShape<Iterable<S>> beStrictlySortedBy(
+        Comparator<? super S> order) {
+
+        return SequenceShape.sortedBy(order, String.valueOf(order), true);
+    }
+
+    /**
+     * Creates a predicate that decides whether a sequence has no two
+     * {@linkplain Object#equals(Object) equal} elements, in one pass with a
+     * hash set.
+     *
+     * @param <S> the type of the elements of the sequence
+     * @return a predicate that tests whether a sequence has no duplicates
+     * @see SequenceShape
+     */
+    public static <S> SequenceShape<Iterable<S>> haveNoDuplicates() {
+        return SequenceShape.distinct();
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a character sequence
+     * matches the given regular expression in its entirety.</p>
+     *
+     * <p>Compiled patterns are cached, up to a limit, and shared among all
+     * predicates made by this method, {@link #findRegex(String)} and
+     * {@link #matchGlob(String)}, so making the same predicate repeatedly
+     * does not compile its pattern repeatedly. Each test makes a fresh
+     * {@link java.util.regex.Matcher}, so the predicate may be shared
+     * across threads. {@code null} matches nothing.</p>
+     *
+     * @param regex a {@linkplain java.util.regex.Pattern regular
+     * expression}
+     * @return a predicate that tests whether a character sequence matches
+     * the expression
+     * @throws java.util.regex.PatternSyntaxException if the expression is
+     * malformed
+     */
+    public static Predicate<CharSequence> matchRegex(String regex) {
+        return PatternPredicate.matching(requireNonNull(regex));
+    }
+
+    /**
+     * Creates a predicate that decides whether a character sequence
+     * contains a match for the given regular expression, with the same
+     * caching as {@link #matchRegex(String)}.
+     *
+     * @param regex a {@linkplain java.util.regex.Pattern regular
+     * expression}
+     * @return a predicate that tests whether a character sequence contains
+     * a match for the expression
+     * @throws java.util.regex.PatternSyntaxException if the expression is
+     * malformed
+     */
+    public static Predicate<CharSequence> findRegex(String regex) {
+        return PatternPredicate.finding(requireNonNull(regex));
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a character sequence
+     * matches the given glob, with the same caching as
+     * {@link #matchRegex(String)}.</p>
+     *
+     * <p>Globs have the syntax of
+     * {@link java.nio.file.FileSystem#getPathMatcher(String)}: {@code *}
+     * matches any run of characters other than {@code /}, {@code **} any
+     * run of characters, {@code ?} any one character other than {@code /},
+     * {@code [a-z]} and {@code [!a-z]} one character in or out of a class,
+     * and {@code {a,b}} either of a group of subpatterns.</p>
+     *
+     * @param glob a glob
+     * @return a predicate that tests whether a character sequence matches
+     * the glob
+     * @throws java.util.regex.PatternSyntaxException if the glob is
+     * malformed
+     */
+    public static Predicate<CharSequence> matchGlob(String glob) {
+        return PatternPredicate.matchingGlob(requireNonNull(glob));
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a character sequence
+     * contains any of the given tokens.</p>
+     *
+     * <p>The tokens are compiled once, when the predicate is created, into
+     * an automaton that finds all of them in one pass over a sequence, so
+     * testing for hundreds of tokens costs about as much as testing for
+     * one. The predicate may be reused across subjects and threads.
+     * {@code null} contains nothing, as with
+     * {@link #matchRegex(String)}.</p>
+     *
+     * @param tokens the tokens to look for
+     * @return a predicate that tests whether a character sequence contains
+     * any of the tokens
+     */
+    public static Predicate<CharSequence> containAnyOf(String... tokens) {
+        return SubstringPredicate.anyOf(tokens);
+    }
+
+    /**
+     * Creates a predicate that decides whether a character sequence
+     * contains all of the given tokens, in one pass as with
+     * {@link #containAnyOf(String...)}. When it does not, the failure
+     * message lists the tokens it lacked. {@code null} does not satisfy
+     * it.
+     *
+     * @param tokens the tokens to look for
+     * @return a predicate that tests whether a character sequence contains
+     * all of the tokens
+     */
+    public static Predicate<CharSequence> containAllOf(String... tokens) {
+        return SubstringPredicate.allOf(tokens);
+    }
+
+    /**
+     * Creates a predicate that decides whether a character sequence
+     * contains none of the given tokens, in one pass as with
+     * {@link #containAnyOf(String...)}. When it does contain one, the
+     * failure message gives the first token found and its offset. Like
+     * the other predicates over character sequences, it is not satisfied
+     * by {@code null}.
+     *
+     * @param tokens the tokens to look for
+     * @return a predicate that tests whether a character sequence contains
+     * none of the tokens
+     */
+    public static Predicate<CharSequence> containNoneOf(String... tokens) {
+        return SubstringPredicate.noneOf(tokens);
     }
 
     /**
      * <p>Creates a predicate that decides whether a given item is
      * {@linkplain Object#equals(Object) equal to} another.</p>
      *
-     * <p>This is sugar for {@link Predicate#isEqual(Object)}, and reads
-     * better than it as an argument to {@link Subject#to(Predicate)}.</p>
+     * <p>This is akin to {@link Predicate#isEqual(Object)}, and reads
+     * better than it as an argument to {@link Subject#to(Predicate)}. When
+     * two {@link java.util.List}s, arrays or {@link CharSequence}s are not
+     * equal, the failure message includes a diff of the two, with long
+     * unchanged stretches collapsed and its length capped, so the
+     * differences between large values can be found at a glance.</p>
      *
      * @param <S> the type of the item
      * @param other an item to compare to another
      * @return a predicate that tests whether the given item equals another
      */
     public static <S> Predicate<S> be(S other) {
-        return Predicate.isEqual(other);
+        return Equality.to(other);
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a given object graph is
+     * structurally equal to another: same shape, and equal values at the
+     * leaves, whether or not the classes involved override
+     * {@link Object#equals(Object) equals}.</p>
+     *
+     * <p>Arrays and {@link java.util.List}s are compared element by
+     * element, {@link java.util.Map}s value by value for each key, and
+     * other objects field by field, except that classes of the Java
+     * platform and {@link java.util.Set}s are compared with
+     * {@code equals}. The graphs are walked without recursion, so their
+     * depth is not limited by the thread's stack, and cycles are
+     * tolerated. When the graphs differ, the failure message gives the path
+     * to the first difference, e.g.
+     * {@code differed at <root>.orders[2].total: expected [10] but was
+     * [12]}.</p>
+     *
+     * @param <S> the type of the graphs' roots
+     * @param other the root of the expected object graph
+     * @return a predicate that tests whether a graph is deeply equal to
+     * another
+     */
+    public static <S> Predicate<S> beDeeplyEqualTo(S other) {
+        return DeepEquality.to(other);
+    }
+
+    /**
+     * <p>Creates a predicate that decides whether a given object graph is
+     * {@linkplain #beDeeplyEqualTo(Object) structurally equal} to another,
+     * sharing the walk of the graphs among the workers of the given
+     * pool.</p>
+     *
+     * <p>This pays off for large graphs with many independent parts; the
+     * walk stops as soon as any worker finds a difference.</p>
+     *
+     * @param <S> the type of the graphs' roots
+     * @param other the root of the expected object graph
+     * @param pool where to walk the graphs
+     * @return a predicate that tests whether a graph is deeply equal to
+     * another
+     */
+    public static <S> Predicate<S> beDeeplyEqualTo(
+        S other,
+        ForkJoinPool pool) {
+
+        return DeepEquality.to(other, requireNonNull(pool));
     }
 
     /**
@@ -169,4 +689,15 @@ public class Lambspec {
     public static <S> Predicate<S> not(Predicate<S> p) {
         return p.negate();
     }
+
+    private static <S> List<Predicate<? super S>> prepend(
+        Predicate<S> first,
+        Predicate<? super S>[] rest) {
+
+        List<Predicate<? super S>> all = new ArrayList<>(rest.length + 1);
+        all.add(first);
+        for (Predicate<? super S> each : rest)
+            all.add(each);
+        return all;
+    }
 }
@@ -0,0 +1,326 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * <p>Sugar methods/fields for creating expectations on {@code long} values in
+ * the form of {@link LongPredicate}s, for use with {@link LongSubject}.</p>
+ *
+ * <p>These mirror the methods of {@link Lambspec}, so that checks on
+ * numbers need not box them. The predicates made here describe themselves
+ * in their {@link Object#toString()}, but do not build their descriptions
+ * until asked.</p>
+ */
+public class LongLambspec {
+    private LongLambspec() {
+        throw new UnsupportedOperationException();
+    }
+
+    /** Predicate that answers {@code true} no matter its argument. */
+    public static final LongPredicate alwaysTrue =
+        DescriptiveLongPredicate.meet("always true", i -> true);
+
+    /** Predicate that answers {@code false} no matter its argument. */
+    public static final LongPredicate alwaysFalse =
+        DescriptiveLongPredicate.meet("always false", i -> false);
+
+    /**
+     * <p>When the argument to {@link LongSubject#to(LongPredicate)} is a
+     * lambda expression or named in a way that doesn't read fluently, this
+     * method can help.</p>
+     *
+     * @param p a predicate
+     * @return p
+     */
+    public static LongPredicate satisfy(LongPredicate p) {
+        return p;
+    }
+
+    /**
+     * Creates a disjunction predicate from many other predicates.
+     *
+     * @param first a predicate
+     * @param rest zero or more predicates
+     * @return a predicate that is the disjunction of the given predicates
+     */
+    public static LongPredicate satisfyAny(
+        LongPredicate first,
+        LongPredicate... rest) {
+
+        LongPredicate[] members = prepend(first, rest);
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                for (LongPredicate each : members) {
+                    if (each.test(value))
+                        return true;
+                }
+                return false;
+            }
+
+            @Override public String toString() {
+                return "any of " + Arrays.toString(members);
+            }
+        };
+    }
+
+    /**
+     * Creates a conjunction predicate from many other predicates.
+     *
+     * @param first a predicate
+     * @param rest zero or more predicates
+     * @return a predicate that is the conjunction of the given predicates
+     */
+    public static LongPredicate satisfyAll(
+        LongPredicate first,
+        LongPredicate... rest) {
+
+        LongPredicate[] members = prepend(first, rest);
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                for (LongPredicate each : members) {
+                    if (!each.test(value))
+                        return false;
+                }
+                return true;
+            }
+
+            @Override public String toString() {
+                return "all of " + Arrays.toString(members);
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether an element of its array
+     * argument satisfies the given predicate.
+     *
+     * @param p the predicate to apply to elements of an array
+     * @return a predicate that tests elements of the array against the
+     * given predicate
+     */
+    public static Predicate<long[]> haveAnItemSatisfying(LongPredicate p) {
+        return new Predicate<long[]>() {
+            @Override public boolean test(long[] items) {
+                for (long each : items) {
+                    if (p.test(each))
+                        return true;
+                }
+                return false;
+            }
+
+            @Override public String toString() {
+                return "an item satisfying [" + p + ']';
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a given value is in an array.
+     *
+     * @param item the value to look for in the array
+     * @return a predicate that tests whether the given value is in an array
+     */
+    public static Predicate<long[]> have(long item) {
+        return haveAnItemSatisfying(be(item));
+    }
+
+    /**
+     * Creates a predicate that decides whether an array is sorted in
+     * ascending order, in one pass.
+     *
+     * @return a predicate that tests whether an array is sorted
+     * @see SequenceShape
+     */
+    public static SequenceShape<long[]> beSorted() {
+        return SequenceShape.sortedLongs(false);
+    }
+
+    /**
+     * Creates a predicate that decides whether each element of an array is
+     * greater than the one before it, in one pass.
+     *
+     * @return a predicate that tests whether an array is strictly sorted
+     * @see SequenceShape
+     */
+    public static SequenceShape<long[]> beStrictlySorted() {
+        return SequenceShape.sortedLongs(true);
+    }
+
+    /**
+     * Creates a predicate that decides whether an array has no duplicate
+     * elements, in one pass. Values spanning a narrow enough range are
+     * tracked in a bit set rather than a hash set.
+     *
+     * @return a predicate that tests whether an array has no duplicates
+     * @see SequenceShape
+     */
+    public static SequenceShape<long[]> haveNoDuplicates() {
+        return SequenceShape.distinctLongs();
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is equal to another.
+     *
+     * @param other a value to compare to another
+     * @return a predicate that tests whether the given value equals another
+     */
+    public static LongPredicate be(long other) {
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                return value == other;
+            }
+
+            @Override public String toString() {
+                return "equal to " + other;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that is the negation of the given predicate.
+     *
+     * @param p a predicate
+     * @return the negation of the given predicate
+     */
+    public static LongPredicate not(LongPredicate p) {
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                return !p.test(value);
+            }
+
+            @Override public String toString() {
+                return "not [" + p + ']';
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is less than a bound.
+     *
+     * @param bound the exclusive upper bound
+     * @return a predicate that tests whether a value is less than the bound
+     */
+    public static LongPredicate beLessThan(long bound) {
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                return value < bound;
+            }
+
+            @Override public String toString() {
+                return "less than " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is at most a bound.
+     *
+     * @param bound the inclusive upper bound
+     * @return a predicate that tests whether a value is at most the bound
+     */
+    public static LongPredicate beAtMost(long bound) {
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                return value <= bound;
+            }
+
+            @Override public String toString() {
+                return "at most " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is greater than a
+     * bound.
+     *
+     * @param bound the exclusive lower bound
+     * @return a predicate that tests whether a value is greater than the
+     * bound
+     */
+    public static LongPredicate beGreaterThan(long bound) {
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                return value > bound;
+            }
+
+            @Override public String toString() {
+                return "greater than " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value is at least a bound.
+     *
+     * @param bound the inclusive lower bound
+     * @return a predicate that tests whether a value is at least the bound
+     */
+    public static LongPredicate beAtLeast(long bound) {
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                return value >= bound;
+            }
+
+            @Override public String toString() {
+                return "at least " + bound;
+            }
+        };
+    }
+
+    /**
+     * Creates a predicate that decides whether a value lies in a range.
+     *
+     * @param min the inclusive lower bound of the range
+     * @param max the inclusive upper bound of the range
+     * @return a predicate that tests whether a value is in the range
+     */
+    public static LongPredicate beBetween(long min, long max) {
+        return new LongPredicate() {
+            @Override public boolean test(long value) {
+                return value >= min && value <= max;
+            }
+
+            @Override public String toString() {
+                return "between " + min + " and " + max;
+            }
+        };
+    }
+
+    private static LongPredicate[] prepend(
+        LongPredicate first,
+        LongPredicate[] rest) {
+
+        LongPredicate[] all = new LongPredicate[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.PrimitiveIterator;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+
+/**
+ * <p>Provides a fluent interface for describing and verifying expectations
+ * on {@code long} test subjects, without boxing them.</p>
+ *
+ * <p>Initiate expectations on a test subject using {@link #expect(long)},
+ * then chain as many expectations in the form of {@linkplain LongPredicate
+ * predicates} as you like with {@link #to(LongPredicate)}.</p>
+ *
+ * <p>A subject made from a {@link LongStream} consumes the stream when it
+ * is tested, and so can be tested only once.</p>
+ *
+ * @see Subject
+ */
+public abstract class LongSubject {
+    protected LongSubject() {
+    }
+
+    /**
+     * Establishes the given value as a test subject, against which
+     * expectations can be set.
+     *
+     * @param target a value to test
+     * @return a test subject in the fluent interface
+     */
+    public static LongSubject expect(long target) {
+        return new LongSubject() {
+            @Override protected void test(LongPredicate p) {
+                if (!p.test(target))
+                    fail("[%s] did not satisfy [%s]", target, p);
+            }
+        };
+    }
+
+    /**
+     * Establishes elements of the given array as test subjects, all of
+     * which must meet subsequent expectations.
+     *
+     * @param items an array to test
+     * @return a test subject in the fluent interface
+     */
+    public static LongSubject expectEachOf(long[] items) {
+        return new LongSubject() {
+            @Override protected void test(LongPredicate p) {
+                for (int i = 0; i < items.length; ++i) {
+                    if (!p.test(items[i])) {
+                        SequenceWindow window = SequenceWindow.within(
+                            items.length, i, j -> items[j]);
+                        failEach(items[i], window, p, i);
+                        return;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Establishes elements of the given stream as test subjects, all of
+     * which must meet subsequent expectations.
+     *
+     * @param items a stream to test
+     * @return a test subject in the fluent interface
+     */
+    public static LongSubject expectEachOf(LongStream items) {
+        return new LongSubject() {
+            @Override protected void test(LongPredicate p) {
+                long[] trail = new long[SequenceWindow.RADIUS];
+                int slot = 0;
+                PrimitiveIterator.OfLong i = items.iterator();
+                for (long index = 0; i.hasNext(); ++index) {
+                    long each = i.nextLong();
+                    if (!p.test(each)) {
+                        Object[] boxed = new Object[trail.length];
+                        for (int k = 0; k < trail.length; ++k)
+                            boxed[k] = trail[k];
+                        SequenceWindow window = SequenceWindow.around(
+                            null, boxed, each, index, i);
+                        failEach(each, window, p, index);
+                        return;
+                    }
+                    trail[slot] = each;
+                    if (++slot == trail.length)
+                        slot = 0;
+                }
+            }
+        };
+    }
+
+    /**
+     * Establishes elements of the given array as test subjects, at least
+     * one of which must meet subsequent expectations.
+     *
+     * @param items an array to test
+     * @return a test subject in the fluent interface
+     */
+    public static LongSubject expectAtLeastOneOf(long[] items) {
+        return new LongSubject() {
+            @Override protected void test(LongPredicate p) {
+                for (long each : items) {
+                    if (p.test(each))
+                        return;
+                }
+                failAtLeastOne(
+                    SequenceWindow.head(items.length, j -> items[j]),
+                    p);
+            }
+        };
+    }
+
+    /**
+     * Establishes elements of the given stream as test subjects, at least
+     * one of which must meet subsequent expectations.
+     *
+     * @param items a stream to test
+     * @return a test subject in the fluent interface
+     */
+    public static LongSubject expectAtLeastOneOf(LongStream items) {
+        return new LongSubject() {
+            @Override protected void test(LongPredicate p) {
+                Object[] head = new Object[SequenceWindow.HEAD];
+                long size = 0;
+                PrimitiveIterator.OfLong i = items.iterator();
+                while (i.hasNext()) {
+                    long each = i.nextLong();
+                    if (p.test(each))
+                        return;
+                    if (size < head.length)
+                        head[(int) size] = each;
+                    ++size;
+                }
+                failAtLeastOne(SequenceWindow.head(head, size), p);
+            }
+        };
+    }
+
+    /**
+     * Establishes an expectation on the condition of the test subject.
+     *
+     * @param p a predicate that represents the expectation
+     * @return self, so that expectations can be chained
+     * @throws AssertionError if the expectation is not met
+     */
+    public final LongSubject to(LongPredicate p) {
+        try {
+            if (Instrumentation.enabled)
+                Instrumentation.measure(p, () -> test(p));
+            else
+                test(p);
+        } catch (ExpectationFailure failure) {
+            if (!SoftExpectations.record(failure))
+                throw failure;
+        }
+        return this;
+    }
+
+    /**
+     * Tests the expectation represented by the given predicate.
+     *
+     * @param p a predicate that represents the expectation
+     * @throws AssertionError if the expectation is not met
+     */
+    protected abstract void test(LongPredicate p);
+
+    /**
+     * Helper method for implementers of {@link #test(LongPredicate)} to
+     * create an expectation failure with a particular message. The message
+     * is not formatted until it is first asked for.
+     *
+     * @param messageTemplate a {@linkplain String#format(String, Object...)
+     * message format pattern}
+     * @param args arguments to the message template
+     * @throws AssertionError always; if {@linkplain SoftExpectations soft
+     * expectations} are being collected, {@code to} records the failure
+     * rather than letting it through
+     */
+    protected void fail(String messageTemplate, Object... args) {
+        throw ExpectationFailure.of(messageTemplate, args);
+    }
+
+    void failEach(
+        long item,
+        SequenceWindow window,
+        LongPredicate p,
+        long index) {
+
+        fail(
+            "[%s] from sequence [%s] did not satisfy [%s] (index %d of %s)",
+            item,
+            window,
+            p,
+            index,
+            window.size());
+    }
+
+    void failAtLeastOne(SequenceWindow window, LongPredicate p) {
+        fail(
+            "No item from sequence [%s] satisfied [%s] (%s)",
+            window,
+            p,
+            window.size());
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+/**
+ * Renders the {@linkplain Describable#describeMismatch(Object) mismatch
+ * description} of a predicate that a target did not satisfy, as a suffix
+ * for a failure message. The description is rendered when the failure is
+ * made, while the target is as the predicate saw it.
+ */
+final class Mismatch {
+    private Mismatch() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A {@linkplain CompositePredicate composite}'s failure, or a time-bound
+     * predicate's running out of time, is taken from the record made when
+     * it was tested, rather than by testing again.
+     *
+     * @param p a predicate
+     * @param target an object that did not satisfy the predicate
+     * @return {@code ": "} and the mismatch description, or nothing if the
+     * predicate has nothing to add or cannot describe the mismatch
+     */
+    static String of(Object p, Object target) {
+        if (p instanceof CompositePredicate<?>) {
+            Describable failure =
+                ((CompositePredicate<?>) p).recordedFailure(target);
+            return failure == null ? "" : describe(failure, target);
+        }
+        if (p instanceof TimeBoundPredicate<?>) {
+            Describable timeOut =
+                ((TimeBoundPredicate<?>) p).recordedTimeOut(target);
+            if (timeOut != null)
+                return describe(timeOut, target);
+        }
+
+        return p instanceof Describable
+            ? describe((Describable) p, target)
+            : "";
+    }
+
+    private static String describe(Describable p, Object target) {
+        String description;
+        try {
+            description = p.describeMismatch(target);
+        } catch (RuntimeException ex) {
+            // A one-shot sequence, perhaps; the message does without.
+            return "";
+        }
+        return description == null ? "" : ": " + description;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+/**
+ * <p>What a predicate found wrong with the target that last failed it on
+ * the current thread, kept so that the mismatch can be described without
+ * looking at the target again: it may be a one-shot sequence, or may have
+ * changed since.</p>
+ *
+ * <p>One record is kept per thread, and reused, so that noting a finding
+ * costs no allocation beyond the finding itself. Taking the finding clears
+ * the record.</p>
+ */
+final class MismatchRecord {
+    private static final ThreadLocal<MismatchRecord> current =
+        ThreadLocal.withInitial(MismatchRecord::new);
+
+    private Object predicate;
+    private Object target;
+    private Object finding;
+
+    private MismatchRecord() {
+    }
+
+    /**
+     * @param predicate a predicate
+     * @param target an object that did not satisfy it
+     * @param finding what the predicate found wrong with the target
+     */
+    static void note(Object predicate, Object target, Object finding) {
+        MismatchRecord record = current.get();
+        record.predicate = predicate;
+        record.target = target;
+        record.finding = finding;
+    }
+
+    /**
+     * @param predicate a predicate
+     * @param target an object that did not satisfy it
+     * @return what the predicate last found wrong with the target on the
+     * current thread, or {@code null} if it has noted nothing since
+     */
+    static Object take(Object predicate, Object target) {
+        MismatchRecord record = current.get();
+        if (record.predicate != predicate || record.target != target)
+            return null;
+
+        Object finding = record.finding;
+        note(null, null, null);
+        return finding;
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * <p>Predicate that compares the elements of a sequence, as a multiset, to
+ * some expected items: counting how many times each occurs, but not where.
+ * </p>
+ *
+ * <p>The expected items are counted once, when the predicate is made, into
+ * slots of an {@code int} array. Testing a sequence copies the array and
+ * counts its elements off against it, so costs O(<em>n</em> +
+ * <em>m</em>) for a sequence of <em>n</em> elements and <em>m</em>
+ * distinct items. Items are mapped to slots by a hash map in general; if
+ * the items are all constants of one enum, or all integers in a narrow
+ * range, slots are found by ordinal or offset instead, with no hashing or
+ * boxing of counts.</p>
+ *
+ * <p>When a sequence fails the test, the counts so far, and where in the
+ * sequence testing stopped, are {@linkplain MismatchRecord noted}, so that
+ * the mismatch is described by finishing that traversal rather than
+ * starting another. Only the first few distinct extra elements are kept
+ * for the description; any others are just counted.</p>
+ *
+ * @param <S> the type of the items
+ */
+final class MultisetComparison<S>
+    implements Predicate<Iterable<S>>, Describable, StableDescription {
+
+    /** The widest range of integers to count by offset. */
+    static final int MAXIMUM_INTEGER_SPAN = 4096;
+
+    private static final int DESCRIBED_ITEMS = 8;
+
+    /** How the counts of the sequence must relate to the expected counts. */
+    private enum Relation {
+        EQUAL("exactly the items [%s] in any order"),
+        SUPERSET("at least the items [%s] in any order"),
+        SUBSET("only items among [%s]");
+
+        private final String description;
+
+        Relation(String description) {
+            this.description = description;
+        }
+    }
+
+    private final Relation relation;
+    private final Domain domain;
+    private final int[] expected;
+    private final int total;
+    private final List<Object> items;
+    private volatile String description;
+
+    private MultisetComparison(List<Object> items, Relation relation) {
+        this.items = items;
+        this.relation = relation;
+        this.domain = Domain.of(items);
+        this.expected = new int[domain.size()];
+        for (Object each : items)
+            ++expected[domain.slotOf(each)];
+        this.total = items.size();
+    }
+
+    /**
+     * @param items some items
+     * @return a predicate that tests whether a sequence holds exactly the
+     * items, as many times each
+     */
+    static <S> MultisetComparison<S> sameAs(Iterable<?> items) {
+        return new MultisetComparison<>(copy(items), Relation.EQUAL);
+    }
+
+    /**
+     * @param items some items
+     * @return a predicate that tests whether a sequence holds the items, at
+     * least as many times each
+     */
+    static <S> MultisetComparison<S> supersetOf(Iterable<?> items) {
+        return new MultisetComparison<>(copy(items), Relation.SUPERSET);
+    }
+
+    /**
+     * @param items some items
+     * @return a predicate that tests whether a sequence holds only the
+     * items, at most as many times each
+     */
+    static <S> MultisetComparison<S> subsetOf(Iterable<?> items) {
+        return new MultisetComparison<>(copy(items), Relation.SUBSET);
+    }
+
+    @Override public boolean test(Iterable<S> sequence) {
+        int[] remaining = expected.clone();
+        int unmatched = total;
+        Iterator<S> elements = sequence.iterator();
+        while (elements.hasNext()) {
+            S each = elements.next();
+            int slot = domain.slotOf(each);
+            if (slot < 0 || remaining[slot] == 0) {
+                if (relation != Relation.SUPERSET) {
+                    Tally tally = new Tally(domain, remaining, elements);
+                    tally.extra(each);
+                    return mismatched(sequence, tally);
+                }
+            } else {
+                --remaining[slot];
+                if (--unmatched == 0 && relation == Relation.SUPERSET)
+                    return true;
+            }
+        }
+        return unmatched == 0
+            || relation == Relation.SUBSET
+            || mismatched(sequence, new Tally(domain, remaining, elements));
+    }
+
+    @Override public String describeMismatch(Object target) {
+        Tally tally = (Tally) MismatchRecord.take(this, target);
+        if (tally == null) {
+            tally = new Tally(
+                domain,
+                expected.clone(),
+                ((Iterable<?>) target).iterator());
+        }
+        tally.finish();
+
+        Map<Object, int[]> missing = new LinkedHashMap<>();
+        if (relation != Relation.SUBSET) {
+            for (Object each : items) {
+                int slot = domain.slotOf(each);
+                if (tally.remaining[slot] > 0 && !missing.containsKey(each))
+                    missing.put(each, new int[] { tally.remaining[slot] });
+            }
+        }
+
+        StringBuilder buffer = new StringBuilder();
+        if (!missing.isEmpty())
+            buffer.append("lacked ").append(render(missing));
+        if (relation != Relation.SUPERSET && !tally.extra.isEmpty()) {
+            if (buffer.length() > 0)
+                buffer.append("; ");
+            buffer.append("had extra ").append(render(tally.extra));
+            if (tally.unshownExtras > 0) {
+                buffer.append(", ... (")
+                    .append(tally.unshownExtras)
+                    .append(" more)");
+            }
+        }
+        return buffer.length() == 0 ? null : buffer.toString();
+    }
+
+    @Override public String toString() {
+        String result = description;
+        if (result == null) {
+            Map<Object, int[]> counts = new LinkedHashMap<>();
+            for (Object each : items)
+                counts.computeIfAbsent(each, k -> new int[1])[0]++;
+            result = String.format(relation.description, render(counts));
+            description = result;
+        }
+        return result;
+    }
+
+    private boolean mismatched(Iterable<S> sequence, Tally tally) {
+        MismatchRecord.note(this, sequence, tally);
+        return false;
+    }
+
+    private static List<Object> copy(Iterable<?> items) {
+        List<Object> copy = new ArrayList<>();
+        for (Object each : items)
+            copy.add(each);
+        return copy;
+    }
+
+    private static String render(Map<Object, int[]> counts) {
+        StringBuilder buffer = new StringBuilder();
+        int shown = 0;
+        for (Map.Entry<Object, int[]> each : counts.entrySet()) {
+            if (shown == DESCRIBED_ITEMS) {
+                buffer.append(", ... (")
+                    .append(counts.size())
+                    .append(" distinct in all)");
+                break;
+            }
+            if (shown++ > 0)
+                buffer.append(", ");
+            buffer.append(each.getKey());
+            if (each.getValue()[0] > 1)
+                buffer.append(" x").append(each.getValue()[0]);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Counts of the elements of a sequence against the expected items, and
+     * the rest of the sequence yet to count.
+     */
+    private static final class Tally {
+        private final Domain domain;
+        private final int[] remaining;
+        private final Iterator<?> rest;
+        private final Map<Object, int[]> extra = new LinkedHashMap<>();
+        private long unshownExtras;
+
+        Tally(Domain domain, int[] remaining, Iterator<?> rest) {
+            this.domain = domain;
+            this.remaining = remaining;
+            this.rest = rest;
+        }
+
+        void finish() {
+            while (rest.hasNext()) {
+                Object each = rest.next();
+                int slot = domain.slotOf(each);
+                if (slot < 0 || remaining[slot] == 0)
+                    extra(each);
+                else
+                    --remaining[slot];
+            }
+        }
+
+        void extra(Object item) {
+            int[] count = extra.get(item);
+            if (count != null)
+                ++count[0];
+            else if (extra.size() < DESCRIBED_ITEMS)
+                extra.put(item, new int[] { 1 });
+            else
+                ++unshownExtras;
+        }
+    }
+
+    /** Maps items to slots in an array of counts. */
+    private abstract static class Domain {
+        abstract int size();
+
+        /** @return the slot of the item, or -1 if it has none */
+        abstract int slotOf(Object item);
+
+        static Domain of(List<Object> items) {
+            Domain domain = EnumDomain.of(items);
+            if (domain == null)
+                domain = IntegerDomain.of(items);
+            return domain == null ? new HashDomain(items) : domain;
+        }
+    }
+
+    private static final class HashDomain extends Domain {
+        private final Map<Object, Integer> slots = new HashMap<>();
+
+        HashDomain(List<Object> items) {
+            for (Object each : items)
+                slots.putIfAbsent(each, slots.size());
+        }
+
+        @Override int size() {
+            return slots.size();
+        }
+
+        @Override int slotOf(Object item) {
+            Integer slot = slots.get(item);
+            return slot == null ? -1 : slot;
+        }
+    }
+
+    private static final class EnumDomain extends Domain {
+        private final Class<?> type;
+        private final int size;
+
+        private EnumDomain(Class<?> type) {
+            this.type = type;
+            this.size = type.getEnumConstants().length;
+        }
+
+        static Domain of(List<Object> items) {
+            Class<?> type = null;
+            for (Object each : items) {
+                if (!(each instanceof Enum<?>))
+                    return null;
+
+                Class<?> itemType = ((Enum<?>) each).getDeclaringClass();
+                if (type == null)
+                    type = itemType;
+                else if (type != itemType)
+                    return null;
+            }
+            return type == null ? null : new EnumDomain(type);
+        }
+
+        @Override int size() {
+            return size;
+        }
+
+        @Override int slotOf(Object item) {
+            return item instanceof Enum<?>
+                && ((Enum<?>) item).getDeclaringClass() == type
+                ? ((Enum<?>) item).ordinal()
+                : -1;
+        }
+    }
+
+    private static final class IntegerDomain extends Domain {
+        private final int minimum;
+        private final int size;
+
+        private IntegerDomain(int minimum, int size) {
+            this.minimum = minimum;
+            this.size = size;
+        }
+
+        static Domain of(List<Object> items) {
+            if (items.isEmpty())
+                return null;
+
+            int minimum = Integer.MAX_VALUE;
+            int maximum = Integer.MIN_VALUE;
+            for (Object each : items) {
+                if (!(each instanceof Integer))
+                    return null;
+
+                int value = (Integer) each;
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+            }
+
+            long span = (long) maximum - minimum + 1;
+            return span <= MAXIMUM_INTEGER_SPAN
+                ? new IntegerDomain(minimum, (int) span)
+                : null;
+        }
+
+        @Override int size() {
+            return size;
+        }
+
+        @Override int slotOf(Object item) {
+            if (!(item instanceof Integer))
+                return -1;
+
+            long offset = (long) (Integer) item - minimum;
+            return offset >= 0 && offset < size ? (int) offset : -1;
+        }
+    }
+}
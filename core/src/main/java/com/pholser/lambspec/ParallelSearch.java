@@ -0,0 +1,246 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.util.Spliterator.*;
+
+/**
+ * Searches the items of a sequence in parallel for one on which a predicate
+ * gives a sought-after answer, stopping all workers once the search is
+ * decided.
+ *
+ * <p>Every item's index in the sequence is tracked, so that an ordered
+ * search reliably reports the sought-after item with the lowest index,
+ * no matter how the work was scheduled.</p>
+ *
+ * <p>A search can be given a {@link Deadline}, after which all workers
+ * stop, leaving the search undecided.</p>
+ *
+ * @param <T> the type of the items of the sequence
+ */
+final class ParallelSearch<T> {
+    private static final long NOT_FOUND = Long.MAX_VALUE;
+
+    private final Predicate<? super T> p;
+    private final boolean sought;
+    private final boolean ordered;
+    private final Deadline deadline;
+    private final Object[] head = new Object[SequenceWindow.HEAD];
+    private final LongAdder visited = new LongAdder();
+    private long threshold;
+    private volatile long foundIndex = NOT_FOUND;
+    private T found;
+
+    private ParallelSearch(
+        Predicate<? super T> p,
+        boolean sought,
+        boolean ordered,
+        Deadline deadline) {
+
+        this.p = p;
+        this.sought = sought;
+        this.ordered = ordered;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Finds the item with the lowest index on which the given predicate
+     * answers {@code false}.
+     *
+     * @param <T> the type of the items of the sequence
+     * @param sequence a sequence
+     * @param p a predicate
+     * @param pool where to run the search
+     * @param deadline when to give up the search
+     * @return the outcome of the search
+     */
+    static <T> ParallelSearch<T> firstFailure(
+        Iterable<T> sequence,
+        Predicate<? super T> p,
+        ForkJoinPool pool,
+        Deadline deadline) {
+
+        return new ParallelSearch<T>(p, false, true, deadline)
+            .run(sequence, pool);
+    }
+
+    /**
+     * Finds any item on which the given predicate answers {@code true}.
+     *
+     * @param <T> the type of the items of the sequence
+     * @param sequence a sequence
+     * @param p a predicate
+     * @param pool where to run the search
+     * @param deadline when to give up the search
+     * @return the outcome of the search
+     */
+    static <T> ParallelSearch<T> anySuccess(
+        Iterable<T> sequence,
+        Predicate<? super T> p,
+        ForkJoinPool pool,
+        Deadline deadline) {
+
+        return new ParallelSearch<T>(p, true, false, deadline)
+            .run(sequence, pool);
+    }
+
+    private ParallelSearch<T> run(Iterable<T> sequence, ForkJoinPool pool) {
+        Spliterator<T> source = indexable(sequence);
+        long estimate = source.estimateSize();
+        threshold = Math.max(1, estimate / (pool.getParallelism() << 2));
+        pool.invoke(new Task(source, 0));
+        return this;
+    }
+
+    /**
+     * @return whether an item was found
+     */
+    boolean succeeded() {
+        return foundIndex != NOT_FOUND;
+    }
+
+    /**
+     * @return the item found; valid only if the search {@linkplain
+     * #succeeded() succeeded}
+     */
+    T found() {
+        return found;
+    }
+
+    /**
+     * @return the index of the item found; valid only if the search
+     * {@linkplain #succeeded() succeeded}
+     */
+    long foundIndex() {
+        return foundIndex;
+    }
+
+    /**
+     * @return how many items the search visited
+     */
+    long visitedCount() {
+        return visited.sum();
+    }
+
+    /**
+     * @return a window over the head of the sequence; valid only if the
+     * search did not succeed and did not run out of time, in which case
+     * every item was visited
+     */
+    SequenceWindow head() {
+        return SequenceWindow.head(head, visited.sum());
+    }
+
+    private static <T> Spliterator<T> indexable(Iterable<T> sequence) {
+        Spliterator<T> source = sequence.spliterator();
+        if (source.hasCharacteristics(SUBSIZED))
+            return source;
+
+        // Splitting an iterator yields prefixes of exact size, so we can
+        // keep track of where each one starts.
+        if (sequence instanceof Collection<?>) {
+            return Spliterators.spliterator(
+                Spliterators.iterator(source),
+                ((Collection<?>) sequence).size(),
+                ORDERED);
+        }
+        return Spliterators.spliteratorUnknownSize(
+            Spliterators.iterator(source),
+            ORDERED);
+    }
+
+    private boolean decided(long index) {
+        long current = foundIndex;
+        if (ordered ? index >= current : current != NOT_FOUND)
+            return true;
+        return deadline.passed();
+    }
+
+    private synchronized void found(long index, T item) {
+        if (index < foundIndex) {
+            found = item;
+            foundIndex = index;
+        }
+    }
+
+    private final class Task extends RecursiveAction implements Consumer<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<T> split;
+        private final long origin;
+        private long next;
+
+        Task(Spliterator<T> split, long origin) {
+            this.split = split;
+            this.origin = origin;
+        }
+
+        @Override protected void compute() {
+            Deque<Task> forked = new ArrayDeque<>();
+            Spliterator<T> local = split;
+            while (local.estimateSize() > threshold && !decided(origin)) {
+                Spliterator<T> prefix = local.trySplit();
+                if (prefix == null)
+                    break;
+
+                // What remains of the local split follows the prefix.
+                Task rest =
+                    new Task(local, origin + prefix.getExactSizeIfKnown());
+                rest.fork();
+                forked.push(rest);
+                local = prefix;
+            }
+
+            next = origin;
+            while (!decided(next) && local.tryAdvance(this)) {
+                // accept() does the work
+            }
+            visited.add(next - origin);
+
+            for (Task each : forked)
+                each.join();
+        }
+
+        @Override public void accept(T item) {
+            long index = next++;
+            if (index < head.length)
+                head[(int) index] = item;
+            if (p.test(item) == sought)
+                found(index, item);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * <p>Predicate that decides whether a character sequence matches, or
+ * contains a match for, a regular expression or glob.</p>
+ *
+ * <p>Compiled {@link Pattern}s are kept in a cache shared by all such
+ * predicates, holding up to {@link #MAXIMUM_PATTERNS} of them, so making
+ * the same predicate over and over, as in a parameterized test, compiles
+ * its pattern only once. Predicates made by the same factory from the
+ * same pattern are equal.</p>
+ */
+final class PatternPredicate implements Predicate<CharSequence> {
+    /** The most compiled patterns to keep. */
+    static final int MAXIMUM_PATTERNS = 1024;
+
+    private static final BoundedCache<Source, Pattern> patterns =
+        new BoundedCache<>(
+            MAXIMUM_PATTERNS,
+            s -> 1,
+            BoundedCache.Keys.EQUALITY);
+
+    private final Source source;
+    private final Pattern pattern;
+    private final boolean whole;
+
+    private PatternPredicate(Source source, boolean whole) {
+        this.source = source;
+        this.pattern = compiled(source);
+        this.whole = whole;
+    }
+
+    /**
+     * @param regex a regular expression
+     * @return a predicate that tests whether a sequence matches the
+     * expression
+     * @throws PatternSyntaxException if the expression is malformed
+     */
+    static PatternPredicate matching(String regex) {
+        return new PatternPredicate(new Source(regex, false), true);
+    }
+
+    /**
+     * @param regex a regular expression
+     * @return a predicate that tests whether a sequence contains a match
+     * for the expression
+     * @throws PatternSyntaxException if the expression is malformed
+     */
+    static PatternPredicate finding(String regex) {
+        return new PatternPredicate(new Source(regex, false), false);
+    }
+
+    /**
+     * @param glob a glob
+     * @return a predicate that tests whether a sequence matches the glob
+     * @throws PatternSyntaxException if the glob is malformed
+     */
+    static PatternPredicate matchingGlob(String glob) {
+        return new PatternPredicate(new Source(glob, true), true);
+    }
+
+    @Override public boolean test(CharSequence target) {
+        if (target == null)
+            return false;
+
+        Matcher matcher = pattern.matcher(target);
+        return whole ? matcher.matches() : matcher.find();
+    }
+
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof PatternPredicate))
+            return false;
+
+        PatternPredicate other = (PatternPredicate) o;
+        return whole == other.whole && source.equals(other.source);
+    }
+
+    @Override public int hashCode() {
+        return 31 * source.hashCode() + (whole ? 1 : 0);
+    }
+
+    @Override public String toString() {
+        return (whole ? "matching " : "containing a match for ") + source;
+    }
+
+    /** @return how many compiled patterns are cached */
+    static long cachedPatternCount() {
+        return patterns.size();
+    }
+
+    private static Pattern compiled(Source source) {
+        Pattern pattern = patterns.get(source);
+        if (pattern == null) {
+            pattern = Pattern.compile(
+                source.glob ? Globs.toRegex(source.text) : source.text);
+            patterns.put(source, pattern);
+        }
+        return pattern;
+    }
+
+    /** The text of a pattern, and what kind of pattern it is. */
+    private static final class Source {
+        final String text;
+        final boolean glob;
+
+        Source(String text, boolean glob) {
+            this.text = text;
+            this.glob = glob;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Source))
+                return false;
+
+            Source other = (Source) o;
+            return glob == other.glob && text.equals(other.text);
+        }
+
+        @Override public int hashCode() {
+            return 31 * text.hashCode() + (glob ? 1 : 0);
+        }
+
+        @Override public String toString() {
+            return glob ? "glob [" + text + ']' : "/" + text + '/';
+        }
+    }
+
+    /**
+     * Translates globs to regular expressions, with the syntax of
+     * {@link java.nio.file.FileSystem#getPathMatcher(String)}: {@code *}
+     * matches any characters but {@code /}, {@code **} any characters at
+     * all, {@code ?} any one character but {@code /}, {@code [...]} one
+     * character of a class (negated by a leading {@code !}), and
+     * {@code {a,b}} any of a group of subpatterns; a {@code \} escapes the
+     * character after it.
+     */
+    static final class Globs {
+        private static final String SPECIAL = "\\^$.|?*+()[]{}";
+
+        private Globs() {
+            throw new UnsupportedOperationException();
+        }
+
+        static String toRegex(String glob) {
+            StringBuilder regex = new StringBuilder("^");
+            boolean inGroup = false;
+            int i = 0;
+            while (i < glob.length()) {
+                char c = glob.charAt(i++);
+                switch (c) {
+                    case '\\':
+                        if (i == glob.length())
+                            throw error("No character to escape", glob, i - 1);
+                        literal(regex, glob.charAt(i++));
+                        break;
+                    case '*':
+                        if (i < glob.length() && glob.charAt(i) == '*') {
+                            regex.append(".*");
+                            ++i;
+                        } else {
+                            regex.append("[^/]*");
+                        }
+                        break;
+                    case '?':
+                        regex.append("[^/]");
+                        break;
+                    case '[':
+                        i = characterClass(glob, i, regex);
+                        break;
+                    case '{':
+                        if (inGroup)
+                            throw error("Cannot nest groups", glob, i - 1);
+                        regex.append("(?:(?:");
+                        inGroup = true;
+                        break;
+                    case '}':
+                        if (inGroup) {
+                            regex.append("))");
+                            inGroup = false;
+                        } else {
+                            literal(regex, c);
+                        }
+                        break;
+                    case ',':
+                        if (inGroup)
+                            regex.append(")|(?:");
+                        else
+                            literal(regex, c);
+                        break;
+                    default:
+                        literal(regex, c);
+                }
+            }
+            if (inGroup)
+                throw error("Missing '}'", glob, i - 1);
+
+            return regex.append('$').toString();
+        }
+
+        private static int characterClass(
+            String glob,
+            int start,
+            StringBuilder regex) {
+
+            int i = start;
+            regex.append("[[^/]&&[");
+            if (i < glob.length() && glob.charAt(i) == '!') {
+                regex.append('^');
+                ++i;
+            }
+            boolean empty = true;
+            while (i < glob.length()) {
+                char c = glob.charAt(i++);
+                if (c == ']' && !empty) {
+                    regex.append("]]");
+                    return i;
+                }
+                if (c == '\\' || c == '[' || c == '&' || c == '^')
+                    regex.append('\\');
+                regex.append(c);
+                empty = false;
+            }
+            throw error("Missing ']'", glob, start - 1);
+        }
+
+        private static void literal(StringBuilder regex, char c) {
+            if (SPECIAL.indexOf(c) >= 0)
+                regex.append('\\');
+            regex.append(c);
+        }
+
+        private static PatternSyntaxException error(
+            String description,
+            String glob,
+            int index) {
+
+            return new PatternSyntaxException(description, glob, index);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts and a latency histogram for evaluations of the predicates
+ * that share a description, gathered by {@link Instrumentation}.
+ *
+ * <p>Counters are striped, so that threads evaluating the same predicate at
+ * once seldom contend. Readings taken while evaluations are under way are
+ * not an atomic snapshot.</p>
+ *
+ * <p>Latencies fall into buckets by powers of two: bucket {@code i} counts
+ * evaluations that took from 2<sup>i</sup> up to but not including
+ * 2<sup>i+1</sup> nanoseconds, and bucket 0 also counts evaluations that
+ * took no measurable time.</p>
+ */
+public final class PredicateMetrics {
+    private static final int BUCKETS = 64;
+
+    private final String description;
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder[] histogram = new LongAdder[BUCKETS];
+
+    PredicateMetrics(String description) {
+        this.description = description;
+        for (int i = 0; i < BUCKETS; ++i)
+            histogram[i] = new LongAdder();
+    }
+
+    void record(long elapsed, boolean failed) {
+        long clamped = Math.max(elapsed, 0);
+        evaluations.increment();
+        if (failed)
+            failures.increment();
+        nanos.add(clamped);
+        histogram[bucket(clamped)].increment();
+    }
+
+    /**
+     * @return describes the predicates measured
+     */
+    public String description() {
+        return description;
+    }
+
+    /**
+     * @return how many evaluations there have been
+     */
+    public long evaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * @return how many evaluations found their targets unsatisfactory
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return total time spent evaluating, in nanoseconds
+     */
+    public long totalNanos() {
+        return nanos.sum();
+    }
+
+    /**
+     * @return mean time per evaluation, in nanoseconds, or zero if there
+     * have been none
+     */
+    public double meanNanos() {
+        long count = evaluations();
+        return count == 0 ? 0 : (double) totalNanos() / count;
+    }
+
+    /**
+     * @return counts of evaluations by latency bucket
+     */
+    public long[] histogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; ++i)
+            counts[i] = histogram[i].sum();
+        return counts;
+    }
+
+    /**
+     * Estimates a latency percentile from the histogram, as the upper bound
+     * of the bucket in which it falls.
+     *
+     * @param percentile a percentile, from 0 to 100
+     * @return the estimated latency in nanoseconds, or zero if there have
+     * been no evaluations
+     * @throws IllegalArgumentException if {@code percentile} is out of range
+     */
+    public long percentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("bad percentile: " + percentile);
+
+        long[] counts = histogram();
+        long total = 0;
+        for (long each : counts)
+            total += each;
+        if (total == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; ++i) {
+            seen += counts[i];
+            if (seen >= Math.max(rank, 1))
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override public String toString() {
+        return description
+            + ": " + evaluations() + " evaluations, "
+            + failures() + " failures, mean "
+            + (long) meanNanos() + " ns";
+    }
+
+    private static int bucket(long nanos) {
+        return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+}
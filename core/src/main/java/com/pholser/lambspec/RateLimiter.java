@@ -0,0 +1,74 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grants at most a given number of permits in each fixed window of time,
+ * without locking.
+ */
+final class RateLimiter {
+    private final long permits;
+    private final long windowNanos;
+    private final AtomicLong windowStart;
+    private final AtomicLong granted = new AtomicLong();
+    private final LongAdder refused = new LongAdder();
+
+    /**
+     * @param permits how many permits to grant in each window
+     * @param windowNanos the length of a window, in nanoseconds
+     */
+    RateLimiter(long permits, long windowNanos) {
+        this.permits = permits;
+        this.windowNanos = windowNanos;
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return whether a permit was granted
+     */
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now))
+            granted.set(0);
+
+        if (granted.incrementAndGet() <= permits)
+            return true;
+
+        refused.increment();
+        return false;
+    }
+
+    /**
+     * @return how many permits have been refused so far
+     */
+    long refusedCount() {
+        return refused.sum();
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Objects.*;
+
+/**
+ * Tells how a file is divided into records, and how to decode them, for
+ * {@link FileSubject}s.
+ *
+ * <p>Records are either delimited by a given byte, such as the newline that
+ * ends a line, or of a fixed width in bytes. Delimited records require a
+ * charset in which the delimiter is encoded as that single byte, and never
+ * appears within the encoding of another character, as is true of
+ * newlines in UTF-8 and the ISO-8859 charsets.</p>
+ */
+public final class RecordFormat {
+    private static final int SCAN_BUFFER_SIZE = 8192;
+
+    private final String noun;
+    private final byte delimiter;
+    private final int width;
+    private final boolean stripCarriageReturn;
+    private final Charset charset;
+
+    private RecordFormat(
+        String noun,
+        byte delimiter,
+        int width,
+        boolean stripCarriageReturn,
+        Charset charset) {
+
+        this.noun = noun;
+        this.delimiter = delimiter;
+        this.width = width;
+        this.stripCarriageReturn = stripCarriageReturn;
+        this.charset = charset;
+    }
+
+    /**
+     * @return the format of lines of UTF-8 text, ended by {@code "\n"} or
+     * {@code "\r\n"}
+     */
+    public static RecordFormat lines() {
+        return lines(UTF_8);
+    }
+
+    /**
+     * @param charset the charset of the text
+     * @return the format of lines of text, ended by {@code "\n"} or
+     * {@code "\r\n"}
+     * @throws IllegalArgumentException if the charset does not encode a
+     * newline as a single byte
+     */
+    public static RecordFormat lines(Charset charset) {
+        return new RecordFormat(
+            "line",
+            singleByte('\n', charset),
+            0,
+            true,
+            charset);
+    }
+
+    /**
+     * @param delimiter the byte that ends each record
+     * @param charset the charset of the records
+     * @return the format of records ended by the given byte
+     */
+    public static RecordFormat delimitedBy(byte delimiter, Charset charset) {
+        return new RecordFormat(
+            "record",
+            delimiter,
+            0,
+            false,
+            requireNonNull(charset));
+    }
+
+    /**
+     * @param width the width of each record, in bytes
+     * @param charset the charset of the records
+     * @return the format of records of the given width; the last record of
+     * a file may be narrower
+     * @throws IllegalArgumentException if {@code width} is not positive
+     */
+    public static RecordFormat fixedWidth(int width, Charset charset) {
+        if (width <= 0)
+            throw new IllegalArgumentException("non-positive width: " + width);
+
+        return new RecordFormat(
+            "record",
+            (byte) 0,
+            width,
+            false,
+            requireNonNull(charset));
+    }
+
+    @Override public String toString() {
+        return width > 0
+            ? width + "-byte " + charset + " records"
+            : noun + "s of " + charset;
+    }
+
+    /**
+     * @return what to call a record in failure messages
+     */
+    String noun() {
+        return noun;
+    }
+
+    /**
+     * @return a decoder for records, which replaces malformed input
+     */
+    CharsetDecoder decoder() {
+        return charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Finds the first record to start at or after a given position.
+     *
+     * @param channel the file
+     * @param position a position in the file
+     * @param size the size of the file
+     * @return the offset of the first record to start at or after
+     * {@code position}, or {@code size} if there is none
+     * @throws IOException if the file cannot be read
+     */
+    long boundaryAtOrAfter(FileChannel channel, long position, long size)
+        throws IOException {
+
+        if (width > 0)
+            return Math.min(size, (position + width - 1) / width * width);
+        if (position == 0)
+            return 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        for (long at = position - 1; at < size;) {
+            ((Buffer) buffer).clear();
+            int read = channel.read(buffer, at);
+            if (read < 0)
+                break;
+            for (int i = 0; i < read; ++i) {
+                if (buffer.get(i) == delimiter)
+                    return at + i + 1;
+            }
+            at += read;
+        }
+        return size;
+    }
+
+    /**
+     * @param records a region of a file that starts at a record boundary
+     * @param start the position in the region at which a record starts
+     * @return the position in the region just past the end of the record,
+     * including any delimiter
+     */
+    int next(ByteBuffer records, int start) {
+        int limit = records.limit();
+        if (width > 0)
+            return (int) Math.min(limit, (long) start + width);
+
+        for (int i = start; i < limit; ++i) {
+            if (records.get(i) == delimiter)
+                return i + 1;
+        }
+        return limit;
+    }
+
+    /**
+     * @param records a region of a file
+     * @param start the position in the region at which a record starts
+     * @param next the position in the region just past the end of the
+     * record, as given by {@link #next(ByteBuffer, int)}
+     * @param decoder a decoder from {@link #decoder()}
+     * @return the record, decoded, without its delimiter
+     */
+    String decode(
+        ByteBuffer records,
+        int start,
+        int next,
+        CharsetDecoder decoder) {
+
+        int end = next;
+        if (width == 0 && end > start && records.get(end - 1) == delimiter)
+            --end;
+        if (stripCarriageReturn && end > start && records.get(end - 1) == '\r')
+            --end;
+
+        ByteBuffer slice = records.duplicate();
+        ((Buffer) slice).limit(end).position(start);
+        try {
+            return decoder.decode(slice).toString();
+        } catch (CharacterCodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte singleByte(char c, Charset charset) {
+        ByteBuffer encoded = charset.encode(String.valueOf(c));
+        if (encoded.remaining() != 1) {
+            throw new IllegalArgumentException(
+                charset + " does not encode " + (int) c + " as one byte");
+        }
+        return encoded.get();
+    }
+}
@@ -0,0 +1,610 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>A predicate on the shape of a sequence, rather than on its elements
+ * one at a time: whether it is sorted, strictly sorted, or free of
+ * duplicates, or some combination of these.</p>
+ *
+ * <p>All the checks asked for are made together, in one pass over the
+ * sequence. Duplicates are detected with a hash set, or for arrays of
+ * {@code int}s or {@code long}s whose values span a range narrow enough
+ * that a bit set over it is no larger than the array, with a bit set; that
+ * range is found by a quick scan beforehand, abandoned as soon as it grows
+ * too wide. A sequence that must be sorted by its natural order is instead
+ * checked for duplicates by comparing neighbors. Sequences may be
+ * {@link Iterable}s, or arrays of {@code int}s, {@code long}s or
+ * {@code double}s, depending on how the predicate was made.</p>
+ *
+ * <p>{@link #inParallel()} makes a predicate that checks large
+ * {@link RandomAccess} lists and arrays in chunks on a fork-join pool,
+ * comparing each element to the one before it even across chunks.
+ * Either way, when the sequence does not have the expected shape, the
+ * failure message gives the index of the first element out of place.</p>
+ *
+ * @param <T> the type of sequence tested
+ * @see Lambspec#beSortedBy(Comparator)
+ * @see Lambspec#haveNoDuplicates()
+ * @see IntLambspec#beSorted()
+ */
+public final class SequenceShape<T>
+    implements Predicate<T>, Describable, StableDescription {
+
+    /** The shortest sequence worth checking in parallel. */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /** The widest range of values to track in a bit set. */
+    static final long MAXIMUM_BITSET_SPAN = 1L << 24;
+
+    /** The widest range to track in a bit set, per element of an array. */
+    static final long BITSET_SPAN_PER_ELEMENT = Long.SIZE;
+
+    private static final int NOT_FOUND = Integer.MAX_VALUE;
+
+    /** The natural order of primitive values. */
+    private static final Comparator<Object> NATURAL =
+        new Comparator<Object>() {
+            @SuppressWarnings("unchecked")
+            @Override public int compare(Object first, Object second) {
+                return ((Comparable<Object>) first).compareTo(second);
+            }
+        };
+
+    private final Layout<T> layout;
+    private final Comparator<Object> order;
+    private final String orderName;
+    private final boolean strict;
+    private final boolean distinct;
+    private final ForkJoinPool pool;
+    private volatile String description;
+
+    private SequenceShape(
+        Layout<T> layout,
+        Comparator<Object> order,
+        String orderName,
+        boolean strict,
+        boolean distinct,
+        ForkJoinPool pool) {
+
+        this.layout = layout;
+        this.order = order;
+        this.orderName = orderName;
+        this.strict = strict;
+        this.distinct = distinct;
+        this.pool = pool;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <S> SequenceShape<Iterable<S>> sortedBy(
+        Comparator<? super S> order,
+        String orderName,
+        boolean strict) {
+
+        return new SequenceShape<>(
+            new Elements<>(),
+            (Comparator<Object>) requireNonNull(order),
+            orderName,
+            strict,
+            false,
+            null);
+    }
+
+    static <S> SequenceShape<Iterable<S>> distinct() {
+        return new SequenceShape<>(
+            new Elements<>(), null, null, false, true, null);
+    }
+
+    static SequenceShape<int[]> sortedInts(boolean strict) {
+        return new SequenceShape<>(
+            new Ints(), NATURAL, null, strict, false, null);
+    }
+
+    static SequenceShape<int[]> distinctInts() {
+        return new SequenceShape<>(new Ints(), null, null, false, true, null);
+    }
+
+    static SequenceShape<long[]> sortedLongs(boolean strict) {
+        return new SequenceShape<>(
+            new Longs(), NATURAL, null, strict, false, null);
+    }
+
+    static SequenceShape<long[]> distinctLongs() {
+        return new SequenceShape<>(
+            new Longs(), null, null, false, true, null);
+    }
+
+    static SequenceShape<double[]> sortedDoubles(boolean strict) {
+        return new SequenceShape<>(
+            new Doubles(), NATURAL, null, strict, false, null);
+    }
+
+    static SequenceShape<double[]> distinctDoubles() {
+        return new SequenceShape<>(
+            new Doubles(), null, null, false, true, null);
+    }
+
+    /**
+     * Makes a predicate that checks what this one does, and also that the
+     * sequence has no duplicate elements, in the same pass.
+     *
+     * @return a predicate that also checks for duplicates
+     */
+    public SequenceShape<T> withoutDuplicates() {
+        return new SequenceShape<>(
+            layout, order, orderName, strict, true, pool);
+    }
+
+    /**
+     * Makes a predicate that checks what this one does, in parallel on the
+     * {@linkplain ForkJoinPool#commonPool() common fork-join pool} for long
+     * enough random-access sequences.
+     *
+     * @return a predicate that checks in parallel
+     */
+    public SequenceShape<T> inParallel() {
+        return inParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Makes a predicate that checks what this one does, in parallel on the
+     * given fork-join pool for long enough random-access sequences.
+     *
+     * @param pool where to check sequences
+     * @return a predicate that checks in parallel
+     */
+    public SequenceShape<T> inParallel(ForkJoinPool pool) {
+        return new SequenceShape<>(
+            layout, order, orderName, strict, distinct, requireNonNull(pool));
+    }
+
+    @Override public boolean test(T target) {
+        int size = layout.size(target);
+        if (size < 0)
+            return firstOffense(target) == null;
+
+        boolean parallel = pool != null && size >= PARALLEL_THRESHOLD;
+        Check check = new Check(target, parallel);
+        if (parallel)
+            pool.invoke(check.new Chunk(0, size));
+        else
+            check.scan(0, size);
+        return check.offense == NOT_FOUND;
+    }
+
+    @Override public String describeMismatch(Object target) {
+        @SuppressWarnings("unchecked")
+        Offense offense = firstOffense((T) target);
+        return offense == null ? null : offense.toString();
+    }
+
+    @Override public String toString() {
+        String result = description;
+        if (result == null) {
+            StringBuilder buffer = new StringBuilder();
+            if (order != null) {
+                buffer.append(strict ? "strictly sorted" : "sorted");
+                if (orderName != null)
+                    buffer.append(" by ").append(orderName);
+            }
+            if (distinct) {
+                if (buffer.length() > 0)
+                    buffer.append(" and ");
+                buffer.append("without duplicates");
+            }
+            result = buffer.toString();
+            description = result;
+        }
+        return result;
+    }
+
+    /**
+     * Walks the sequence on this thread, keeping the index at which each
+     * element was first seen, to find the first element out of place.
+     */
+    private Offense firstOffense(T target) {
+        Map<Object, Integer> seen = distinct ? new HashMap<>() : null;
+        Object previous = null;
+        int index = 0;
+        for (Iterator<?> i = layout.iterator(target); i.hasNext(); ++index) {
+            Object each = i.next();
+            if (order != null && index > 0) {
+                int comparison = order.compare(previous, each);
+                if (comparison > 0 || (strict && comparison == 0))
+                    return new Offense(index, each, previous, -1);
+            }
+            if (seen != null) {
+                Integer first = seen.putIfAbsent(each, index);
+                if (first != null)
+                    return new Offense(index, each, null, first);
+            }
+            previous = each;
+        }
+        return null;
+    }
+
+    /** The first element out of place, and why. */
+    private static final class Offense {
+        private final int index;
+        private final Object element;
+        private final Object previous;
+        private final int firstSeen;
+
+        Offense(int index, Object element, Object previous, int firstSeen) {
+            this.index = index;
+            this.element = element;
+            this.previous = previous;
+            this.firstSeen = firstSeen;
+        }
+
+        @Override public String toString() {
+            return firstSeen < 0
+                ? "out of order at index " + index
+                    + ": [" + element + "] after [" + previous + ']'
+                : "duplicate at index " + index
+                    + ": [" + element + "] first seen at index " + firstSeen;
+        }
+    }
+
+    /**
+     * One test of a random-access sequence. A primitive array sorted by its
+     * natural order has duplicates only if neighbors are equal, so checking
+     * it for duplicates is a matter of checking that it is strictly sorted.
+     */
+    private final class Check {
+        private final T target;
+        private final boolean strictly;
+        private final Seen seen;
+        volatile int offense = NOT_FOUND;
+
+        Check(T target, boolean concurrent) {
+            this.target = target;
+            boolean neighborly = distinct && order == NATURAL;
+            this.strictly = strict || neighborly;
+            this.seen = distinct && !neighborly
+                ? layout.seen(target, concurrent)
+                : null;
+        }
+
+        void scan(int from, int to) {
+            int stop = Math.min(to, offense);
+            for (int i = from; i < stop; ++i) {
+                if ((order != null
+                        && i > 0
+                        && !layout.follows(target, i, order, strictly))
+                    || (seen != null && !seen.add(target, i))) {
+
+                    offended(i);
+                    return;
+                }
+            }
+        }
+
+        private synchronized void offended(int index) {
+            if (index < offense)
+                offense = index;
+        }
+
+        final class Chunk extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+
+            Chunk(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override protected void compute() {
+                if (from >= offense)
+                    return;
+
+                if (to - from <= PARALLEL_THRESHOLD) {
+                    scan(from, to);
+                } else {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new Chunk(from, middle), new Chunk(middle, to));
+                }
+            }
+        }
+    }
+
+    /** The elements seen so far in a test for duplicates. */
+    private interface Seen {
+        /**
+         * @return {@code true} if the element at the given index had not
+         * been seen before
+         */
+        boolean add(Object target, int index);
+    }
+
+    /** How to reach the elements of a kind of sequence. */
+    private abstract static class Layout<T> {
+        /**
+         * @return the size of the sequence, or -1 if its elements cannot be
+         * reached by index
+         */
+        abstract int size(T target);
+
+        abstract Iterator<?> iterator(T target);
+
+        /**
+         * @return whether the element at the given index is in order after
+         * the one before it
+         */
+        abstract boolean follows(
+            T target,
+            int index,
+            Comparator<Object> order,
+            boolean strict);
+
+        abstract Seen seen(T target, boolean concurrent);
+
+        static boolean inOrder(int comparison, boolean strict) {
+            return strict ? comparison < 0 : comparison <= 0;
+        }
+
+        /**
+         * @return the widest range of values worth tracking in a bit set
+         * for an array of the given length
+         */
+        static long bitSetSpan(int length) {
+            return Math.min(
+                MAXIMUM_BITSET_SPAN,
+                BITSET_SPAN_PER_ELEMENT * length);
+        }
+    }
+
+    private static final class Elements<S> extends Layout<Iterable<S>> {
+        @Override int size(Iterable<S> target) {
+            return target instanceof List<?> && target instanceof RandomAccess
+                ? ((List<?>) target).size()
+                : -1;
+        }
+
+        @Override Iterator<?> iterator(Iterable<S> target) {
+            return target.iterator();
+        }
+
+        @Override boolean follows(
+            Iterable<S> target,
+            int index,
+            Comparator<Object> order,
+            boolean strict) {
+
+            List<?> list = (List<?>) target;
+            return inOrder(
+                order.compare(list.get(index - 1), list.get(index)),
+                strict);
+        }
+
+        @Override Seen seen(Iterable<S> target, boolean concurrent) {
+            return new HashSeen(concurrent) {
+                @Override Object key(Object sequence, int index) {
+                    return ((List<?>) sequence).get(index);
+                }
+            };
+        }
+    }
+
+    private static final class Ints extends Layout<int[]> {
+        @Override int size(int[] target) {
+            return target.length;
+        }
+
+        @Override Iterator<?> iterator(int[] target) {
+            return Arrays.stream(target).iterator();
+        }
+
+        @Override boolean follows(
+            int[] target,
+            int index,
+            Comparator<Object> order,
+            boolean strict) {
+
+            return inOrder(
+                Integer.compare(target[index - 1], target[index]),
+                strict);
+        }
+
+        @Override Seen seen(int[] target, boolean concurrent) {
+            if (target.length > 0) {
+                long limit = bitSetSpan(target.length);
+                long minimum = target[0];
+                long maximum = target[0];
+                for (int i = 1;
+                    i < target.length && maximum - minimum < limit;
+                    ++i) {
+
+                    minimum = Math.min(minimum, target[i]);
+                    maximum = Math.max(maximum, target[i]);
+                }
+                if (maximum - minimum < limit) {
+                    long origin = minimum;
+                    return new BitSeen(maximum - minimum + 1, concurrent) {
+                        @Override long offset(Object sequence, int index) {
+                            return ((int[]) sequence)[index] - origin;
+                        }
+                    };
+                }
+            }
+
+            return new HashSeen(concurrent) {
+                @Override Object key(Object sequence, int index) {
+                    return ((int[]) sequence)[index];
+                }
+            };
+        }
+    }
+
+    private static final class Longs extends Layout<long[]> {
+        @Override int size(long[] target) {
+            return target.length;
+        }
+
+        @Override Iterator<?> iterator(long[] target) {
+            return Arrays.stream(target).iterator();
+        }
+
+        @Override boolean follows(
+            long[] target,
+            int index,
+            Comparator<Object> order,
+            boolean strict) {
+
+            return inOrder(
+                Long.compare(target[index - 1], target[index]),
+                strict);
+        }
+
+        @Override Seen seen(long[] target, boolean concurrent) {
+            if (target.length > 0) {
+                long limit = bitSetSpan(target.length);
+                long minimum = target[0];
+                long maximum = target[0];
+                long span = 0;
+                for (int i = 1;
+                    i < target.length && span >= 0 && span < limit;
+                    ++i) {
+
+                    minimum = Math.min(minimum, target[i]);
+                    maximum = Math.max(maximum, target[i]);
+                    span = maximum - minimum;
+                }
+                if (span >= 0 && span < limit) {
+                    long origin = minimum;
+                    return new BitSeen(span + 1, concurrent) {
+                        @Override long offset(Object sequence, int index) {
+                            return ((long[]) sequence)[index] - origin;
+                        }
+                    };
+                }
+            }
+
+            return new HashSeen(concurrent) {
+                @Override Object key(Object sequence, int index) {
+                    return ((long[]) sequence)[index];
+                }
+            };
+        }
+    }
+
+    private static final class Doubles extends Layout<double[]> {
+        @Override int size(double[] target) {
+            return target.length;
+        }
+
+        @Override Iterator<?> iterator(double[] target) {
+            return Arrays.stream(target).iterator();
+        }
+
+        @Override boolean follows(
+            double[] target,
+            int index,
+            Comparator<Object> order,
+            boolean strict) {
+
+            return inOrder(
+                Double.compare(target[index - 1], target[index]),
+                strict);
+        }
+
+        @Override Seen seen(double[] target, boolean concurrent) {
+            return new HashSeen(concurrent) {
+                @Override Object key(Object sequence, int index) {
+                    return ((double[]) sequence)[index];
+                }
+            };
+        }
+    }
+
+    /** Elements seen, kept in a hash set. */
+    private abstract static class HashSeen implements Seen {
+        private final Set<Object> keys;
+
+        HashSeen(boolean concurrent) {
+            keys = concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>();
+        }
+
+        abstract Object key(Object sequence, int index);
+
+        @Override public boolean add(Object target, int index) {
+            Object key = key(target, index);
+            return keys.add(key == null ? NULL : key);
+        }
+
+        private static final Object NULL = new Object();
+    }
+
+    /** Values seen, kept in a bit set over their range. */
+    private abstract static class BitSeen implements Seen {
+        private final long[] words;
+        private final AtomicLongArray concurrentWords;
+
+        BitSeen(long span, boolean concurrent) {
+            int length = (int) ((span + 63) >>> 6);
+            words = concurrent ? null : new long[length];
+            concurrentWords = concurrent ? new AtomicLongArray(length) : null;
+        }
+
+        abstract long offset(Object sequence, int index);
+
+        @Override public boolean add(Object target, int index) {
+            long offset = offset(target, index);
+            int word = (int) (offset >>> 6);
+            long bit = 1L << offset;
+            if (words != null) {
+                boolean fresh = (words[word] & bit) == 0;
+                words[word] |= bit;
+                return fresh;
+            }
+
+            long before = concurrentWords.getAndAccumulate(
+                word,
+                bit,
+                (current, mask) -> current | mask);
+            return (before & bit) == 0;
+        }
+    }
+}
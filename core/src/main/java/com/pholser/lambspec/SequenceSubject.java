@@ -0,0 +1,267 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>A test subject made up of the items of a sequence. Make one with
+ * {@link #eachOf(Iterable)} or {@link #atLeastOneOf(Iterable)}.</p>
+ *
+ * <p>By default, the items are tested one after another on the calling
+ * thread. Use {@link #inParallel()} to spread the testing of very large
+ * sequences across the cores of a fork-join pool. Parallel testing stops
+ * as soon as the outcome is decided, and reports the same offending item
+ * that sequential testing would.</p>
+ *
+ * <p>When an expectation is not met, the failure message shows only a few
+ * items around the offending one, along with its index and the size of the
+ * sequence, so that very large sequences are cheap to report on.</p>
+ *
+ * <p>Use {@link #within(Duration)} to bound the time spent testing each
+ * expectation. When the time runs out, testing stops and the failure
+ * reports how many items were checked, and how quickly.</p>
+ *
+ * @param <S> the type of the items of the sequence
+ */
+public abstract class SequenceSubject<S> extends Subject<S> {
+    private final Iterable<S> sequence;
+    private ForkJoinPool pool;
+    private Duration budget;
+
+    SequenceSubject(Iterable<S> sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Establishes elements of the given sequence as test subjects, all of
+     * which must meet subsequent expectations. Unlike
+     * {@link Subject#expectEachOf(Iterable)}, gives a subject that can be
+     * tested in parallel or within a time budget.
+     *
+     * @param <T> the type of the elements of the sequence
+     * @param sequence a sequence to test
+     * @return a test subject in the fluent interface
+     */
+    public static <T> SequenceSubject<T> eachOf(Iterable<T> sequence) {
+        return new EachOf<>(sequence);
+    }
+
+    /**
+     * Establishes elements of the given sequence as test subjects, at least
+     * one of which must meet subsequent expectations. Unlike
+     * {@link Subject#expectAtLeastOneOf(Iterable)}, gives a subject that
+     * can be tested in parallel or within a time budget.
+     *
+     * @param <T> the type of the elements of the sequence
+     * @param sequence a sequence to test
+     * @return a test subject in the fluent interface
+     */
+    public static <T> SequenceSubject<T> atLeastOneOf(Iterable<T> sequence) {
+        return new AtLeastOneOf<>(sequence);
+    }
+
+    /**
+     * Arranges for subsequent expectations to be tested in parallel, on the
+     * {@linkplain ForkJoinPool#commonPool() common fork-join pool}.
+     *
+     * @return self, so that expectations can be chained
+     */
+    public SequenceSubject<S> inParallel() {
+        return inParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Arranges for subsequent expectations to be tested in parallel, on the
+     * given fork-join pool.
+     *
+     * @param pool where to test expectations
+     * @return self, so that expectations can be chained
+     */
+    public SequenceSubject<S> inParallel(ForkJoinPool pool) {
+        this.pool = requireNonNull(pool);
+        return this;
+    }
+
+    /**
+     * Arranges for testing of each subsequent expectation to stop once the
+     * given time has passed. The clock is consulted between items, so a
+     * single item whose testing hangs is not interrupted; bound such
+     * predicates with {@link Lambspec#within(Duration, Predicate)}.
+     *
+     * @param budget how long to spend testing each expectation
+     * @return self, so that expectations can be chained
+     * @throws IllegalArgumentException if {@code budget} is negative
+     */
+    public SequenceSubject<S> within(Duration budget) {
+        if (budget.isNegative())
+            throw new IllegalArgumentException("negative budget: " + budget);
+
+        this.budget = budget;
+        return this;
+    }
+
+    @Override protected final void test(Predicate<? super S> p) {
+        Deadline deadline = Deadline.after(budget);
+        if (pool == null)
+            testSequentially(sequence, p, deadline);
+        else
+            testInParallel(sequence, p, pool, deadline);
+    }
+
+    abstract void testSequentially(
+        Iterable<S> sequence,
+        Predicate<? super S> p,
+        Deadline deadline);
+
+    abstract void testInParallel(
+        Iterable<S> sequence,
+        Predicate<? super S> p,
+        ForkJoinPool pool,
+        Deadline deadline);
+
+    void failEach(S item, SequenceWindow window, Predicate<?> p, long index) {
+        fail(
+            "[%s] from sequence [%s] did not satisfy [%s] (index %d of %s)%s",
+            item,
+            window,
+            p,
+            index,
+            window.size(),
+            Mismatch.of(p, item));
+    }
+
+    void failAtLeastOne(SequenceWindow window, Predicate<?> p) {
+        fail(
+            "No item from sequence [%s] satisfied [%s] (%s)",
+            window,
+            p,
+            window.size());
+    }
+
+    private static final class EachOf<S> extends SequenceSubject<S> {
+        EachOf(Iterable<S> sequence) {
+            super(sequence);
+        }
+
+        @Override void testSequentially(
+            Iterable<S> sequence,
+            Predicate<? super S> p,
+            Deadline deadline) {
+
+            Object[] trail = new Object[SequenceWindow.RADIUS];
+            int slot = 0;
+            Iterator<S> items = sequence.iterator();
+            for (long index = 0; items.hasNext(); ++index) {
+                if (deadline.passed()) {
+                    deadline.fail(this, p, index);
+                    return;
+                }
+
+                S each = items.next();
+                if (!p.test(each)) {
+                    SequenceWindow window = SequenceWindow.around(
+                        sequence, trail, each, index, items);
+                    failEach(each, window, p, index);
+                    return;
+                }
+                trail[slot] = each;
+                if (++slot == trail.length)
+                    slot = 0;
+            }
+        }
+
+        @Override void testInParallel(
+            Iterable<S> sequence,
+            Predicate<? super S> p,
+            ForkJoinPool pool,
+            Deadline deadline) {
+
+            ParallelSearch<S> search =
+                ParallelSearch.firstFailure(sequence, p, pool, deadline);
+            if (search.succeeded()) {
+                S each = search.found();
+                long index = search.foundIndex();
+                failEach(
+                    each,
+                    SequenceWindow.at(sequence, each, index),
+                    p,
+                    index);
+            } else if (deadline.expired()) {
+                deadline.fail(this, p, search.visitedCount());
+            }
+        }
+    }
+
+    private static final class AtLeastOneOf<S> extends SequenceSubject<S> {
+        AtLeastOneOf(Iterable<S> sequence) {
+            super(sequence);
+        }
+
+        @Override void testSequentially(
+            Iterable<S> sequence,
+            Predicate<? super S> p,
+            Deadline deadline) {
+
+            Object[] head = new Object[SequenceWindow.HEAD];
+            long size = 0;
+            for (S each : sequence) {
+                if (deadline.passed()) {
+                    deadline.fail(this, p, size);
+                    return;
+                }
+                if (p.test(each))
+                    return;
+                if (size < head.length)
+                    head[(int) size] = each;
+                ++size;
+            }
+            failAtLeastOne(SequenceWindow.head(head, size), p);
+        }
+
+        @Override void testInParallel(
+            Iterable<S> sequence,
+            Predicate<? super S> p,
+            ForkJoinPool pool,
+            Deadline deadline) {
+
+            ParallelSearch<S> search =
+                ParallelSearch.anySuccess(sequence, p, pool, deadline);
+            if (search.succeeded())
+                return;
+
+            if (deadline.expired())
+                deadline.fail(this, p, search.visitedCount());
+            else
+                failAtLeastOne(search.head(), p);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded view of a sequence, for use in failure messages. Holds at most
+ * a few items on either side of an item of interest, plus what is known
+ * about the size of the sequence, and renders them only when asked to.
+ */
+final class SequenceWindow {
+    /** How many items to show on either side of an item of interest. */
+    static final int RADIUS = 3;
+
+    /** How many items to show from the head of a sequence. */
+    static final int HEAD = 2 * RADIUS + 1;
+
+    private final List<Object> items;
+    private final boolean elidedBefore;
+    private final boolean elidedAfter;
+    private final long size;
+    private final boolean sizeExact;
+
+    private SequenceWindow(
+        List<Object> items,
+        boolean elidedBefore,
+        boolean elidedAfter,
+        long size,
+        boolean sizeExact) {
+
+        this.items = items;
+        this.elidedBefore = elidedBefore;
+        this.elidedAfter = elidedAfter;
+        this.size = size;
+        this.sizeExact = sizeExact;
+    }
+
+    /**
+     * Makes a window around an item met partway through iterating over a
+     * sequence.
+     *
+     * @param sequence the sequence being iterated over
+     * @param trail ring buffer of the {@link #RADIUS} items preceding the
+     * item of interest; item {@code i} lives in slot {@code i % RADIUS}
+     * @param item the item of interest
+     * @param index the index of the item of interest
+     * @param rest iterator over the sequence, positioned just past the item
+     * of interest
+     * @return a window around the item
+     */
+    static SequenceWindow around(
+        Iterable<?> sequence,
+        Object[] trail,
+        Object item,
+        long index,
+        Iterator<?> rest) {
+
+        List<Object> items = new ArrayList<>(2 * RADIUS + 1);
+        long first = Math.max(0, index - RADIUS);
+        for (long i = first; i < index; ++i)
+            items.add(trail[(int) (i % RADIUS)]);
+        items.add(item);
+        for (int i = 0; i < RADIUS && rest.hasNext(); ++i)
+            items.add(rest.next());
+
+        long seen = first + items.size();
+        if (!rest.hasNext())
+            return new SequenceWindow(items, first > 0, false, seen, true);
+        if (sequence instanceof Collection<?>) {
+            return new SequenceWindow(
+                items,
+                first > 0,
+                true,
+                ((Collection<?>) sequence).size(),
+                true);
+        }
+        return new SequenceWindow(items, first > 0, true, seen + 1, false);
+    }
+
+    /**
+     * Makes a window around an item of a sequence whose neighbors were not
+     * tracked. If the sequence is a random-access list, the neighbors are
+     * looked up; otherwise the window shows only the item.
+     *
+     * @param sequence the sequence the item came from
+     * @param item the item of interest
+     * @param index the index of the item of interest
+     * @return a window around the item
+     */
+    static SequenceWindow at(Iterable<?> sequence, Object item, long index) {
+        if (sequence instanceof List<?> && sequence instanceof RandomAccess) {
+            List<?> list = (List<?>) sequence;
+            return within(list.size(), (int) index, list::get);
+        }
+
+        List<Object> items = new ArrayList<>(1);
+        items.add(item);
+        if (sequence instanceof Collection<?>) {
+            int size = ((Collection<?>) sequence).size();
+            return new SequenceWindow(
+                items,
+                index > 0,
+                index < size - 1,
+                size,
+                true);
+        }
+        return new SequenceWindow(items, index > 0, true, index + 1, false);
+    }
+
+    /**
+     * Makes a window around an item of an indexed sequence, such as a
+     * random-access list or an array.
+     *
+     * @param size the size of the sequence
+     * @param index the index of the item of interest
+     * @param item gives the item at a given index
+     * @return a window around the item
+     */
+    static SequenceWindow within(int size, int index, IntFunction<?> item) {
+        int first = Math.max(0, index - RADIUS);
+        int last = Math.min(size, index + RADIUS + 1);
+        List<Object> items = new ArrayList<>(last - first);
+        for (int i = first; i < last; ++i)
+            items.add(item.apply(i));
+        return new SequenceWindow(items, first > 0, last < size, size, true);
+    }
+
+    /**
+     * Makes a window over the first few items of a sequence whose size is
+     * known.
+     *
+     * @param head the first {@link #HEAD} items of the sequence, or all of
+     * them if there are fewer
+     * @param size the size of the sequence
+     * @return a window over the head of the sequence
+     */
+    static SequenceWindow head(Object[] head, long size) {
+        List<Object> items = new ArrayList<>(head.length);
+        for (int i = 0; i < head.length && i < size; ++i)
+            items.add(head[i]);
+        return new SequenceWindow(items, false, size > head.length, size, true);
+    }
+
+    /**
+     * Makes a window over the first few items of an indexed sequence.
+     *
+     * @param size the size of the sequence
+     * @param item gives the item at a given index
+     * @return a window over the head of the sequence
+     */
+    static SequenceWindow head(int size, IntFunction<?> item) {
+        Object[] head = new Object[Math.min(size, HEAD)];
+        for (int i = 0; i < head.length; ++i)
+            head[i] = item.apply(i);
+        return head(head, size);
+    }
+
+    /**
+     * @return a description of the size of the sequence, such as
+     * {@code "3 items"} or {@code "10+ items"}
+     */
+    String size() {
+        if (!sizeExact)
+            return size + "+ items";
+        return size + (size == 1 ? " item" : " items");
+    }
+
+    @Override public String toString() {
+        StringBuilder buffer = new StringBuilder("[");
+        if (elidedBefore)
+            buffer.append("...");
+        for (Object each : items) {
+            if (buffer.length() > 1)
+                buffer.append(", ");
+            buffer.append(each);
+        }
+        if (elidedAfter)
+            buffer.append(buffer.length() > 1 ? ", ..." : "...");
+        return buffer.append(']').toString();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>Collects the failures of expectations set on the current thread,
+ * rather than throwing them one at a time, and throws one error reporting
+ * all of them when closed.</p>
+ *
+ * <p>For example:</p>
+ *
+ * <pre>
+ * try (SoftExpectations soft = SoftExpectations.collect()) {
+ *     expect(order.total()).to(beAtLeast(0));
+ *     expectEachOf(order.lines()).to(haveAPositiveQuantity);
+ * }
+ * </pre>
+ *
+ * <p>Each unmet expectation is recorded as an {@link AssertionError} without
+ * a stack trace, whose message is not formatted until it is asked for, so
+ * that many failures are cheap to record. An expectation on the elements
+ * of a sequence records only its first failure. Once the configured number
+ * of failures has been recorded, further failures are only counted.</p>
+ *
+ * <p>Collectors nest: closing one resumes collection by the one that was in
+ * effect when it was opened. A collector must be closed on the thread that
+ * opened it.</p>
+ */
+public final class SoftExpectations implements AutoCloseable {
+    /** How many failures {@link #collect()} records by default. */
+    public static final int DEFAULT_LIMIT = 100;
+
+    private static final ThreadLocal<SoftExpectations> current =
+        new ThreadLocal<>();
+
+    private final SoftExpectations enclosing;
+    private final int limit;
+    private final List<AssertionError> failures = new ArrayList<>();
+    private int failureCount;
+    private boolean closed;
+
+    private SoftExpectations(SoftExpectations enclosing, int limit) {
+        this.enclosing = enclosing;
+        this.limit = limit;
+    }
+
+    /**
+     * Begins collecting expectation failures on the current thread,
+     * recording up to {@link #DEFAULT_LIMIT} of them.
+     *
+     * @return a collector of expectation failures
+     */
+    public static SoftExpectations collect() {
+        return collect(DEFAULT_LIMIT);
+    }
+
+    /**
+     * Begins collecting expectation failures on the current thread,
+     * recording up to the given number of them.
+     *
+     * @param limit how many failures to record
+     * @return a collector of expectation failures
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    public static SoftExpectations collect(int limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException("negative limit: " + limit);
+
+        SoftExpectations collector =
+            new SoftExpectations(current.get(), limit);
+        current.set(collector);
+        return collector;
+    }
+
+    /**
+     * @return whether a collector is in effect on the current thread
+     */
+    static boolean collecting() {
+        return current.get() != null;
+    }
+
+    /**
+     * Records an expectation failure with the collector in effect on the
+     * current thread, if any.
+     *
+     * @param failure the failure of an expectation
+     * @return whether there was a collector to record the failure
+     */
+    static boolean record(AssertionError failure) {
+        SoftExpectations collector = current.get();
+        if (collector == null)
+            return false;
+
+        if (collector.failures.size() < collector.limit)
+            collector.failures.add(failure);
+        ++collector.failureCount;
+        return true;
+    }
+
+    /**
+     * @return the failures recorded so far, in the order they occurred
+     */
+    public List<AssertionError> failures() {
+        return Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    /**
+     * @return how many expectations have failed so far, including those
+     * beyond the limit that were not recorded
+     */
+    public int failureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Stops collecting expectation failures.
+     *
+     * @throws AssertionError if any expectation failed while collecting
+     * @throws IllegalStateException if called on a thread other than the
+     * one that opened this collector, or while a collector nested within
+     * this one is still open
+     */
+    @Override public void close() {
+        if (closed)
+            return;
+        if (current.get() != this) {
+            throw new IllegalStateException(
+                "soft expectations closed out of order or on another thread");
+        }
+
+        closed = true;
+        if (enclosing == null)
+            current.remove();
+        else
+            current.set(enclosing);
+
+        if (failureCount > 0) {
+            throw new ExpectationFailure(
+                "%d expectation%s not met:%s",
+                failureCount,
+                failureCount == 1 ? " was" : "s were",
+                new Report());
+        }
+    }
+
+    private final class Report {
+        @Override public String toString() {
+            StringBuilder buffer = new StringBuilder();
+            for (int i = 0; i < failures.size(); ++i) {
+                buffer.append(System.lineSeparator())
+                    .append("  ")
+                    .append(i + 1)
+                    .append(") ")
+                    .append(failures.get(i).getMessage());
+            }
+            if (failureCount > failures.size()) {
+                buffer.append(System.lineSeparator())
+                    .append("  (")
+                    .append(failureCount - failures.size())
+                    .append(" more not recorded)");
+            }
+            return buffer.toString();
+        }
+    }
+}
@@ -52,54 +52,47 @@ public abstract class Subject<S> {
     public static <T> Subject<T> expect(T target) {
         return new Subject<T>() {
             @Override protected void test(Predicate<? super T> p) {
-                if (!p.test(target))
-                    fail("[%s] did not satisfy [%s]", target, p);
+                if (!p.test(target)) {
+                    fail(
+                        "[%s] did not satisfy [%s]%s",
+                        p instanceof Equality<?>
+                            ? Diff.abbreviated(
+                                target,
+                                Equality.MAXIMUM_DESCRIPTION_LENGTH)
+                            : target,
+                        p,
+                        Mismatch.of(p, target));
+                }
             }
         };
     }
 
     /**
      * Establishes elements of the given sequence as test subjects, all of
-     * which must meet subsequent expectations.
+     * which must meet subsequent expectations. To test the elements in
+     * parallel, or within a time budget, use
+     * {@link SequenceSubject#eachOf(Iterable)} instead.
      *
      * @param <T> the type of the elements of the sequence
      * @param sequence a sequence to test
      * @return a test subject in the fluent interface
      */
     public static <T> Subject<T> expectEachOf(Iterable<T> sequence) {
-        return new Subject<T>() {
-            @Override protected void test(Predicate<? super T> p) {
-                for (T each : sequence) {
-                    if (!p.test(each)) {
-                        fail(
-                            "[%s] from sequence [%s] did not satisfy [%s]",
-                            each,
-                            sequence,
-                            p);
-                    }
-                }
-            }
-        };
+        return SequenceSubject.eachOf(sequence);
     }
 
     /**
      * Establishes elements of the given sequence as test subjects, at least
-     * one of which must meet subsequent expectations.
+     * one of which must meet subsequent expectations. To test the elements
+     * in parallel, or within a time budget, use
+     * {@link SequenceSubject#atLeastOneOf(Iterable)} instead.
      *
      * @param <T> the type of the elements of the sequence
      * @param sequence a sequence to test
      * @return a test subject in the fluent interface
      */
     public static <T> Subject<T> expectAtLeastOneOf(Iterable<T> sequence) {
-        return new Subject<T>() {
-            @Override protected void test(Predicate<? super T> p) {
-                for (T each : sequence) {
-                    if (p.test(each))
-                        return;
-                }
-                fail("No item from sequence [%s] satisfied [%s]", sequence, p);
-            }
-        };
+        return SequenceSubject.atLeastOneOf(sequence);
     }
 
     /**
@@ -110,10 +103,33 @@ public abstract class Subject<S> {
      * @throws AssertionError if the expectation is not met
      */
     public final Subject<S> to(Predicate<? super S> p) {
-        test(p);
+        try {
+            if (Instrumentation.enabled)
+                Instrumentation.measure(p, () -> test(p));
+            else
+                test(p);
+        } catch (ExpectationFailure failure) {
+            if (!SoftExpectations.record(failure))
+                throw failure;
+        }
         return this;
     }
 
+    /**
+     * Establishes an expectation on the condition of the test subject.
+     * Lambda expressions and method references given here are compiled as
+     * {@linkplain SerializablePredicate serializable}, so that a failure
+     * message can name the method that implements the expectation and the
+     * values it captured.
+     *
+     * @param p a predicate that represents the expectation
+     * @return self, so that expectations can be chained
+     * @throws AssertionError if the expectation is not met
+     */
+    public final Subject<S> to(SerializablePredicate<? super S> p) {
+        return to((Predicate<? super S>) p);
+    }
+
     /**
      * Tests the expectation represented by the given predicate.
      *
@@ -124,14 +140,17 @@ public abstract class Subject<S> {
 
     /**
      * Helper method for implementers of {@link #test(Predicate)} to create
-     * an expectation failure with a particular message.
+     * an expectation failure with a particular message. The message is not
+     * formatted until it is first asked for.
      *
      * @param messageTemplate a {@linkplain String#format(String, Object...)
      * message format pattern}
      * @param args arguments to the message template
-     * @throws AssertionError always
+     * @throws AssertionError always; if {@linkplain SoftExpectations soft
+     * expectations} are being collected, {@code to} records the failure
+     * rather than letting it through
      */
     protected void fail(String messageTemplate, Object... args) {
-        throw new AssertionError(String.format(messageTemplate, args));
+        throw ExpectationFailure.of(messageTemplate, args);
     }
 }
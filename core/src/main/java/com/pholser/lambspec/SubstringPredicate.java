@@ -0,0 +1,401 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static java.util.Objects.*;
+
+/**
+ * <p>Predicate that decides whether a character sequence contains any,
+ * all, or none of some tokens.</p>
+ *
+ * <p>The tokens are compiled once, when the predicate is made, into an
+ * Aho-Corasick automaton: a trie of the tokens in which each state also
+ * knows the state for the longest proper suffix of its path that is a
+ * prefix of some token, and the nearest such state that ends a token.
+ * A sequence is then tested in one pass, however many tokens there are,
+ * stopping as soon as the outcome is decided. The automaton is immutable,
+ * so the predicate may be shared among threads. As with
+ * {@link PatternPredicate}, {@code null} satisfies no such predicate.</p>
+ */
+final class SubstringPredicate
+    implements Predicate<CharSequence>, Describable, StableDescription {
+
+    private static final int DESCRIBED_TOKENS = 8;
+
+    /** How many tokens must be present. */
+    private enum Quantifier {
+        ANY("containing any of [%s]"),
+        ALL("containing all of [%s]"),
+        NONE("containing none of [%s]");
+
+        private final String description;
+
+        Quantifier(String description) {
+            this.description = description;
+        }
+    }
+
+    private final String[] tokens;
+    private final Quantifier quantifier;
+    private final Automaton automaton;
+    private volatile String description;
+
+    private SubstringPredicate(String[] tokens, Quantifier quantifier) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String each : tokens)
+            distinct.add(requireNonNull(each));
+        this.tokens = distinct.toArray(new String[distinct.size()]);
+        this.quantifier = quantifier;
+        this.automaton = new Automaton(this.tokens);
+    }
+
+    /**
+     * @param tokens some tokens
+     * @return a predicate that tests whether a sequence contains any of
+     * the tokens
+     */
+    static SubstringPredicate anyOf(String[] tokens) {
+        return new SubstringPredicate(tokens, Quantifier.ANY);
+    }
+
+    /**
+     * @param tokens some tokens
+     * @return a predicate that tests whether a sequence contains all of
+     * the tokens
+     */
+    static SubstringPredicate allOf(String[] tokens) {
+        return new SubstringPredicate(tokens, Quantifier.ALL);
+    }
+
+    /**
+     * @param tokens some tokens
+     * @return a predicate that tests whether a sequence contains none of
+     * the tokens
+     */
+    static SubstringPredicate noneOf(String[] tokens) {
+        return new SubstringPredicate(tokens, Quantifier.NONE);
+    }
+
+    @Override public boolean test(CharSequence target) {
+        if (target == null)
+            return false;
+
+        switch (quantifier) {
+            case ANY:
+                return automaton.first(target) != null;
+            case NONE:
+                return automaton.first(target) == null;
+            default:
+                return automaton.missing(target, true).isEmpty();
+        }
+    }
+
+    @Override public String describeMismatch(Object target) {
+        if (target == null)
+            return null;
+
+        CharSequence sequence = (CharSequence) target;
+        switch (quantifier) {
+            case ANY:
+                return null;
+            case NONE:
+                Match match = automaton.first(sequence);
+                return match == null ? null : match.toString();
+            default:
+                List<String> missing = automaton.missing(sequence, false);
+                return missing.isEmpty() ? null : "lacked " + render(missing);
+        }
+    }
+
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof SubstringPredicate))
+            return false;
+
+        SubstringPredicate other = (SubstringPredicate) o;
+        return quantifier == other.quantifier
+            && Arrays.equals(tokens, other.tokens);
+    }
+
+    @Override public int hashCode() {
+        return 31 * Arrays.hashCode(tokens) + quantifier.hashCode();
+    }
+
+    @Override public String toString() {
+        String result = description;
+        if (result == null) {
+            result = String.format(
+                quantifier.description,
+                render(Arrays.asList(tokens)));
+            description = result;
+        }
+        return result;
+    }
+
+    private static String render(List<String> tokens) {
+        StringBuilder buffer = new StringBuilder();
+        int count = Math.min(tokens.size(), DESCRIBED_TOKENS);
+        for (int i = 0; i < count; ++i) {
+            if (i > 0)
+                buffer.append(", ");
+            buffer.append('"').append(tokens.get(i)).append('"');
+        }
+        if (tokens.size() > count)
+            buffer.append(", ... (").append(tokens.size()).append(" in all)");
+        return buffer.toString();
+    }
+
+    /** A token found in a sequence, and where. */
+    private static final class Match {
+        private final String token;
+        private final int offset;
+
+        Match(String token, int offset) {
+            this.token = token;
+            this.offset = offset;
+        }
+
+        @Override public String toString() {
+            return "contained \"" + token + "\" at offset " + offset;
+        }
+    }
+
+    /**
+     * The automaton. States are numbered from 0, the root; transitions out
+     * of each state are kept as parallel arrays of sorted characters and
+     * target states, except that the root, where a scan spends most of its
+     * time, has a table indexed by character for ASCII.
+     */
+    private static final class Automaton {
+        private static final int ASCII = 128;
+
+        private final String[] tokens;
+        private final char[][] labels;
+        private final int[][] targets;
+        private final int[] rootTable = new int[ASCII];
+        private final int[] failure;
+        /** The token a state ends, or -1. */
+        private final int[] token;
+        /** The nearest state along failure links that ends a token. */
+        private final int[] output;
+        private final boolean hasEmpty;
+
+        Automaton(String[] tokens) {
+            this.tokens = tokens;
+
+            List<StringBuilder> labelLists = new ArrayList<>();
+            List<List<Integer>> targetLists = new ArrayList<>();
+            List<Integer> ends = new ArrayList<>();
+            labelLists.add(new StringBuilder());
+            targetLists.add(new ArrayList<>());
+            ends.add(-1);
+
+            boolean empty = false;
+            for (int t = 0; t < tokens.length; ++t) {
+                String each = tokens[t];
+                if (each.isEmpty())
+                    empty = true;
+
+                int state = 0;
+                for (int i = 0; i < each.length(); ++i) {
+                    char c = each.charAt(i);
+                    int at = labelLists.get(state).indexOf(String.valueOf(c));
+                    if (at >= 0) {
+                        state = targetLists.get(state).get(at);
+                    } else {
+                        int next = labelLists.size();
+                        labelLists.add(new StringBuilder());
+                        targetLists.add(new ArrayList<>());
+                        ends.add(-1);
+                        labelLists.get(state).append(c);
+                        targetLists.get(state).add(next);
+                        state = next;
+                    }
+                }
+                if (ends.get(state) < 0)
+                    ends.set(state, t);
+            }
+            hasEmpty = empty;
+
+            int count = labelLists.size();
+            labels = new char[count][];
+            targets = new int[count][];
+            token = new int[count];
+            for (int s = 0; s < count; ++s) {
+                sortTransitions(s, labelLists.get(s), targetLists.get(s));
+                token[s] = ends.get(s);
+            }
+            for (int i = 0; i < labels[0].length; ++i) {
+                if (labels[0][i] < ASCII)
+                    rootTable[labels[0][i]] = targets[0][i];
+            }
+
+            failure = new int[count];
+            output = new int[count];
+            Arrays.fill(output, -1);
+            linkFailures();
+        }
+
+        private void sortTransitions(
+            int state,
+            CharSequence stateLabels,
+            List<Integer> stateTargets) {
+
+            int n = stateLabels.length();
+            long[] packed = new long[n];
+            for (int i = 0; i < n; ++i)
+                packed[i] = ((long) stateLabels.charAt(i) << 32)
+                    | stateTargets.get(i);
+            Arrays.sort(packed);
+
+            labels[state] = new char[n];
+            targets[state] = new int[n];
+            for (int i = 0; i < n; ++i) {
+                labels[state][i] = (char) (packed[i] >>> 32);
+                targets[state][i] = (int) packed[i];
+            }
+        }
+
+        /** Sets failure and output links, breadth first from the root. */
+        private void linkFailures() {
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                failure[child] = 0;
+                queue.add(child);
+            }
+
+            while (!queue.isEmpty()) {
+                int state = queue.remove();
+                for (int i = 0; i < labels[state].length; ++i) {
+                    char c = labels[state][i];
+                    int child = targets[state][i];
+                    int f = failure[state];
+                    int next;
+                    while ((next = child(f, c)) < 0 && f != 0)
+                        f = failure[f];
+                    failure[child] = next < 0 ? 0 : next;
+                    queue.add(child);
+                }
+
+                int f = failure[state];
+                output[state] = token[f] >= 0 ? f : output[f];
+            }
+        }
+
+        /** @return the child of a state along a character, or -1 */
+        private int child(int state, char c) {
+            if (state == 0 && c < ASCII) {
+                int next = rootTable[c];
+                return next == 0 ? -1 : next;
+            }
+
+            int at = Arrays.binarySearch(labels[state], c);
+            return at < 0 ? -1 : targets[state][at];
+        }
+
+        private int step(int state, char c) {
+            int s = state;
+            while (true) {
+                int next = child(s, c);
+                if (next >= 0)
+                    return next;
+                if (s == 0)
+                    return 0;
+                s = failure[s];
+            }
+        }
+
+        /**
+         * @return the token that ends earliest in the sequence, the
+         * longest of them if several end at the same place; or
+         * {@code null} if there is none
+         */
+        Match first(CharSequence sequence) {
+            if (hasEmpty)
+                return new Match("", 0);
+
+            int state = 0;
+            for (int i = 0; i < sequence.length(); ++i) {
+                state = step(state, sequence.charAt(i));
+                int ending = token[state] >= 0 ? state : output[state];
+                if (ending >= 0) {
+                    String found = tokens[token[ending]];
+                    return new Match(found, i - found.length() + 1);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param stopEarly whether to stop at the first token found to be
+         * missing, or rather when all have been found
+         * @return the tokens not found in the sequence; if stopping early,
+         * only whether any is missing is reliable
+         */
+        List<String> missing(CharSequence sequence, boolean stopEarly) {
+            boolean[] found = new boolean[tokens.length];
+            int remaining = tokens.length;
+            if (hasEmpty) {
+                for (int t = 0; t < tokens.length; ++t) {
+                    if (tokens[t].isEmpty()) {
+                        found[t] = true;
+                        --remaining;
+                    }
+                }
+            }
+
+            int state = 0;
+            for (int i = 0; i < sequence.length() && remaining > 0; ++i) {
+                state = step(state, sequence.charAt(i));
+                int s = token[state] >= 0 ? state : output[state];
+                for (; s >= 0; s = output[s]) {
+                    if (!found[token[s]]) {
+                        found[token[s]] = true;
+                        --remaining;
+                    }
+                }
+            }
+
+            List<String> missing = new ArrayList<>();
+            for (int t = 0; t < tokens.length; ++t) {
+                if (!found[t]) {
+                    missing.add(tokens[t]);
+                    if (stopEarly)
+                        break;
+                }
+            }
+            return missing;
+        }
+    }
+}
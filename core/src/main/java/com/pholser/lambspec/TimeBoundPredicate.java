@@ -0,0 +1,190 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static java.util.concurrent.TimeUnit.*;
+
+/**
+ * Predicate that gives another predicate a limited time to answer. The
+ * other predicate is evaluated on the calling thread, watched by a single
+ * shared daemon thread; if it has not answered when the time runs out, the
+ * calling thread is interrupted, and the answer is taken to be that the
+ * target is not satisfactory. A subject then reports the failure as usual,
+ * with a mismatch description saying that time ran out.
+ *
+ * <p>A predicate that ignores interruption runs to completion on the
+ * calling thread before the time-out is reported.</p>
+ *
+ * @param <T> the type of the argument to the predicate
+ */
+final class TimeBoundPredicate<T> implements Predicate<T>, Describable {
+    private static final ThreadLocal<TimeOut> lastTimeOut =
+        new ThreadLocal<>();
+
+    private final Duration budget;
+    private final Predicate<T> p;
+
+    TimeBoundPredicate(Duration budget, Predicate<T> p) {
+        this.budget = budget;
+        this.p = p;
+    }
+
+    @Override public boolean test(T target) {
+        boolean interrupted = Thread.currentThread().isInterrupted();
+        Watch watch = new Watch(Thread.currentThread());
+        ScheduledFuture<?> alarm =
+            Watchdog.INSTANCE.schedule(watch, budget.toNanos(), NANOSECONDS);
+        boolean answer;
+        try {
+            answer = p.test(target);
+        } catch (RuntimeException | Error e) {
+            if (watch.finish())
+                throw e;
+            answer = false;
+        } finally {
+            alarm.cancel(false);
+        }
+
+        if (watch.finish())
+            return answer;
+
+        watch.clearInterrupt();
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        lastTimeOut.set(new TimeOut(this, target));
+        return false;
+    }
+
+    @Override public String describeMismatch(Object target) {
+        Describable timeOut = recordedTimeOut(target);
+        if (timeOut != null)
+            return timeOut.describeMismatch(target);
+
+        return p instanceof Describable
+            ? ((Describable) p).describeMismatch(target)
+            : null;
+    }
+
+    /**
+     * Gives the time-out recorded on the current thread when this predicate
+     * last ran out of time testing the given target, if any.
+     *
+     * @param target an object that did not satisfy this predicate
+     * @return the recorded time-out, or {@code null} if there is none
+     */
+    Describable recordedTimeOut(Object target) {
+        TimeOut timeOut = lastTimeOut.get();
+        return timeOut != null
+            && timeOut.p == this
+            && timeOut.target == target
+            ? timeOut
+            : null;
+    }
+
+    @Override public String toString() {
+        return p.toString();
+    }
+
+    private static final class TimeOut implements Describable {
+        private final TimeBoundPredicate<?> p;
+        private final Object target;
+
+        TimeOut(TimeBoundPredicate<?> p, Object target) {
+            this.p = p;
+            this.target = target;
+        }
+
+        @Override public String describeMismatch(Object ignored) {
+            return "could not be tested within " + p.budget;
+        }
+    }
+
+    /**
+     * Interrupts a thread testing a predicate if it is still at it when
+     * run. Either the watch or the tester settles the outcome, never both.
+     */
+    private static final class Watch implements Runnable {
+        private static final int RUNNING = 0;
+        private static final int FINISHED = 1;
+        private static final int INTERRUPTING = 2;
+        private static final int INTERRUPTED = 3;
+
+        private final Thread tester;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        Watch(Thread tester) {
+            this.tester = tester;
+        }
+
+        @Override public void run() {
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                tester.interrupt();
+                state.set(INTERRUPTED);
+            }
+        }
+
+        /**
+         * @return whether the tester finished before the time ran out
+         */
+        boolean finish() {
+            return state.compareAndSet(RUNNING, FINISHED)
+                || state.get() == FINISHED;
+        }
+
+        /**
+         * Waits for the interrupt of the tester to be delivered, then
+         * clears it, so that it does not leak into what the tester does
+         * next.
+         */
+        void clearInterrupt() {
+            while (state.get() != INTERRUPTED)
+                Thread.yield();
+            Thread.interrupted();
+        }
+    }
+
+    /** The single daemon thread that watches all time-bound predicates. */
+    private static final class Watchdog {
+        static final ScheduledThreadPoolExecutor INSTANCE = create();
+
+        private static ScheduledThreadPoolExecutor create() {
+            ScheduledThreadPoolExecutor watchdog =
+                new ScheduledThreadPoolExecutor(1, r -> {
+                    Thread thread = new Thread(r, "lambspec-within-watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            watchdog.setRemoveOnCancelPolicy(true);
+            return watchdog;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Receives reports of {@linkplain Guard guarded} invariants that did not
+ * hold. Implementations must be safe to call from many threads at once.
+ */
+@FunctionalInterface
+public interface ViolationSink {
+    /**
+     * Reports a violated invariant.
+     *
+     * @param violation describes the violation; its message is not formatted
+     * until it is asked for
+     */
+    void violated(AssertionError violation);
+
+    /**
+     * @param logger a logger
+     * @return a sink that logs violations to the given logger at level
+     * {@link Level#WARNING}
+     */
+    static ViolationSink logTo(Logger logger) {
+        return violation -> {
+            if (logger.isLoggable(Level.WARNING))
+                logger.log(Level.WARNING, violation.getMessage(), violation);
+        };
+    }
+}
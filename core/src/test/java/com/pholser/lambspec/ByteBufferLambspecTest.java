@@ -0,0 +1,216 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.nio.ByteBuffer;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.ByteBufferLambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.nio.charset.StandardCharsets.*;
+import static org.junit.Assert.*;
+
+public class ByteBufferLambspecTest {
+    private static final byte[] CHECK = "123456789".getBytes(US_ASCII);
+
+    @Test public void prefix() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+
+        expect(buffer)
+            .to(startWith((byte) 1, (byte) 2))
+            .to(Lambspec.not(startWith((byte) 2)))
+            .to(Lambspec.not(startWith(new byte[] { 1, 2, 3, 4, 5 })));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test public void offsetsAreRelativeToPosition() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+        buffer.position(2);
+
+        expect(buffer)
+            .to(startWith((byte) 3))
+            .to(haveBytesAt(1, (byte) 4))
+            .to(haveRemaining(2))
+            .to(Lambspec.not(haveRemaining(3)));
+        assertEquals(2, buffer.position());
+    }
+
+    @Test public void regionMismatchShowsHexDump() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(32);
+        for (int i = 0; i < 32; ++i)
+            buffer.put(i, (byte) i);
+
+        try {
+            expect(buffer)
+                .to(haveBytesAt(10, new byte[] { 10, 11, (byte) 0xff }));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    "did not satisfy [with bytes at offset 10: [0a 0b ff]]"
+                        + ": differed at offset 12: ... 04 05 06 07 08 09 0a"
+                        + " 0b [0c] 0d 0e 0f 10 11 12 13 14 ..."));
+            assertEquals(0, buffer.position());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void mismatchDescribedAsBufferWasWhenFailing() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+
+        try {
+            expect(buffer).to(startWith((byte) 0xca, (byte) 0xfe));
+        } catch (AssertionError expected) {
+            buffer.get();
+            buffer.put(0, (byte) 0xca);
+
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    ": differed at offset 0: [01] 02 03 04"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void regionRunningPastEnd() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2 });
+
+        try {
+            expect(buffer).to(startWith((byte) 1, (byte) 2, (byte) 3));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    ": had only 2 bytes remaining"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void regionEqualToAnotherBuffer() {
+        ByteBuffer other = ByteBuffer.wrap(new byte[] { 9, 2, 3 });
+        other.position(1);
+
+        expect(ByteBuffer.wrap(new byte[] { 1, 2, 3 }))
+            .to(haveRegionEqualTo(1, other));
+        assertEquals(1, other.position());
+    }
+
+    @Test public void crc32() {
+        ByteBuffer buffer = framed(CHECK);
+
+        expect(buffer).to(haveCrc32(2, CHECK.length, 0xcbf43926L));
+        assertEquals(0, buffer.position());
+        assertEquals(buffer.capacity(), buffer.limit());
+    }
+
+    @Test public void crc32c() {
+        ByteBuffer buffer = framed(CHECK);
+
+        expect(buffer).to(haveCrc32c(2, CHECK.length, 0xe3069283L));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test public void checksumMismatch() {
+        try {
+            expect(ByteBuffer.wrap(CHECK)).to(haveCrc32c(0, 9, 0));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    "did not satisfy [CRC32C 0x00000000 over bytes [0, 9)]"
+                        + ": CRC32C was 0xe3069283"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void checksumOfRegionPastEnd() {
+        expect(ByteBuffer.wrap(CHECK))
+            .to(Lambspec.not(haveCrc32(5, 5, 0xcbf43926L)));
+    }
+
+    @Test public void everyNthByte() {
+        ByteBuffer buffer =
+            ByteBuffer.wrap(new byte[] { 0, (byte) 0xaa, 1, (byte) 0xaa, 2 });
+
+        expect(buffer).to(haveEveryNthByte(1, 2, b -> b == 0xaa));
+        try {
+            expect(buffer).to(haveEveryNthByte(0, 2, b -> b == 0));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().contains(
+                    ": failed on byte 0x01 at offset 2: 00 aa [01] aa 02"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void slice() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 });
+        Predicate<ByteBuffer> startsAtZero = b -> b.position() == 0;
+
+        expect(buffer)
+            .to(haveSlice(1, 2, startsAtZero.and(b -> b.remaining() == 2)))
+            .to(haveSlice(2, 2, startWith((byte) 3, (byte) 4)))
+            .to(Lambspec.not(haveSlice(3, 2, startsAtZero)));
+    }
+
+    @Test public void eachByteOfBuffer() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, (byte) 0xf0 });
+
+        IntSubject.expectEachByteOf(buffer).to(b -> b > 0);
+        IntSubject.expectAtLeastOneByteOf(buffer).to(b -> b == 0xf0);
+        assertEquals(0, buffer.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeOffset() {
+        haveBytesAt(-1, (byte) 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveStride() {
+        haveEveryNthByte(0, 0, b -> true);
+    }
+
+    private static ByteBuffer framed(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(payload.length + 4);
+        buffer.put((byte) 0xca).put((byte) 0xfe).put(payload);
+        buffer.clear();
+        return buffer;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static org.junit.Assert.*;
+
+public class CachingPredicateTest {
+    private final AtomicInteger tests = new AtomicInteger();
+    private final Predicate<String> counted =
+        meet("counted", s -> tests.incrementAndGet() > 0 && s.length() > 1);
+
+    @Test public void answersRepeatedTestsFromCache() {
+        CachingPredicate<String> cached = cached(counted);
+
+        expect("foo").to(cached).to(cached).to(cached);
+
+        assertEquals(1, tests.get());
+        assertEquals(2, cached.hitCount());
+        assertEquals(1, cached.missCount());
+    }
+
+    @Test public void cachesNegativeAnswers() {
+        CachingPredicate<String> cached = cached(counted);
+
+        assertFalse(cached.test("f"));
+        assertFalse(cached.test("f"));
+
+        assertEquals(1, tests.get());
+    }
+
+    @Test public void cachesAnswersForNull() {
+        CachingPredicate<String> cached = cached(meet("null", s -> {
+            tests.incrementAndGet();
+            return s == null;
+        }));
+
+        assertTrue(cached.test(null));
+        assertTrue(cached.test(null));
+
+        assertEquals(1, tests.get());
+    }
+
+    @Test public void describesItselfAsItsDelegate() {
+        try {
+            expect("f").to(cached(counted));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[f] did not satisfy [counted]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void passesAlongMismatchDescriptionsOfItsDelegate() {
+        try {
+            expect("f").to(cached(satisfyAll(counted, alwaysTrue)));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(": failed [counted]"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void evictsLeastRecentlyUsedAnswers() {
+        CachingPredicate<String> cached = cached(counted).maximumSize(1);
+
+        cached.test("foo");
+        cached.test("bar");
+        cached.test("foo");
+
+        assertEquals(3, tests.get());
+        assertEquals(2, cached.evictionCount());
+        assertEquals(1, cached.size());
+    }
+
+    @Test public void holdsNoMoreThanMaximumSize() {
+        CachingPredicate<String> cached = cached(counted).maximumSize(100);
+
+        for (int i = 0; i < 1000; ++i)
+            cached.test("item" + i);
+
+        assertTrue(cached.size() <= 100);
+        assertEquals(1000 - cached.size(), cached.evictionCount());
+    }
+
+    @Test public void evictsByWeight() {
+        CachingPredicate<String> cached =
+            cached(counted).maximumWeight(10, String::length);
+
+        cached.test("12345678");
+        cached.test("abcdefgh");
+        cached.test("abcdefgh");
+
+        assertEquals(2, tests.get());
+        assertEquals(1, cached.size());
+    }
+
+    @Test public void identityKeys() {
+        CachingPredicate<String> cached = cached(counted).identityKeys();
+        String first = new String("foo");
+        String second = new String("foo");
+
+        cached.test(first);
+        cached.test(second);
+        cached.test(first);
+
+        assertEquals(2, tests.get());
+    }
+
+    @Test public void weakKeysAreDroppedOnceUnreachable() throws Exception {
+        CachingPredicate<Object> cached =
+            Lambspec.<Object> cached(o -> true).weakKeys();
+        Object target = new Object();
+        cached.test(target);
+        assertTrue(cached.test(target));
+        assertEquals(1, cached.hitCount());
+
+        target = null;
+        for (int i = 0; i < 50 && cached.size() > 0; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, cached.size());
+    }
+
+    @Test public void invalidation() {
+        CachingPredicate<String> cached = cached(counted);
+
+        cached.test("foo");
+        cached.invalidateAll();
+        cached.test("foo");
+
+        assertEquals(2, tests.get());
+    }
+
+    @Test public void concurrentTests() throws Exception {
+        CachingPredicate<Integer> cached =
+            Lambspec.<Integer> cached(i -> i % 2 == 0).maximumSize(64);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; ++t) {
+                results.add(threads.submit(() -> {
+                    for (int i = 0; i < 10_000; ++i)
+                        assertEquals(i % 2 == 0, cached.test(i % 100));
+                }));
+            }
+            for (Future<?> each : results)
+                each.get();
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(80_000, cached.hitCount() + cached.missCount());
+        assertTrue(cached.size() <= 64);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class CompositePredicateTest {
+    private final Predicate<String> startsWithF =
+        meet("starts with f", s -> s.startsWith("f"));
+    private final Predicate<String> endsWithX =
+        meet("ends with x", s -> s.endsWith("x"));
+    private final Predicate<String> fourLong =
+        meet("has length 4", s -> s.length() == 4);
+
+    @Test public void nestedConjunctionsAreFlattened() {
+        assertEquals(
+            "all of [starts with f, ends with x, has length 4]",
+            satisfyAll(startsWithF, satisfyAll(endsWithX, fourLong))
+                .toString());
+    }
+
+    @Test public void chainedConjunctionsAreFlattened() {
+        assertEquals(
+            "all of [starts with f, ends with x, has length 4]",
+            satisfyAll(startsWithF, endsWithX).and(fourLong).toString());
+    }
+
+    @Test public void mixedCompositesAreNotFlattened() {
+        assertEquals(
+            "any of [all of [starts with f, ends with x], has length 4]",
+            satisfyAny(satisfyAll(startsWithF, endsWithX), fourLong)
+                .toString());
+    }
+
+    @Test public void unmetConjunctionNamesDecisiveMember() {
+        try {
+            expect("foo").to(satisfyAll(startsWithF, endsWithX, fourLong));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[foo] did not satisfy"
+                    + " [all of [starts with f, ends with x, has length 4]]:"
+                    + " failed [ends with x]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void unmetDisjunctionNamesFailedMembers() {
+        try {
+            expect("bar").to(satisfyAny(startsWithF, endsWithX));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[bar] did not satisfy [any of [starts with f, ends with x]]:"
+                    + " failed [starts with f], [ends with x]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void unmetConjunctionOnSequenceNamesFailedMembers() {
+        try {
+            expectEachOf(asList("flax", "fox"))
+                .to(satisfyAll(endsWithX, fourLong));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[fox] from sequence [[flax, fox]] did not satisfy"
+                    + " [all of [ends with x, has length 4]]"
+                    + " (index 1 of 2 items): failed [has length 4]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void membersNotTestedAgainToRenderMessage() {
+        AtomicInteger tests = new AtomicInteger();
+        Predicate<String> flaky =
+            meet("flaky", s -> tests.incrementAndGet() > 1);
+
+        try {
+            expect("foo").to(satisfyAll(startsWithF, flaky));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(": failed [flaky]"));
+            assertEquals(1, tests.get());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void failureRecordClearedOnceDescribed() {
+        CompositePredicate<String> p =
+            (CompositePredicate<String>) satisfyAll(startsWithF, endsWithX);
+
+        try {
+            expect("foo").to(p);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(": failed [ends with x]"));
+            assertNull(p.recordedFailure("foo"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void manyMembers() {
+        @SuppressWarnings("unchecked")
+        Predicate<Integer>[] rest = new Predicate[49];
+        for (int i = 0; i < rest.length; ++i) {
+            int bound = i + 1;
+            rest[i] = n -> n > bound;
+        }
+
+        expect(100).to(satisfyAll(n -> n > 0, rest));
+        expect(100).to(satisfyAny(n -> n < 0, rest));
+    }
+
+    @Test public void adaptiveConjunctionTestsCheapDecisiveMembersFirst() {
+        AtomicInteger expensiveTests = new AtomicInteger();
+        Predicate<Integer> expensive = n -> {
+            expensiveTests.incrementAndGet();
+            double sum = 0;
+            for (int i = 0; i < 1000; ++i)
+                sum += Math.sqrt(n + i);
+            return sum > 0;
+        };
+        Predicate<Integer> cheapAndFalse = n -> n < 0;
+        CompositePredicate<Integer> conjunction =
+            satisfyAllAdaptively(expensive, cheapAndFalse);
+
+        for (int i = 0; i < 10_000; ++i)
+            assertFalse(conjunction.test(i));
+
+        assertTrue(expensiveTests.get() < 2_000);
+        List<CompositePredicate.Statistics> statistics =
+            conjunction.statistics();
+        assertEquals(2, statistics.size());
+        assertSame(expensive, statistics.get(0).member());
+        assertEquals(1.0, statistics.get(0).passRate(), 0.0);
+        assertEquals(0.0, statistics.get(1).passRate(), 0.0);
+        assertEquals(10_000, statistics.get(1).evaluations());
+    }
+
+    @Test public void adaptiveDisjunctionTestsCheapDecisiveMembersFirst() {
+        AtomicInteger expensiveTests = new AtomicInteger();
+        Predicate<Integer> expensive = n -> {
+            expensiveTests.incrementAndGet();
+            double sum = 0;
+            for (int i = 0; i < 1000; ++i)
+                sum += Math.sqrt(n + i);
+            return sum < 0;
+        };
+        CompositePredicate<Integer> disjunction =
+            satisfyAnyAdaptively(expensive, n -> n >= 0);
+
+        for (int i = 0; i < 10_000; ++i)
+            assertTrue(disjunction.test(i));
+
+        assertTrue(expensiveTests.get() < 2_000);
+    }
+
+    @Test public void adaptiveCompositeKeepsItsDescription() {
+        assertEquals(
+            "all of [starts with f, ends with x]",
+            satisfyAllAdaptively(startsWithF, endsWithX).toString());
+    }
+
+    @Test public void nonAdaptiveCompositeGathersNoStatistics() {
+        CompositePredicate<String> p =
+            (CompositePredicate<String>) satisfyAll(startsWithF, endsWithX);
+
+        assertEquals(0, p.statistics().size());
+    }
+}
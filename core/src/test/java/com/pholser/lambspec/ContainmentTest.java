@@ -0,0 +1,177 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class ContainmentTest {
+    @Test public void haveInAList() {
+        expect(asList("a", "b", "c"))
+            .to(have("b"))
+            .to(Lambspec.not(have("d")));
+    }
+
+    @Test public void haveInAPlainIterable() {
+        Iterable<String> items = () -> asList("a", "b").iterator();
+
+        expect(items).to(have("a")).to(Lambspec.not(have("c")));
+    }
+
+    @Test public void haveUsesTheSetsOwnMembership() {
+        TreeSet<String> items = new TreeSet<>(CASE_INSENSITIVE_ORDER);
+        items.addAll(asList("a", "b"));
+
+        expect(items).to(have("B"));
+    }
+
+    @Test public void haveNullInACollectionThatRejectsNull() {
+        expect(new TreeSet<>(asList("a", "b")))
+            .to(Lambspec.not(have(null)));
+    }
+
+    @Test public void haveInAMapKeySet() {
+        Map<String, Integer> map = new HashMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+
+        expect(map.keySet()).to(have("b")).to(haveAll("a", "b"));
+    }
+
+    @Test public void haveAllItems() {
+        expect(asList("a", "b", "c", "d"))
+            .to(haveAll("d", "a", "b"))
+            .to(Lambspec.not(haveAll("a", "e")));
+    }
+
+    @Test public void haveAllOfNothing() {
+        expect(asList("a")).to(haveAll());
+    }
+
+    @Test public void haveAllWithRepeatedItems() {
+        expect(new ArrayDeque<>(asList("a", "b")))
+            .to(haveAll("a", "a", "b"));
+    }
+
+    @Test public void haveNoneOfItems() {
+        expect(asList("a", "b", "c"))
+            .to(haveNoneOf("d", "e"))
+            .to(Lambspec.not(haveNoneOf("e", "c")));
+    }
+
+    @Test public void haveNoneOfInASet() {
+        expect(new TreeSet<>(asList("a", "b")))
+            .to(haveNoneOf("c", null))
+            .to(Lambspec.not(haveNoneOf("c", "b")));
+    }
+
+    @Test public void describesHave() {
+        assertEquals("an item satisfying [equal to b]", have("b").toString());
+    }
+
+    @Test public void describesMissingItems() {
+        try {
+            expect(asList("a", "b", "c"))
+                .to(haveAll("a", "x", "b", "y"));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[a, b, c]] did not satisfy [all of the items [a, x, b, y]]"
+                    + ": lacked x, y",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void describesItemsPresent() {
+        try {
+            expect(asList("a", "b", "c")).to(haveNoneOf("x", "c"));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[a, b, c]] did not satisfy [none of the items [x, c]]"
+                    + ": had c",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void describesMissingItemsWithoutTraversingAgain() {
+        AtomicInteger passes = new AtomicInteger();
+        Iterable<String> items = () -> {
+            passes.incrementAndGet();
+            return asList("a", "b", "c").iterator();
+        };
+        Containment<String> p = Containment.allOf(new Object[] {
+            "a", "x", "b", "y", "z"
+        });
+
+        assertFalse(p.test(items));
+        assertEquals("lacked x, y, z", p.describeMismatch(items));
+        assertEquals(1, passes.get());
+    }
+
+    @Test public void describesMismatchesOfOneShotSequences() {
+        AtomicBoolean traversed = new AtomicBoolean();
+        Iterable<String> oneShot = () -> {
+            if (traversed.getAndSet(true))
+                throw new IllegalStateException("already traversed");
+            return asList("a", "b", "c").iterator();
+        };
+
+        try {
+            expect(oneShot).to(haveNoneOf("x", "b"));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    " did not satisfy [none of the items [x, b]]: had b"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void boundsDescriptionOfManyItems() {
+        assertEquals(
+            "none of the items [0, 1, 2, 3, 4, 5, 6, 7, ... (10 in all)]",
+            haveNoneOf(0, 1, 2, 3, 4, 5, 6, 7, 8, 9).toString());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class DeepEqualityTest {
+    static class Node {
+        final String name;
+        final List<Node> children = new ArrayList<>();
+        final int[] weights;
+        Node parent;
+
+        Node(String name, int... weights) {
+            this.name = name;
+            this.weights = weights;
+        }
+
+        Node add(Node child) {
+            children.add(child);
+            child.parent = this;
+            return this;
+        }
+    }
+
+    @Test public void equalGraphsWithoutEquals() {
+        expect(tree(3, 4, 0)).to(beDeeplyEqualTo(tree(3, 4, 0)));
+    }
+
+    @Test public void differenceReportedWithPath() {
+        Node actual = tree(2, 3, 0);
+        actual.children.get(1).children.get(0).weights[1] = -1;
+
+        try {
+            expect(actual).to(beDeeplyEqualTo(tree(2, 3, 0)));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    ": differed at <root>.children[1].children[0].weights[1]:"
+                        + " expected [1] but was [-1]"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void sizeDifference() {
+        Node actual = tree(2, 2, 0);
+        actual.add(new Node("extra"));
+
+        try {
+            expect(actual).to(beDeeplyEqualTo(tree(2, 2, 0)));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    ": differed at <root>.children:"
+                        + " expected size 2 but was 3"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void maps() {
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("a", asList(1, 2));
+        expected.put("b", new Node("x", 1));
+        Map<String, Object> actual = new LinkedHashMap<>();
+        actual.put("a", asList(1, 2));
+        actual.put("b", new Node("y", 1));
+
+        expect(actual).to(Lambspec.not(beDeeplyEqualTo(expected)));
+        assertEquals(
+            "differed at <root>[b].name: expected [x] but was [y]",
+            DeepEquality.to(expected).describeMismatch(actual));
+
+        actual.put("b", new Node("x", 1));
+        expect(actual).to(beDeeplyEqualTo(expected));
+    }
+
+    @Test public void typeDifference() {
+        assertEquals(
+            "differed at <root>[0]: expected [1] but was [1]",
+            DeepEquality.to(asList(1)).describeMismatch(asList(1L)));
+    }
+
+    @Test public void deepChainsDoNotOverflowTheStack() {
+        expect(chain(200_000)).to(beDeeplyEqualTo(chain(200_000)));
+    }
+
+    @Test public void inParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Node expected = tree(6, 5, 0);
+            Node actual = tree(6, 5, 0);
+            expect(actual).to(beDeeplyEqualTo(expected, pool));
+
+            Node leaf = actual.children.get(4).children.get(2).children.get(1);
+            leaf.weights[0] = 7;
+            try {
+                expect(actual).to(beDeeplyEqualTo(expected, pool));
+            } catch (AssertionError failure) {
+                assertTrue(
+                    failure.getMessage(),
+                    failure.getMessage().endsWith(
+                        ": differed at <root>.children[4].children[2]"
+                            + ".children[1].weights[0]:"
+                            + " expected [0] but was [7]"));
+                return;
+            }
+
+            fail();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Node tree(int depth, int fanOut, int index) {
+        Node node = new Node("n" + depth + '.' + index, 0, 1, 2);
+        if (depth > 0) {
+            for (int i = 0; i < fanOut; ++i)
+                node.add(tree(depth - 1, fanOut, i));
+        }
+        return node;
+    }
+
+    private static Node chain(int length) {
+        Node head = new Node("head");
+        Node current = head;
+        for (int i = 0; i < length; ++i) {
+            Node next = new Node("n" + i);
+            current.add(next);
+            current = next;
+        }
+        return head;
+    }
+}
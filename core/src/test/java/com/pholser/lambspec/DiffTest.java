@@ -0,0 +1,206 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class DiffTest {
+    private static final Pattern EDITS =
+        Pattern.compile("differed by (\\d+) edits?");
+
+    @Test public void listFailureShowsDiff() {
+        try {
+            expect(asList("a", "b", "c", "d")).to(be(asList("a", "x", "c")));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[a, b, c, d]] did not satisfy [equal to [a, x, c]]:"
+                    + " differed by 3 edits (- expected, + actual):\n"
+                    + "  [0] a\n"
+                    + "- [1] x\n"
+                    + "+ [1] b\n"
+                    + "  [2] c\n"
+                    + "+ [3] d",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void subjectAbbreviatedLikeExpectedValue() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; ++i)
+            text.append('a');
+        String expected = text.toString();
+        String actual = expected + 'b';
+
+        try {
+            expect(actual).to(be(expected));
+        } catch (AssertionError failure) {
+            String abbreviated =
+                expected.substring(0, Equality.MAXIMUM_DESCRIPTION_LENGTH);
+            assertTrue(
+                failure.getMessage(),
+                failure.getMessage().startsWith(
+                    "[" + abbreviated + "... (1001 chars)] did not satisfy"
+                        + " [equal to " + abbreviated + "... (1000 chars)]:"
+                        + " differed by 1 edit"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void longUnchangedRunsCollapsed() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100_000; ++i)
+            expected.add(i);
+        List<Integer> actual = new ArrayList<>(expected);
+        actual.set(50_000, -1);
+
+        assertEquals(
+            "differed by 2 edits (- expected, + actual):\n"
+                + "  ... 49998 unchanged\n"
+                + "  [49998] 49998\n"
+                + "  [49999] 49999\n"
+                + "- [50000] 50000\n"
+                + "+ [50000] -1\n"
+                + "  [50001] 50001\n"
+                + "  [50002] 50002\n"
+                + "  ... 49997 unchanged",
+            Diff.between(expected, actual));
+    }
+
+    @Test public void charactersOfOneLine() {
+        assertEquals(
+            "differed by 2 edits (- expected, + actual):\n"
+                + "  at 4: quic[-k-]{+K+} brown fox",
+            Diff.between("quick brown fox", "quicK brown fox"));
+    }
+
+    @Test public void linesOfText() {
+        assertEquals(
+            "differed by 1 edit (- expected, + actual):\n"
+                + "  [0] one\n"
+                + "+ [1] one and a half\n"
+                + "  [1] two",
+            Diff.between("one\ntwo", "one\none and a half\ntwo"));
+    }
+
+    @Test public void primitiveArrays() {
+        assertEquals(
+            "differed by 1 edit (- expected, + actual):\n"
+                + "  [0] 1\n"
+                + "- [1] 2",
+            Diff.between(new int[] { 1, 2 }, new int[] { 1 }));
+    }
+
+    @Test public void notSequencesOfTheSameKind() {
+        assertNull(Diff.between(asList(1), new int[] { 1 }));
+        assertNull(Diff.between("a", 1));
+        assertNull(Diff.between(null, "a"));
+    }
+
+    @Test public void outputCapped() {
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> actual = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            expected.add(i);
+            actual.add(i % 3 == 0 ? -i : i);
+        }
+
+        String diff = Diff.between(expected, actual);
+
+        assertEquals(Diff.MAXIMUM_LINES + 2, diff.split("\n").length);
+        assertTrue(diff, diff.endsWith("\n  ..."));
+    }
+
+    @Test public void tooManyEdits() {
+        StringBuilder expected = new StringBuilder();
+        StringBuilder actual = new StringBuilder();
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; ++i) {
+            expected.append((char) ('a' + random.nextInt(4)));
+            actual.append((char) ('a' + random.nextInt(4)));
+        }
+        expected.setCharAt(0, 'x');
+
+        assertEquals(
+            "differed by more than 1000 edits, first at offset 0",
+            Diff.between(expected.toString(), actual.toString()));
+    }
+
+    @Test public void shortestEditScripts() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 2000; ++trial) {
+            String a = randomString(random);
+            String b = randomString(random);
+            String diff = Diff.between(a, b);
+
+            int shortest = a.length() + b.length() - 2 * lcs(a, b);
+            if (shortest == 0) {
+                assertNull(diff);
+            } else {
+                Matcher m = EDITS.matcher(diff);
+                assertTrue(diff, m.find());
+                assertEquals(
+                    a + " -> " + b,
+                    shortest,
+                    Integer.parseInt(m.group(1)));
+            }
+        }
+    }
+
+    private static String randomString(Random random) {
+        char[] chars = new char[random.nextInt(12)];
+        for (int i = 0; i < chars.length; ++i)
+            chars[i] = (char) ('a' + random.nextInt(3));
+        return new String(chars);
+    }
+
+    private static int lcs(String a, String b) {
+        int[][] lengths = new int[a.length() + 1][b.length() + 1];
+        for (int i = 1; i <= a.length(); ++i) {
+            for (int j = 1; j <= b.length(); ++j) {
+                lengths[i][j] = a.charAt(i - 1) == b.charAt(j - 1)
+                    ? lengths[i - 1][j - 1] + 1
+                    : Math.max(lengths[i - 1][j], lengths[i][j - 1]);
+            }
+        }
+        return lengths[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.EventualSubject.*;
+import static com.pholser.lambspec.Lambspec.*;
+import static org.junit.Assert.*;
+
+public class EventualSubjectTest {
+    @Test public void metImmediately() {
+        AtomicInteger calls = new AtomicInteger();
+
+        expectEventually(calls::incrementAndGet).to(be(1));
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test public void metEventually() {
+        AtomicInteger counter = new AtomicInteger();
+
+        expectEventually(counter::incrementAndGet)
+            .pollingEvery(Duration.ofMillis(1))
+            .to(meet("at least 5", (Integer i) -> i >= 5));
+
+        assertEquals(5, counter.get());
+    }
+
+    @Test public void returnsAsSoonAsMet() {
+        long start = System.nanoTime();
+        long readyAt = start + Duration.ofMillis(50).toNanos();
+
+        expectEventually(() -> System.nanoTime() >= readyAt)
+            .within(Duration.ofSeconds(10))
+            .to(be(true));
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test public void reportsLastValueObserved() {
+        AtomicInteger counter = new AtomicInteger();
+
+        try {
+            expectEventually(counter::incrementAndGet)
+                .within(Duration.ofMillis(50))
+                .pollingEvery(Duration.ofMillis(5))
+                .to(meet("negative", (Integer i) -> i < 0));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().matches(
+                    "\\[[1-9]\\d*\\] did not satisfy \\[negative\\]"
+                        + " within PT0.05S \\([1-9]\\d* attempts\\)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void reportsOnlyValuesWhoseVerdictIsIn() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch evaluating = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+
+        try {
+            expectEventually(
+                () -> calls.incrementAndGet() == 1 ? "bad" : "good")
+                .within(Duration.ofMillis(500))
+                .pollingEvery(Duration.ofMillis(1))
+                .to(meet("good", (String s) -> {
+                    if (!"good".equals(s))
+                        return false;
+                    evaluating.countDown();
+                    awaitUninterruptibly(released);
+                    return true;
+                }));
+        } catch (AssertionError expected) {
+            assertEquals(0, evaluating.getCount());
+            assertEquals(
+                "[bad] did not satisfy [good] within PT0.5S (1 attempts)",
+                expected.getMessage());
+            return;
+        } finally {
+            released.countDown();
+        }
+
+        fail();
+    }
+
+    @Test public void reportsLastFailureToSupply() {
+        try {
+            expectEventually(() -> {
+                throw new IllegalStateException("not yet");
+            })
+                .within(Duration.ofMillis(20))
+                .to(alwaysTrue);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    "last attempt threw"
+                        + " [java.lang.IllegalStateException: not yet])"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void backsOff() {
+        AtomicInteger counter = new AtomicInteger();
+
+        try {
+            expectEventually(counter::incrementAndGet)
+                .within(Duration.ofMillis(200))
+                .backingOff(Duration.ofMillis(1), 2, Duration.ofSeconds(1))
+                .to(alwaysFalse);
+        } catch (AssertionError expected) {
+            assertTrue(String.valueOf(counter), counter.get() <= 10);
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void futureCompletingLater() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        new Thread(() -> future.complete("done")).start();
+
+        expect(future).to(be("done"));
+    }
+
+    @Test public void futureResultUnmet() {
+        try {
+            expect(CompletableFuture.completedFuture(2))
+                .to(meet("odd", (Integer i) -> i % 2 == 1));
+        } catch (AssertionError expected) {
+            assertEquals("[2] did not satisfy [odd]", expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void futureNeverCompleting() {
+        try {
+            expect(new CompletableFuture<String>())
+                .within(Duration.ofMillis(10))
+                .to(alwaysTrue);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().contains("did not complete within"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void futureCompletingExceptionally() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(new IllegalStateException("oops"));
+
+        try {
+            expect(future).to(alwaysTrue);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().contains(
+                    "completed exceptionally with"
+                        + " [java.lang.IllegalStateException: oops]"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTimeout() {
+        expectEventually(() -> 1).within(Duration.ofSeconds(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void backoffFactorBelowOne() {
+        expectEventually(() -> 1)
+            .backingOff(Duration.ofMillis(1), 0.5, Duration.ofSeconds(1));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // keep waiting
+            }
+        }
+    }
+}
@@ -25,7 +25,11 @@
 
 package com.pholser.lambspec;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 import com.google.common.base.Strings;
@@ -114,6 +118,109 @@ public class ExpectationsTest {
         fail();
     }
 
+    @Test public void unmetExpectationOnLargeSequenceShowsOnlyNeighborsOfOffender() {
+        try {
+            expectEachOf(range(1_000_000))
+                .to(meet("not 500000", i -> i != 500_000));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[500000] from sequence [[..., 499997, 499998, 499999, 500000,"
+                    + " 500001, 500002, 500003, ...]] did not satisfy"
+                    + " [not 500000] (index 500000 of 1000000 items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void unmetExpectationOnOneShotSequenceDoesNotIterateItAgain() {
+        Iterable<Integer> oneShot = oneShot(range(100));
+
+        try {
+            expectEachOf(oneShot).to(meet("less than 2", i -> i < 2));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[2] from sequence [[0, 1, 2, 3, 4, 5, ...]] did not satisfy"
+                    + " [less than 2] (index 2 of 7+ items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void noItemsOfLargeSequenceSatisfyingPredicate() {
+        try {
+            expectAtLeastOneOf(oneShot(range(1000)))
+                .to(meet("negative", i -> i < 0));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "No item from sequence [[0, 1, 2, 3, 4, 5, 6, ...]] satisfied"
+                    + " [negative] (1000 items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void smallCollectionSubjectsRenderedAsTheyWereWhenFailing() {
+        List<Integer> items = new ArrayList<>(asList(1, 2));
+
+        try {
+            expect(items).to(List::isEmpty);
+        } catch (AssertionError expected) {
+            items.add(3);
+            assertThat(
+                expected.getMessage(),
+                startsWith("[[1, 2]] did not satisfy"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void mismatchesDescribedAsTheyWereWhenFailing() {
+        List<String> items = new ArrayList<>(asList("x"));
+
+        try {
+            expect(items).to(haveAll("a", "b"));
+        } catch (AssertionError expected) {
+            items.clear();
+            assertEquals(
+                "[[x]] did not satisfy [all of the items [a, b]]:"
+                    + " lacked a, b",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void failureMessageIsRenderedOnlyWhenAskedFor() {
+        AtomicInteger renderings = new AtomicInteger();
+        Object item = new Object() {
+            @Override public String toString() {
+                renderings.incrementAndGet();
+                return "item";
+            }
+        };
+
+        try {
+            expectEachOf(asList(item)).to(alwaysFalse);
+        } catch (AssertionError expected) {
+            assertEquals(0, renderings.get());
+            assertThat(
+                expected.getMessage(),
+                startsWith("[item] from sequence [[item]]"));
+            assertEquals(2, renderings.get());
+            return;
+        }
+
+        fail();
+    }
+
     @Test public void atLeastOneItemInSubjectSatisfyingAllPredicates() {
         expectAtLeastOneOf(asList("a", "b", "c")).to(be("b"));
     }
@@ -212,6 +319,31 @@ public class ExpectationsTest {
         fail();
     }
 
+    private static List<Integer> range(int size) {
+        List<Integer> items = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i)
+            items.add(i);
+        return items;
+    }
+
+    private static <T> Iterable<T> oneShot(Iterable<T> items) {
+        AtomicInteger iterations = new AtomicInteger();
+        return () -> {
+            if (iterations.incrementAndGet() > 1)
+                throw new IllegalStateException("already iterated");
+            Iterator<T> i = items.iterator();
+            return new Iterator<T>() {
+                @Override public boolean hasNext() {
+                    return i.hasNext();
+                }
+
+                @Override public T next() {
+                    return i.next();
+                }
+            };
+        };
+    }
+
     static class StartsWith implements Predicate<String> {
         private final String prefix;
 
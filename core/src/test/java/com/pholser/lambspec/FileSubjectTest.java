@@ -0,0 +1,228 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.FileSubject.*;
+import static java.nio.charset.StandardCharsets.*;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class FileSubjectTest {
+    @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Predicate<String> numeric =
+        meet("numeric", s -> s.matches("\\d+"));
+
+    @Test public void eachLineMeetsExpectation() throws Exception {
+        Path file = write("1\n22\r\n333\n");
+
+        expectEachLineOf(file).to(numeric);
+    }
+
+    @Test public void seesEveryLineOnce() throws Exception {
+        Path file = write("a\n\nb\r\nc");
+        List<String> seen = new CopyOnWriteArrayList<>();
+
+        expectEachLineOf(file).to(s -> seen.add(s));
+
+        assertEquals(asList("a", "", "b", "c"), seen);
+    }
+
+    @Test public void emptyFile() throws Exception {
+        Path file = write("");
+
+        expectEachLineOf(file).to(meet("never", s -> false));
+        try {
+            expectAtLeastOneLineOf(file).to(numeric);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith("(0 lines)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void reportsOffsetAndLineNumberOfOffendingLine()
+        throws Exception {
+
+        Path file = write("1\n22\nxyz\n4\nabc\n");
+
+        try {
+            expectEachLineOf(file).to(numeric);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[xyz] from file [" + file + "] did not satisfy [numeric]"
+                    + " (line 3 at byte offset 5)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void lineNumberSurvivesChangesToTheFile() throws Exception {
+        Path file = write("1\n22\nxyz\n");
+
+        try {
+            expectEachLineOf(file).to(numeric);
+        } catch (AssertionError expected) {
+            Files.delete(file);
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(" (line 3 at byte offset 5)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void atLeastOneLine() throws Exception {
+        Path file = write("a\nb\n7\n");
+
+        expectAtLeastOneLineOf(file).to(numeric);
+        try {
+            expectAtLeastOneLineOf(file).to(meet("empty", String::isEmpty));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "No line from file [" + file + "] satisfied [empty] (3 lines)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void parallelTestingReportsFirstOffendingLine()
+        throws Exception {
+
+        Path file = bigFile(200_000, 150_000, 180_000);
+
+        try {
+            expectEachLineOf(file).inParallel().to(numeric);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith("[x150000] from file")
+                    && expected.getMessage().contains("(line 150001 at"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void parallelTestingOfAtLeastOneLine() throws Exception {
+        Path file = bigFile(200_000, 199_999);
+
+        expectAtLeastOneLineOf(file)
+            .inParallel()
+            .to(meet("bad", s -> s.startsWith("x")));
+    }
+
+    @Test public void parallelTestingMeetsExpectations() throws Exception {
+        Path file = bigFile(200_000);
+
+        expectEachLineOf(file).inParallel().to(numeric);
+    }
+
+    @Test public void delimitedRecords() throws Exception {
+        Path file = write("ab;cd;;ef");
+        List<String> seen = new CopyOnWriteArrayList<>();
+
+        expectEachRecordOf(file, RecordFormat.delimitedBy((byte) ';', UTF_8))
+            .to(s -> seen.add(s));
+
+        assertEquals(asList("ab", "cd", "", "ef"), seen);
+    }
+
+    @Test public void fixedWidthRecords() throws Exception {
+        Path file = write("0001000200x30004");
+
+        try {
+            expectEachRecordOf(file, RecordFormat.fixedWidth(4, UTF_8))
+                .to(numeric);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[00x3] from file [" + file + "] did not satisfy [numeric]"
+                    + " (record 3 at byte offset 8)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void decodesMultibyteCharacters() throws Exception {
+        Path file = write("héllo\nüber\n");
+
+        expectAtLeastOneLineOf(file).to(meet("über", "über"::equals));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLinesInCharsetWithWideNewlines() {
+        RecordFormat.lines(UTF_16);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void missingFile() {
+        expectEachLineOf(folder.getRoot().toPath().resolve("missing"))
+            .to(numeric);
+    }
+
+    private Path write(String contents) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, contents.getBytes(UTF_8));
+        return file;
+    }
+
+    private Path bigFile(int lines, int... bad) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (Writer out = Files.newBufferedWriter(file, UTF_8)) {
+            for (int i = 0; i < lines; ++i) {
+                boolean offending = false;
+                for (int each : bad)
+                    offending |= each == i;
+                out.write((offending ? "x" : "") + i + '\n');
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.ForAllSubject.*;
+import static com.pholser.lambspec.Generator.*;
+import static org.junit.Assert.*;
+
+public class ForAllSubjectTest {
+    @Test public void propertyHolding() {
+        AtomicInteger tried = new AtomicInteger();
+
+        forAll(ints(-100, 100))
+            .trials(500)
+            .to(meet("small", i -> tried.incrementAndGet() > 0 && i <= 100));
+
+        assertEquals(500, tried.get());
+    }
+
+    @Test public void counterexampleShrunk() {
+        try {
+            forAll(ints(0, 1_000_000))
+                .seed(42)
+                .to(meet("less than 1000", i -> i < 1000));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().matches(
+                    "\\[1000\\] did not satisfy \\[less than 1000\\]"
+                        + " \\(trial \\d+ of 1000, seed 42; shrunk \\d+ times?"
+                        + " from \\[\\d+\\]\\)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void negativeCounterexampleShrunkTowardZero() {
+        try {
+            forAll(ints(-1_000_000, 1_000_000))
+                .seed(7)
+                .to(meet("greater than -50", i -> i > -50));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith(
+                    "[-50] did not satisfy [greater than -50]"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void listCounterexampleShrunk() {
+        try {
+            forAll(lists(ints(0, 100), 20))
+                .seed(3)
+                .to(meet("no item above 50", (List<Integer> l) ->
+                    l.stream().allMatch(i -> i <= 50)));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith(
+                    "[[51]] did not satisfy [no item above 50]"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void reproducibleFromSeed() {
+        assertEquals(
+            failureOf(forAll(ints(0, 1_000_000)).seed(11)),
+            failureOf(forAll(ints(0, 1_000_000)).seed(11)));
+    }
+
+    @Test public void parallelAgreesWithSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long seed = 0; seed < 20; ++seed) {
+                assertEquals(
+                    failureOf(forAll(ints(0, 1_000_000)).seed(seed)),
+                    failureOf(
+                        forAll(ints(0, 1_000_000))
+                            .seed(seed)
+                            .inParallel(pool)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test public void stoppingAtFirstCounterexample() {
+        AtomicInteger tried = new AtomicInteger();
+
+        try {
+            forAll(ints(0, 10))
+                .trials(10_000)
+                .to(meet("never", i -> tried.incrementAndGet() < 0));
+        } catch (AssertionError expected) {
+            assertTrue(expected.getMessage().contains("(trial 1 of 10000,"));
+            assertTrue(String.valueOf(tried.get()), tried.get() < 100);
+            return;
+        }
+
+        fail();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTrials() {
+        forAll(ints(0, 1)).trials(-1);
+    }
+
+    private static String failureOf(ForAllSubject<Integer> subject) {
+        try {
+            subject.to(meet("divisible by 7", i -> i % 7 == 0));
+        } catch (AssertionError expected) {
+            return expected.getMessage();
+        }
+
+        throw new AssertionError("no counterexample");
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.Lambspec.*;
+import static org.junit.Assert.*;
+
+public class GuardTest {
+    private final List<AssertionError> reported = new CopyOnWriteArrayList<>();
+
+    @Test public void enabledByDefault() {
+        assertTrue(Guard.ENABLED);
+    }
+
+    @Test public void quietWhenInvariantHolds() {
+        Guard<Integer> guard = Guard.that(be(1)).reportingTo(reported::add);
+
+        guard.check(1);
+
+        assertEquals(0, guard.violationCount());
+        assertTrue(reported.isEmpty());
+    }
+
+    @Test public void reportsViolationsInsteadOfThrowing() {
+        Guard<Integer> guard =
+            Guard.<Integer> that(meet("positive", i -> i > 0))
+                .reportingTo(reported::add);
+
+        guard.check(-1);
+
+        assertEquals(1, guard.violationCount());
+        assertEquals(
+            "[-1] did not satisfy [positive]",
+            reported.get(0).getMessage());
+    }
+
+    @Test public void reportsMismatchDescriptions() {
+        Guard<String> guard = Guard.that(satisfyAll(
+            meet("short", (String s) -> s.length() < 3),
+            meet("lower", (String s) -> s.equals(s.toLowerCase()))))
+            .reportingTo(reported::add);
+
+        guard.check("ABCD");
+
+        assertTrue(
+            reported.get(0).getMessage(),
+            reported.get(0).getMessage().endsWith(": failed [short]"));
+    }
+
+    @Test public void limitsReports() {
+        Guard<Object> guard = Guard.that(alwaysFalse)
+            .reportingTo(reported::add)
+            .atMost(2, Duration.ofHours(1));
+
+        for (int i = 0; i < 10; ++i)
+            guard.check(i);
+
+        assertEquals(2, reported.size());
+        assertEquals(10, guard.violationCount());
+        assertEquals(8, guard.suppressedCount());
+    }
+
+    @Test public void reportsAgainInNextPeriod() throws Exception {
+        Guard<Object> guard = Guard.that(alwaysFalse)
+            .reportingTo(reported::add)
+            .atMost(1, Duration.ofMillis(20));
+
+        guard.check(1);
+        guard.check(2);
+        Thread.sleep(40);
+        guard.check(3);
+
+        assertEquals(2, reported.size());
+        assertTrue(
+            reported.get(1).getMessage(),
+            reported.get(1).getMessage()
+                .endsWith(" (1 other violations not reported)"));
+    }
+
+    @Test public void countsOnlyViolationsSuppressedSinceLastReport()
+        throws Exception {
+
+        Guard<Object> guard = Guard.that(alwaysFalse)
+            .reportingTo(reported::add)
+            .atMost(1, Duration.ofMillis(20));
+
+        for (int period = 0; period < 3; ++period) {
+            for (int i = 0; i < 3; ++i)
+                guard.check(i);
+            Thread.sleep(40);
+        }
+
+        assertEquals(3, reported.size());
+        assertTrue(
+            reported.get(2).getMessage(),
+            reported.get(2).getMessage()
+                .endsWith(" (2 other violations not reported)"));
+        assertEquals(6, guard.suppressedCount());
+    }
+
+    @Test public void samplesTargets() {
+        AtomicInteger checks = new AtomicInteger();
+        Guard<Object> guard =
+            Guard.that(o -> checks.incrementAndGet() > 0).sampling(10);
+
+        for (int i = 0; i < 10_000; ++i)
+            guard.check(i);
+
+        assertTrue(String.valueOf(checks), checks.get() > 500);
+        assertTrue(String.valueOf(checks), checks.get() < 1500);
+    }
+
+    @Test public void describesItselfAsItsInvariant() {
+        assertEquals(
+            "positive",
+            Guard.<Integer> that(meet("positive", i -> i > 0)).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveSamplingRate() {
+        Guard.that(alwaysTrue).sampling(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositivePeriod() {
+        Guard.that(alwaysTrue).atMost(1, Duration.ZERO);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class InstrumentationTest {
+    private final Predicate<Integer> positive = meet("positive", i -> i > 0);
+
+    @Before public void enable() {
+        Instrumentation.reset();
+        Instrumentation.enable();
+    }
+
+    @After public void disable() {
+        Instrumentation.disable();
+        Instrumentation.reset();
+    }
+
+    @Test public void countsEvaluationsAndFailures() {
+        expect(1).to(positive).to(positive);
+        try {
+            expect(-1).to(positive);
+        } catch (AssertionError expected) {
+            PredicateMetrics metrics = Instrumentation.metricsFor(positive);
+            assertEquals("positive", metrics.description());
+            assertEquals(3, metrics.evaluations());
+            assertEquals(1, metrics.failures());
+            assertEquals(3, sum(metrics.histogram()));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void sharesMetricsAmongPredicatesDescribedAlike() {
+        expect(1).to(meet("odd", i -> i % 2 == 1));
+        expect(3).to(meet("odd", i -> i % 2 == 1));
+
+        assertEquals(
+            2,
+            Instrumentation.metricsFor(meet("odd", i -> true)).evaluations());
+    }
+
+    @Test public void keysLambdasByClass() {
+        for (int i = 0; i < 3; ++i)
+            expect(i).to(n -> n >= 0);
+
+        List<PredicateMetrics> all = Instrumentation.metrics();
+        assertEquals(1, all.size());
+        assertEquals(3, all.get(0).evaluations());
+        assertTrue(
+            all.get(0).description(),
+            all.get(0).description()
+                .startsWith(InstrumentationTest.class.getName() + "$$Lambda"));
+    }
+
+    @Test public void keysStablyDescribedPredicatesByDescription() {
+        expect(1).to(Lambspec.be(1));
+        expect(1).to(Lambspec.be(1));
+        expect(2).to(Lambspec.be(2));
+
+        PredicateMetrics metrics =
+            Instrumentation.metricsFor(Lambspec.be(1));
+        assertEquals(Lambspec.be(1).toString(), metrics.description());
+        assertEquals(2, metrics.evaluations());
+        assertEquals(
+            1,
+            Instrumentation.metricsFor(Lambspec.be(2)).evaluations());
+    }
+
+    @Test public void keysCompositesByDescription() {
+        expect(3).to(Lambspec.satisfyAll(positive, Lambspec.be(3)));
+        expect(3).to(Lambspec.satisfyAll(positive, Lambspec.be(3)));
+
+        assertEquals(
+            2,
+            Instrumentation.metricsFor(
+                Lambspec.satisfyAll(positive, Lambspec.be(3)))
+                .evaluations());
+    }
+
+    @Test public void listenersCannotMaskFailures() {
+        EvaluationListener listener = (description, nanos, failed) -> {
+            throw new IllegalStateException();
+        };
+        Instrumentation.addListener(listener);
+        try {
+            expect(-1).to(positive);
+        } catch (AssertionError expected) {
+            assertEquals(1, Instrumentation.metricsFor(positive).failures());
+            return;
+        } finally {
+            Instrumentation.removeListener(listener);
+        }
+
+        fail();
+    }
+
+    @Test public void countsSoftFailures() {
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            expect(-1).to(positive);
+            expect(1).to(positive);
+        } catch (AssertionError expected) {
+            assertEquals(1, Instrumentation.metricsFor(positive).failures());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void measuresPrimitiveSubjectsAndGuards() {
+        IntPredicate small = DescriptiveIntPredicate.meet("small", i -> i < 3);
+        IntSubject.expectEachOf(new int[] { 1, 2 }).to(small);
+        Guard.that(positive).reportingTo(v -> { }).check(-1);
+
+        assertEquals(1, Instrumentation.metricsFor(small).evaluations());
+        assertEquals(1, Instrumentation.metricsFor(positive).failures());
+    }
+
+    @Test public void notifiesListeners() {
+        List<String> heard = new ArrayList<>();
+        EvaluationListener listener =
+            (description, nanos, failed) -> heard.add(description + failed);
+        Instrumentation.addListener(listener);
+        try {
+            expectEachOf(asList(1, 2)).to(positive);
+        } finally {
+            Instrumentation.removeListener(listener);
+        }
+
+        assertEquals(asList("positivefalse"), heard);
+    }
+
+    @Test public void measuresNothingWhenDisabled() {
+        Instrumentation.disable();
+
+        expect(1).to(positive);
+
+        assertNull(Instrumentation.metricsFor(positive));
+    }
+
+    @Test public void estimatesPercentiles() {
+        PredicateMetrics metrics = new PredicateMetrics("p");
+        for (int i = 0; i < 99; ++i)
+            metrics.record(100, false);
+        metrics.record(5000, true);
+
+        assertEquals(127, metrics.percentileNanos(50));
+        assertEquals(127, metrics.percentileNanos(99));
+        assertEquals(8191, metrics.percentileNanos(100));
+        assertEquals(149.0, metrics.meanNanos(), 0);
+    }
+
+    @Test public void exposesMetricsThroughJmx() throws Exception {
+        expect(1).to(positive);
+
+        ObjectName name = Instrumentation.registerMBean();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        assertEquals(true, server.getAttribute(name, "Enabled"));
+        assertEquals(name, Instrumentation.registerMBean());
+        TabularData evaluations =
+            (TabularData) server.getAttribute(name, "Evaluations");
+        assertEquals(1, evaluations.size());
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long each : counts)
+            total += each;
+        return total;
+    }
+}
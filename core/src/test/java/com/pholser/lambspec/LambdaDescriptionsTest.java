@@ -0,0 +1,182 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static org.junit.Assert.*;
+
+public class LambdaDescriptionsTest {
+    @Test public void lambdaNamedByEnclosingMethod() {
+        try {
+            expect("foo").to(s -> s.isEmpty());
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[foo] did not satisfy [" + getClass().getName()
+                    + ".lambdaNamedByEnclosingMethod lambda]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void capturedValuesReported() {
+        int minimum = 4;
+
+        try {
+            expect("foo").to(s -> s.length() >= minimum);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[foo] did not satisfy [" + getClass().getName()
+                    + ".capturedValuesReported lambda capturing [4]]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void methodReferenceNamed() {
+        try {
+            expect("foo").to(String::isEmpty);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[foo] did not satisfy [java.lang.String::isEmpty]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void boundReceiverReported() {
+        String other = "bar";
+
+        try {
+            expect("foo").to(other::equals);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[foo] did not satisfy [java.lang.String::equals on [bar]]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void compositeMembersDescribed() {
+        SerializablePredicate<String> empty = String::isEmpty;
+        SerializablePredicate<String> shortish = s -> s.length() < 5;
+
+        try {
+            expect("foo").to(satisfyAll(shortish, empty));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[foo] did not satisfy [all of ["
+                    + getClass().getName() + ".compositeMembersDescribed"
+                    + " lambda, java.lang.String::isEmpty]]:"
+                    + " failed [java.lang.String::isEmpty]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void softFailuresDescribed() {
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            expect("foo").to(String::isEmpty);
+            expect("").to(String::isEmpty);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().contains(
+                    "[foo] did not satisfy [java.lang.String::isEmpty]"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void ordinaryLambdasLeftAlone() {
+        Predicate<String> p = s -> false;
+
+        assertSame(p, LambdaDescriptions.of(p));
+        assertEquals(p.toString(), LambdaDescriptions.describe(p));
+    }
+
+    @Test public void ordinaryObjectsLeftAlone() {
+        Object[] args = { "foo", 1, null };
+
+        assertSame(args, LambdaDescriptions.ofEach(args));
+    }
+
+    @Test public void formWorkedOutOncePerClass() {
+        SerializablePredicate<String> empty = String::isEmpty;
+        LambdaDescriptions.describe(empty);
+
+        long before = LambdaDescriptions.sitesResolved();
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(
+                "java.lang.String::isEmpty",
+                LambdaDescriptions.describe(empty));
+        }
+
+        assertEquals(before, LambdaDescriptions.sitesResolved());
+    }
+
+    @Test public void formTakenOnceForLambdasCapturingNothing() {
+        SerializablePredicate<String> empty = String::isEmpty;
+        LambdaDescriptions.describe(empty);
+
+        long before = LambdaDescriptions.formsTaken();
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(
+                "java.lang.String::isEmpty",
+                LambdaDescriptions.describe(empty));
+        }
+
+        assertEquals(before, LambdaDescriptions.formsTaken());
+    }
+
+    @Test public void formTakenEachTimeForCapturingLambdas() {
+        SerializablePredicate<String> same = "x"::equals;
+
+        long before = LambdaDescriptions.formsTaken();
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(
+                "java.lang.String::equals on [x]",
+                LambdaDescriptions.describe(same));
+        }
+
+        assertEquals(before + 3, LambdaDescriptions.formsTaken());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class MultisetComparisonTest {
+    @Test public void exactlyInAnyOrder() {
+        expect(asList("b", "a", "b"))
+            .to(containExactlyInAnyOrder("a", "b", "b"))
+            .to(Lambspec.not(containExactlyInAnyOrder("a", "b")))
+            .to(Lambspec.not(containExactlyInAnyOrder("a", "a", "b")));
+    }
+
+    @Test public void exactlyInAnyOrderMismatch() {
+        try {
+            expect(asList("b", "a", "c", "c", "b"))
+                .to(containExactlyInAnyOrder("a", "b", "d", "d"));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[b, a, c, c, b]] did not satisfy"
+                    + " [exactly the items [a, b, d x2] in any order]:"
+                    + " lacked d x2; had extra c x2, b",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void all() {
+        expect(asList(1, 2, 2, 3))
+            .to(containAll(2, 2))
+            .to(containAll(asList(3, 1)))
+            .to(containAll())
+            .to(Lambspec.not(containAll(1, 1)));
+    }
+
+    @Test public void allMismatch() {
+        try {
+            expect(asList(1, 2)).to(containAll(1, 1, 4));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[1, 2]] did not satisfy"
+                    + " [at least the items [1 x2, 4] in any order]:"
+                    + " lacked 1, 4",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void subset() {
+        expect(asList("a", "a"))
+            .to(beSubsetOf("a", "b", "a"))
+            .to(beSubsetOf(Collections.<String> emptyList()).negate())
+            .to(Lambspec.not(beSubsetOf("a", "b")));
+        expect(Collections.<String> emptyList()).to(beSubsetOf("a"));
+    }
+
+    @Test public void subsetMismatch() {
+        try {
+            expect(asList("a", "z", "a")).to(beSubsetOf("a"));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[a, z, a]] did not satisfy [only items among [a]]:"
+                    + " had extra z, a",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    enum Color { RED, GREEN, BLUE }
+
+    @Test public void enums() {
+        expect(asList(Color.BLUE, Color.RED, Color.BLUE))
+            .to(containExactlyInAnyOrder(Color.RED, Color.BLUE, Color.BLUE))
+            .to(Lambspec.not(containAll(Color.GREEN)));
+    }
+
+    @Test public void nullsAndMixedTypes() {
+        expect(asList(null, 1L, 1, "1"))
+            .to(containExactlyInAnyOrder("1", 1, null, 1L))
+            .to(Lambspec.not(containExactlyInAnyOrder(1, 1, null, "1")));
+    }
+
+    @Test public void integersOutsideANarrowRange() {
+        expect(asList(-5, 1_000_000, 7))
+            .to(containExactlyInAnyOrder(7, -5, 1_000_000))
+            .to(Lambspec.not(containAll(6)));
+        expect(asList(-5, 3)).to(Lambspec.not(beSubsetOf(3, 4)));
+    }
+
+    @Test public void mismatchBounded() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 20; ++i)
+            items.add(i);
+
+        try {
+            expect(Collections.<Integer> emptyList())
+                .to(containExactlyInAnyOrder(items));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    ": lacked 0, 1, 2, 3, 4, 5, 6, 7,"
+                        + " ... (20 distinct in all)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void describesMismatchesOfOneShotSequences() {
+        AtomicBoolean traversed = new AtomicBoolean();
+        Iterable<String> oneShot = () -> {
+            if (traversed.getAndSet(true))
+                throw new IllegalStateException("already traversed");
+            return asList("b", "a", "c", "c", "b").iterator();
+        };
+
+        try {
+            expect(oneShot).to(containExactlyInAnyOrder("a", "b", "d", "d"));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    ": lacked d x2; had extra c x2, b"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void countsExtrasBeyondThoseDescribed() {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 20; ++i)
+            elements.add(i);
+
+        try {
+            expect(elements).to(beSubsetOf(0, 1));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(
+                    ": had extra 2, 3, 4, 5, 6, 7, 8, 9, ... (10 more)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test(timeout = 10_000) public void largeSequences() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200_000; ++i)
+            expected.add("item" + i);
+        List<String> actual = new ArrayList<>(expected);
+        Collections.reverse(actual);
+
+        expect(actual).to(containExactlyInAnyOrder(expected));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.function.Predicate;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static org.junit.Assert.*;
+
+public class PatternPredicateTest {
+    @Test public void matchingRegex() {
+        expect("abc123")
+            .to(matchRegex("[a-z]+\\d+"))
+            .to(Lambspec.not(matchRegex("\\d+")));
+        expect((String) null).to(Lambspec.not(matchRegex(".*")));
+    }
+
+    @Test public void findingRegex() {
+        expect("abc123")
+            .to(findRegex("\\d+"))
+            .to(Lambspec.not(findRegex("x")));
+    }
+
+    @Test public void describedByPatternSource() {
+        try {
+            expect("abc").to(matchRegex("\\d+"));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[abc] did not satisfy [matching /\\d+/]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void descriptions() {
+        assertEquals(
+            "containing a match for /x+/",
+            findRegex("x+").toString());
+        assertEquals(
+            "matching glob [*.java]",
+            matchGlob("*.java").toString());
+    }
+
+    @Test public void matchingGlobs() {
+        expect("Lambspec.java")
+            .to(matchGlob("*.java"))
+            .to(matchGlob("Lamb????.{java,class}"))
+            .to(matchGlob("[A-Z]*"))
+            .to(Lambspec.not(matchGlob("[!A-Z]*")))
+            .to(Lambspec.not(matchGlob("*.class")));
+        expect("src/main/Lambspec.java")
+            .to(Lambspec.not(matchGlob("*.java")))
+            .to(matchGlob("**.java"))
+            .to(matchGlob("src/*/*.java"));
+        expect("a+b(c).txt").to(matchGlob("a+b(c).*"));
+        expect("*.txt").to(matchGlob("\\*.txt"));
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void malformedRegex() {
+        matchRegex("(");
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void unclosedGlobGroup() {
+        matchGlob("{a,b");
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void unclosedGlobClass() {
+        matchGlob("[ab");
+    }
+
+    @Test public void patternsCompiledOnce() {
+        String regex = "cached-" + System.nanoTime();
+        long before = PatternPredicate.cachedPatternCount();
+
+        for (int i = 0; i < 100; ++i)
+            expect(regex).to(matchRegex(regex));
+
+        assertEquals(before + 1, PatternPredicate.cachedPatternCount());
+    }
+
+    @Test public void matchersPerThread() throws Exception {
+        Predicate<CharSequence> p = matchRegex("a*b");
+        Thread[] threads = new Thread[4];
+        boolean[] failed = new boolean[1];
+        for (int t = 0; t < threads.length; ++t) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; ++i) {
+                    if (!p.test("aaab") || p.test("aaac"))
+                        failed[0] = true;
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread each : threads)
+            each.join();
+
+        assertFalse(failed[0]);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.IntLambspec.*;
+import static org.junit.Assert.*;
+
+public class PrimitiveLambspecTest {
+    @Test public void comparisons() {
+        IntSubject.expect(5)
+            .to(beLessThan(6))
+            .to(beAtMost(5))
+            .to(beGreaterThan(4))
+            .to(beAtLeast(5))
+            .to(beBetween(5, 5))
+            .to(be(5))
+            .to(IntLambspec.not(be(4)))
+            .to(IntLambspec.alwaysTrue);
+    }
+
+    @Test public void unmetComparison() {
+        try {
+            IntSubject.expect(7).to(beBetween(1, 5));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[7] did not satisfy [between 1 and 5]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void conjunction() {
+        IntSubject.expect(3)
+            .to(satisfyAll(beAtLeast(0), beLessThan(10), be(3)));
+    }
+
+    @Test public void unmetConjunctionDescribesMembers() {
+        try {
+            IntSubject.expect(30).to(satisfyAll(beAtLeast(0), beLessThan(10)));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[30] did not satisfy [all of [at least 0, less than 10]]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void disjunction() {
+        IntSubject.expect(30).to(satisfyAny(beLessThan(0), beGreaterThan(10)));
+    }
+
+    @Test public void unmetDisjunctionDescribesMembers() {
+        try {
+            IntSubject.expect(3).to(satisfyAny(be(1), be(2)));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[3] did not satisfy [any of [equal to 1, equal to 2]]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void negationDescribesNegated() {
+        assertEquals(
+            "not [at most 2]",
+            IntLambspec.not(beAtMost(2)).toString());
+    }
+
+    @Test public void arrayHavingItems() {
+        Subject.expect(new int[] { 1, 2, 3 })
+            .to(have(2))
+            .to(haveAnItemSatisfying(beGreaterThan(2)))
+            .to(Lambspec.not(have(4)));
+    }
+
+    @Test public void arrayPredicateDescribesItem() {
+        assertEquals(
+            "an item satisfying [equal to 4]",
+            have(4).toString());
+    }
+
+    @Test public void descriptiveIntPredicate() {
+        assertEquals(
+            "odd",
+            DescriptiveIntPredicate.meet("odd", i -> i % 2 != 0).toString());
+    }
+
+    @Test public void longComparisons() {
+        LongSubject.expect(1L << 40)
+            .to(LongLambspec.beGreaterThan(Integer.MAX_VALUE))
+            .to(LongLambspec.beBetween(0, Long.MAX_VALUE))
+            .to(LongLambspec.satisfyAny(
+                LongLambspec.be(0),
+                LongLambspec.be(1L << 40)));
+    }
+
+    @Test public void doubleComparisons() {
+        DoubleSubject.expect(0.1 + 0.2)
+            .to(DoubleLambspec.beCloseTo(0.3, 1e-9))
+            .to(DoubleLambspec.not(DoubleLambspec.be(0.3)))
+            .to(DoubleLambspec.beBetween(0, 1));
+        DoubleSubject.expect(Double.NaN)
+            .to(DoubleLambspec.be(Double.NaN))
+            .to(DoubleLambspec.not(DoubleLambspec.beAtLeast(0)))
+            .to(DoubleLambspec.not(DoubleLambspec.beLessThan(0)));
+    }
+
+    @Test public void unmetDoubleComparison() {
+        try {
+            DoubleSubject.expect(0.5).to(DoubleLambspec.beCloseTo(1, 0.25));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[0.5] did not satisfy [within 0.25 of 1.0]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+}
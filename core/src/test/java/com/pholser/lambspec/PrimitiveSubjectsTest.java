@@ -0,0 +1,182 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveSubjectsTest {
+    private static final IntPredicate nonNegative = new IntPredicate() {
+        @Override public boolean test(int value) {
+            return value >= 0;
+        }
+
+        @Override public String toString() {
+            return "non-negative";
+        }
+    };
+
+    private static final LongPredicate negative = new LongPredicate() {
+        @Override public boolean test(long value) {
+            return value < 0;
+        }
+
+        @Override public String toString() {
+            return "negative";
+        }
+    };
+
+    @Test public void metIntExpectation() {
+        IntSubject.expect(3).to(i -> i > 2).to(i -> i < 4);
+    }
+
+    @Test public void unmetIntExpectation() {
+        try {
+            IntSubject.expect(-3).to(nonNegative);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[-3] did not satisfy [non-negative]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void allItemsOfIntArraySatisfyingPredicate() {
+        IntSubject.expectEachOf(new int[] { 1, 2, 3 }).to(nonNegative);
+    }
+
+    @Test public void notAllItemsOfIntArraySatisfyingPredicate() {
+        int[] items = IntStream.range(0, 100).toArray();
+        items[50] = -50;
+
+        try {
+            IntSubject.expectEachOf(items).to(nonNegative);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[-50] from sequence [[..., 47, 48, 49, -50, 51, 52, 53, ...]]"
+                    + " did not satisfy [non-negative] (index 50 of 100 items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void notAllItemsOfIntStreamSatisfyingPredicate() {
+        try {
+            IntSubject.expectEachOf(IntStream.range(-2, 100)).to(nonNegative);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[-2] from sequence [[-2, -1, 0, 1, ...]]"
+                    + " did not satisfy [non-negative] (index 0 of 5+ items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void atLeastOneItemOfIntArraySatisfyingPredicate() {
+        IntSubject.expectAtLeastOneOf(new int[] { -1, 2 }).to(nonNegative);
+    }
+
+    @Test public void noItemsOfIntStreamSatisfyingPredicate() {
+        try {
+            IntSubject.expectAtLeastOneOf(IntStream.range(-100, 0))
+                .to(nonNegative);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "No item from sequence [[-100, -99, -98, -97, -96, -95, -94,"
+                    + " ...]] satisfied [non-negative] (100 items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void intStreamSubjectCanBeTestedOnlyOnce() {
+        IntSubject.expectEachOf(IntStream.of(1, 2))
+            .to(nonNegative)
+            .to(nonNegative);
+    }
+
+    @Test public void metLongExpectations() {
+        LongSubject.expect(1L << 40).to(l -> l > Integer.MAX_VALUE);
+        LongSubject.expectEachOf(new long[] { 1, 2 }).to(l -> l > 0);
+        LongSubject.expectEachOf(LongStream.range(0, 10)).to(l -> l < 10);
+        LongSubject.expectAtLeastOneOf(new long[] { 1, 2 }).to(l -> l == 2);
+        LongSubject.expectAtLeastOneOf(LongStream.of(3)).to(l -> l == 3);
+    }
+
+    @Test public void unmetLongExpectation() {
+        try {
+            LongSubject.expectAtLeastOneOf(new long[] { 1, 2 })
+                .to(negative);
+        } catch (AssertionError expected) {
+            assertEquals(
+                "No item from sequence [[1, 2]] satisfied [negative] (2 items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void metDoubleExpectations() {
+        DoubleSubject.expect(0.5).to(d -> d < 1);
+        DoubleSubject.expectEachOf(new double[] { 0.1, 0.2 }).to(d -> d < 1);
+        DoubleSubject.expectEachOf(DoubleStream.of(0.1)).to(d -> d < 1);
+        DoubleSubject.expectAtLeastOneOf(new double[] { 1, Double.NaN })
+            .to(Double::isNaN);
+        DoubleSubject.expectAtLeastOneOf(DoubleStream.of(2.5)).to(d -> d > 2);
+    }
+
+    @Test public void unmetDoubleExpectation() {
+        try {
+            DoubleSubject.expectEachOf(new double[] { 0.5, Double.NaN })
+                .to(d -> !Double.isNaN(d));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith(
+                    "[NaN] from sequence [[0.5, NaN]] did not satisfy"));
+            return;
+        }
+
+        fail();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class SequenceShapeTest {
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterClass public static void shutDown() {
+        pool.shutdown();
+    }
+
+    @Test public void sorted() {
+        expect(asList(1, 2, 2, 3))
+            .to(beSorted())
+            .to(Lambspec.not(beStrictlySorted()))
+            .to(Lambspec.not(
+                Lambspec.<Integer> beSorted().withoutDuplicates()));
+        expect(new LinkedList<>(asList("a", "b", "c")))
+            .to(Lambspec.<String> beStrictlySorted().withoutDuplicates());
+        expect(asList(3, 2, 1))
+            .to(beStrictlySortedBy(Comparator.<Integer> reverseOrder()));
+    }
+
+    @Test public void outOfOrder() {
+        try {
+            expect(asList("a", "c", "b", "d")).to(beSorted());
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[a, c, b, d]] did not satisfy [sorted]:"
+                    + " out of order at index 2: [b] after [c]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void duplicates() {
+        try {
+            expect(asList("a", "b", "c", "b", "a")).to(haveNoDuplicates());
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[[a, b, c, b, a]] did not satisfy [without duplicates]:"
+                    + " duplicate at index 3: [b] first seen at index 1",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void duplicateNulls() {
+        expect(asList(null, "a")).to(haveNoDuplicates());
+        expect(asList(null, "a", null))
+            .to(Lambspec.not(haveNoDuplicates()));
+    }
+
+    @Test public void sortedByComparatorDescribed() {
+        Comparator<String> byLength = new Comparator<String>() {
+            @Override public int compare(String first, String second) {
+                return Integer.compare(first.length(), second.length());
+            }
+
+            @Override public String toString() {
+                return "length";
+            }
+        };
+
+        assertEquals(
+            "strictly sorted by length and without duplicates",
+            beStrictlySortedBy(byLength).withoutDuplicates().toString());
+    }
+
+    @Test public void intArrays() {
+        Subject.<int[]> expect(new int[] { -5, 0, 0, 7 })
+            .to(IntLambspec.beSorted())
+            .to(Lambspec.not(IntLambspec.beStrictlySorted()))
+            .to(Lambspec.not(IntLambspec.haveNoDuplicates()));
+        Subject.<int[]> expect(new int[] { 9, Integer.MIN_VALUE, 7 })
+            .to(IntLambspec.haveNoDuplicates())
+            .to(Lambspec.not(IntLambspec.beSorted()));
+    }
+
+    @Test public void primitiveArrayMismatches() {
+        assertEquals(
+            "duplicate at index 2: [4] first seen at index 0",
+            IntLambspec.haveNoDuplicates()
+                .describeMismatch(new int[] { 4, 8, 4 }));
+        assertEquals(
+            "out of order at index 1: [2] after [3]",
+            LongLambspec.beSorted().describeMismatch(new long[] { 3, 2 }));
+        assertEquals(
+            "duplicate at index 1: [NaN] first seen at index 0",
+            DoubleLambspec.haveNoDuplicates()
+                .describeMismatch(new double[] { Double.NaN, Double.NaN }));
+    }
+
+    @Test public void longsAndDoubles() {
+        Subject.<long[]> expect(new long[] { Long.MIN_VALUE, Long.MAX_VALUE })
+            .to(LongLambspec.beStrictlySorted())
+            .to(LongLambspec.haveNoDuplicates());
+        Subject.<double[]> expect(new double[] { -0.0, 0.0, Double.NaN })
+            .to(DoubleLambspec.beStrictlySorted())
+            .to(DoubleLambspec.haveNoDuplicates());
+    }
+
+    @Test public void largeListsInParallel() {
+        int size = 20 * SequenceShape.PARALLEL_THRESHOLD;
+        List<Integer> items = new ArrayList<>(size);
+        int[] values = new int[size];
+        for (int i = 0; i < size; ++i) {
+            items.add(i);
+            values[i] = i;
+        }
+
+        expect(items)
+            .to(Lambspec.<Integer> beStrictlySorted().inParallel(pool))
+            .to(Lambspec.<Integer> haveNoDuplicates().inParallel(pool));
+        Subject.<int[]> expect(values)
+            .to(IntLambspec.beSorted().withoutDuplicates().inParallel(pool))
+            .to(IntLambspec.haveNoDuplicates().inParallel(pool));
+
+        int boundary = 5 * SequenceShape.PARALLEL_THRESHOLD;
+        items.set(boundary, boundary - 2);
+        values[boundary] = boundary - 2;
+
+        expect(items)
+            .to(Lambspec.not(Lambspec.<Integer> beSorted().inParallel(pool)))
+            .to(Lambspec.not(
+                Lambspec.<Integer> haveNoDuplicates().inParallel(pool)));
+        Subject.<int[]> expect(values)
+            .to(Lambspec.not(IntLambspec.beSorted().inParallel(pool)))
+            .to(Lambspec.not(IntLambspec.haveNoDuplicates().inParallel(pool)));
+        assertEquals(
+            "out of order at index " + boundary
+                + ": [" + (boundary - 2) + "] after [" + (boundary - 1) + ']',
+            Lambspec.<Integer> beSorted()
+                .inParallel(pool)
+                .describeMismatch(items));
+    }
+
+    @Test public void intsOverAWideRange() {
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; ++i)
+            values[i] = i * 1_000_003;
+
+        Subject.<int[]> expect(values).to(IntLambspec.haveNoDuplicates());
+        values[999] = values[10];
+        Subject.<int[]> expect(values)
+            .to(Lambspec.not(IntLambspec.haveNoDuplicates()));
+    }
+
+    @Test public void spansAtTheEdgeOfABitSet() {
+        int edge = (int) SequenceShape.BITSET_SPAN_PER_ELEMENT * 2;
+        Subject.<int[]> expect(new int[] { 0, edge - 1 })
+            .to(IntLambspec.haveNoDuplicates());
+        Subject.<int[]> expect(new int[] { 0, edge })
+            .to(IntLambspec.haveNoDuplicates());
+        Subject.<int[]> expect(new int[] { edge - 1, 0, edge - 1 })
+            .to(Lambspec.not(IntLambspec.haveNoDuplicates()));
+        Subject.<int[]> expect(new int[] { edge, 0, edge })
+            .to(Lambspec.not(IntLambspec.haveNoDuplicates()));
+    }
+
+    @Test public void extremeValues() {
+        Subject.<int[]> expect(
+            new int[] { Integer.MAX_VALUE, Integer.MIN_VALUE })
+            .to(IntLambspec.haveNoDuplicates());
+        Subject.<long[]> expect(
+            new long[] { Long.MAX_VALUE, Long.MIN_VALUE, 0 })
+            .to(LongLambspec.haveNoDuplicates());
+        Subject.<long[]> expect(
+            new long[] { Long.MIN_VALUE, 1, Long.MIN_VALUE })
+            .to(Lambspec.not(LongLambspec.haveNoDuplicates()));
+        Subject.<long[]> expect(new long[0])
+            .to(LongLambspec.haveNoDuplicates());
+    }
+}
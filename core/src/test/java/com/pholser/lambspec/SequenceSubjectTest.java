@@ -0,0 +1,176 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.SequenceSubject.*;
+import static com.pholser.lambspec.Subject.*;
+import static org.junit.Assert.*;
+
+public class SequenceSubjectTest {
+    private ForkJoinPool pool;
+    private List<Integer> items;
+
+    @Before public void beforeEach() {
+        pool = new ForkJoinPool(4);
+        items = new ArrayList<>();
+        for (int i = 0; i < 100_000; ++i)
+            items.add(i);
+    }
+
+    @After public void afterEach() {
+        pool.shutdownNow();
+    }
+
+    @Test public void allItemsSatisfyingPredicateInParallel() {
+        eachOf(items)
+            .inParallel(pool)
+            .to(i -> i >= 0)
+            .to(i -> i < 100_000);
+    }
+
+    @Test public void reportsLowestFailingIndexInParallel() {
+        for (int trial = 0; trial < 20; ++trial) {
+            try {
+                eachOf(items)
+                    .inParallel(pool)
+                    .to(meet(
+                        "not a multiple of 7919",
+                        i -> i % 7919 != 0 || i == 0));
+            } catch (AssertionError expected) {
+                assertEquals(
+                    "[7919] from sequence [[..., 7916, 7917, 7918, 7919, 7920,"
+                        + " 7921, 7922, ...]] did not satisfy"
+                        + " [not a multiple of 7919]"
+                        + " (index 7919 of 100000 items)",
+                    expected.getMessage());
+                continue;
+            }
+
+            fail();
+        }
+    }
+
+    @Test public void stopsTestingOnceAnItemFails() {
+        AtomicInteger tests = new AtomicInteger();
+
+        try {
+            eachOf(items)
+                .inParallel(pool)
+                .to(i -> tests.incrementAndGet() > 0 && i != 10);
+        } catch (AssertionError expected) {
+            assertTrue(tests.get() < items.size());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void reportsFailingItemOfUnorderedCollectionInParallel() {
+        try {
+            eachOf(new HashSet<>(items))
+                .inParallel(pool)
+                .to(meet("less than 99999", i -> i < 99_999));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage()
+                    .startsWith("[99999] from sequence [[..."));
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(" of 100000 items)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void sequenceOfUnknownSizeInParallel() {
+        try {
+            eachOf(plainIterable(items))
+                .inParallel(pool)
+                .to(meet("less than 50000", i -> i < 50_000));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[50000] from sequence [[..., 50000, ...]] did not satisfy"
+                    + " [less than 50000] (index 50000 of 50001+ items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void atLeastOneItemSatisfyingPredicateInParallel() {
+        atLeastOneOf(items).inParallel(pool).to(i -> i == 99_999);
+    }
+
+    @Test public void stopsTestingOnceAnItemSucceeds() {
+        AtomicInteger tests = new AtomicInteger();
+
+        atLeastOneOf(items)
+            .inParallel(pool)
+            .to(i -> tests.incrementAndGet() > 0 && i == 10);
+
+        assertTrue(tests.get() < items.size());
+    }
+
+    @Test public void noItemsSatisfyingPredicateInParallel() {
+        try {
+            atLeastOneOf(plainIterable(items))
+                .inParallel(pool)
+                .to(meet("negative", i -> i < 0));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "No item from sequence [[0, 1, 2, 3, 4, 5, 6, ...]] satisfied"
+                    + " [negative] (100000 items)",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void emptySequenceInParallel() {
+        eachOf(new ArrayList<Integer>())
+            .inParallel()
+            .to(Lambspec.alwaysFalse);
+    }
+
+    private static <T> Iterable<T> plainIterable(Iterable<T> items) {
+        return () -> items.iterator();
+    }
+}
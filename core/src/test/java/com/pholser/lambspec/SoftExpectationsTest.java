@@ -0,0 +1,184 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static java.util.Arrays.*;
+import static org.junit.Assert.*;
+
+public class SoftExpectationsTest {
+    @Test public void noFailures() {
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            expect(1).to(be(1));
+            assertEquals(0, soft.failureCount());
+        }
+    }
+
+    @Test public void reportsAllFailuresOnClose() {
+        String nl = System.lineSeparator();
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            expect(1).to(be(2)).to(be(1)).to(be(3));
+            expectEachOf(asList("a", "bb")).to(s -> s.length() == 1);
+            assertEquals(3, soft.failureCount());
+        } catch (AssertionError expected) {
+            String message = expected.getMessage();
+            assertTrue(message, message.startsWith(
+                "3 expectations were not met:" + nl + "  1) [1] did not"));
+            assertTrue(message, message.contains(nl + "  3) [bb] from"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void failDoesNotReturnToSubjectsWhileCollecting() {
+        AtomicBoolean fellThrough = new AtomicBoolean();
+        Subject<String> subject = new Subject<String>() {
+            @Override protected void test(Predicate<? super String> p) {
+                if (!p.test("x")) {
+                    fail("[x] did not satisfy [%s]", p);
+                    fellThrough.set(true);
+                }
+            }
+        };
+
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            subject.to(alwaysFalse);
+            assertEquals(1, soft.failureCount());
+        } catch (AssertionError expected) {
+            assertFalse(fellThrough.get());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void recordedFailuresHaveNoStackTrace() {
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            expect(1).to(alwaysFalse);
+
+            AssertionError recorded = soft.failures().get(0);
+            assertEquals(0, recorded.getStackTrace().length);
+            assertEquals(
+                "[1] did not satisfy [" + alwaysFalse + ']',
+                recorded.getMessage());
+        } catch (AssertionError expected) {
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void countsButDoesNotRecordFailuresBeyondLimit() {
+        try (SoftExpectations soft = SoftExpectations.collect(2)) {
+            for (int i = 0; i < 5; ++i)
+                expect(i).to(alwaysFalse);
+
+            assertEquals(2, soft.failures().size());
+            assertEquals(5, soft.failureCount());
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith("5 expectations")
+                    && expected.getMessage().endsWith("(3 more not recorded)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void collectsPrimitiveFailures() {
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            IntSubject.expect(1).to(i -> i > 1);
+            IntSubject.expectEachOf(IntStream.range(0, 10)).to(i -> i < 5);
+            assertEquals(2, soft.failureCount());
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith("2 expectations"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void nestedCollectorsResumeEnclosingOne() {
+        try (SoftExpectations outer = SoftExpectations.collect()) {
+            try (SoftExpectations inner = SoftExpectations.collect()) {
+                expect(1).to(alwaysFalse);
+            } catch (AssertionError expected) {
+                assertEquals(0, outer.failureCount());
+            }
+            expect(2).to(alwaysFalse);
+            assertEquals(1, outer.failureCount());
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith("1 expectation was not met"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void throwsAgainOnceClosed() {
+        SoftExpectations soft = SoftExpectations.collect();
+        soft.close();
+
+        try {
+            expect(1).to(alwaysFalse);
+        } catch (AssertionError expected) {
+            assertNotEquals(0, expected.getStackTrace().length);
+            return;
+        }
+
+        fail();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closingOutOfOrder() {
+        SoftExpectations outer = SoftExpectations.collect();
+        SoftExpectations inner = SoftExpectations.collect();
+        try {
+            outer.close();
+        } finally {
+            inner.close();
+            outer.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLimit() {
+        SoftExpectations.collect(-1);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.Subject.*;
+import static org.junit.Assert.*;
+
+public class SubstringPredicateTest {
+    @Test public void anyOf() {
+        expect("the quick brown fox")
+            .to(containAnyOf("cat", "brown", "dog"))
+            .to(Lambspec.not(containAnyOf("cat", "dog")))
+            .to(Lambspec.not(containAnyOf()));
+    }
+
+    @Test public void allOf() {
+        expect("the quick brown fox")
+            .to(containAllOf("fox", "quick", "the"))
+            .to(containAllOf())
+            .to(Lambspec.not(containAllOf("fox", "cat")));
+    }
+
+    @Test public void noneOf() {
+        expect("the quick brown fox")
+            .to(containNoneOf("cat", "dog"))
+            .to(Lambspec.not(containNoneOf("cat", "ick")));
+    }
+
+    @Test public void forbiddenTokenReported() {
+        try {
+            expect("user=bob password=hunter2")
+                .to(containNoneOf("secret", "password", "word"));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[user=bob password=hunter2] did not satisfy"
+                    + " [containing none of [\"secret\", \"password\","
+                    + " \"word\"]]: contained \"password\" at offset 9",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void missingTokensReported() {
+        try {
+            expect("abc").to(containAllOf("a", "x", "bc", "y"));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().endsWith(": lacked \"x\", \"y\""));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void nullSatisfiesNoneOfThem() {
+        expect((CharSequence) null)
+            .to(Lambspec.not(containAnyOf("x")))
+            .to(Lambspec.not(containAllOf()));
+        try {
+            expect((CharSequence) null).to(containNoneOf("x"));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[null] did not satisfy [containing none of [\"x\"]]",
+                expected.getMessage());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void overlappingAndNestedTokens() {
+        expect("ushers")
+            .to(containAllOf("he", "she", "his", "hers").negate())
+            .to(containAllOf("he", "she", "hers", "us", "s"));
+        assertEquals(
+            "contained \"she\" at offset 1",
+            SubstringPredicate.noneOf(new String[] { "hers", "he", "she" })
+                .describeMismatch("ushers"));
+    }
+
+    @Test public void nonAsciiTokens() {
+        expect("na\u00efve caf\u00e9 \u2615")
+            .to(containAllOf("\u00ef", "caf\u00e9", "\u2615"))
+            .to(containNoneOf("cafe"));
+    }
+
+    @Test public void emptyToken() {
+        expect("").to(containAnyOf(""));
+        expect("x").to(Lambspec.not(containNoneOf("", "y")));
+    }
+
+    @Test public void agreesWithNaiveSearch() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 500; ++trial) {
+            String text = randomString(random, 40);
+            String[] tokens = new String[1 + random.nextInt(6)];
+            for (int i = 0; i < tokens.length; ++i)
+                tokens[i] = randomString(random, 1 + random.nextInt(4));
+
+            boolean any = false;
+            boolean all = true;
+            for (String each : tokens) {
+                any |= text.contains(each);
+                all &= text.contains(each);
+            }
+
+            assertEquals(any, containAnyOf(tokens).test(text));
+            assertEquals(all, containAllOf(tokens).test(text));
+            assertEquals(!any, containNoneOf(tokens).test(text));
+        }
+    }
+
+    @Test public void manyTokens() {
+        String[] tokens = new String[500];
+        for (int i = 0; i < tokens.length; ++i)
+            tokens[i] = "token" + i + ';';
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 100_000; ++i)
+            log.append("line ").append(i).append('\n');
+
+        expect(log).to(containNoneOf(tokens));
+        log.append("token499;");
+        expect(log).to(containAnyOf(tokens));
+    }
+
+    private static String randomString(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; ++i)
+            chars[i] = (char) ('a' + random.nextInt(3));
+        return new String(chars);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import static com.pholser.lambspec.DescriptivePredicate.*;
+import static com.pholser.lambspec.Lambspec.*;
+import static com.pholser.lambspec.SequenceSubject.*;
+import static com.pholser.lambspec.Subject.*;
+import static org.junit.Assert.*;
+
+public class TimeBudgetTest {
+    private static final Iterable<Integer> naturals = () ->
+        new Iterator<Integer>() {
+            private int next;
+
+            @Override public boolean hasNext() {
+                return true;
+            }
+
+            @Override public Integer next() {
+                return next++;
+            }
+        };
+
+    @Test public void predicateAnsweringInTime() {
+        expect(2).to(within(Duration.ofSeconds(5), i -> i > 1));
+        expect(2).to(Lambspec.not(within(Duration.ofSeconds(5), i -> i > 2)));
+    }
+
+    @Test public void predicateNotAnsweringInTime() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try {
+            expect("x").to(within(
+                Duration.ofMillis(20),
+                meet("slow", s -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return true;
+                })));
+        } catch (AssertionError expected) {
+            assertEquals(
+                "[x] did not satisfy [slow]:"
+                    + " could not be tested within PT0.02S",
+                expected.getMessage());
+            assertEquals(0, interrupted.getCount());
+            assertFalse(Thread.currentThread().isInterrupted());
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void timeOutsAreCollectedSoftly() {
+        try (SoftExpectations soft = SoftExpectations.collect()) {
+            expect("x").to(within(
+                Duration.ofMillis(20),
+                meet("slow", s -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException ignored) {
+                        // time's up
+                    }
+                    return true;
+                })));
+            expect("y").to(within(Duration.ofSeconds(5), s -> true));
+
+            assertEquals(1, soft.failureCount());
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().contains("could not be tested within"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void timeBoundPredicateDescribesItselfAsItsDelegate() {
+        Predicate<Integer> odd = meet("odd", i -> i % 2 == 1);
+
+        assertEquals("odd", within(Duration.ofSeconds(1), odd).toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void timeBoundPredicatePassesAlongExceptions() {
+        within(Duration.ofSeconds(1), o -> {
+            throw new IllegalStateException();
+        }).test(1);
+    }
+
+    @Test public void eachOfInfiniteSequenceRunsOutOfTime() {
+        try {
+            eachOf(naturals)
+                .within(Duration.ofMillis(50))
+                .to(i -> i >= 0);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().matches(
+                    "Ran out of time \\(PT0.05S\\) testing items from sequence"
+                        + " against \\[.*\\]: \\d+ items checked in PT.*S"
+                        + " \\(\\d+ items/s\\)"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void slowItemsOverrunBudgetByAtMostOneItem() {
+        AtomicInteger tested = new AtomicInteger();
+        try {
+            eachOf(naturals)
+                .within(Duration.ofMillis(50))
+                .to(i -> {
+                    tested.incrementAndGet();
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return true;
+                });
+        } catch (AssertionError expected) {
+            assertTrue(String.valueOf(tested.get()), tested.get() <= 3);
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void atLeastOneOfInfiniteSequenceRunsOutOfTime() {
+        try {
+            atLeastOneOf(naturals)
+                .within(Duration.ofMillis(50))
+                .to(i -> i < 0);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith("Ran out of time"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void parallelTestingRunsOutOfTime() {
+        try {
+            eachOf(naturals)
+                .inParallel()
+                .within(Duration.ofMillis(50))
+                .to(i -> i >= 0);
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith("Ran out of time"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test public void failureFoundBeforeRunningOutOfTime() {
+        try {
+            eachOf(naturals)
+                .within(Duration.ofSeconds(10))
+                .to(meet("small", (Integer i) -> i < 5));
+        } catch (AssertionError expected) {
+            assertTrue(
+                expected.getMessage(),
+                expected.getMessage().startsWith("[5] from sequence"));
+            return;
+        }
+
+        fail();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeBudget() {
+        eachOf(naturals).within(Duration.ofSeconds(-1));
+    }
+}
@@ -25,6 +25,8 @@
 
 package com.pholser.lambspec.junit;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.function.Predicate;
 
 import org.junit.AssumptionViolatedException;
@@ -54,7 +56,7 @@ public abstract class Assumption<S> {
     public static <T> Assumption<T> assume(T target) {
         return new Assumption<T>() {
             @Override protected void test(Predicate<? super T> p) {
-                if (!p.test(target))
+                if (!AssumptionCache.holds(target, p))
                     fail("[%s] did not satisfy [%s]", target, p);
             }
         };
@@ -90,7 +92,53 @@ public abstract class Assumption<S> {
      * @throws AssumptionViolatedException always
      */
     protected void fail(String messageTemplate, Object... args) {
+        if (AssumptionCache.active() != null)
+            throw new Rejection(messageTemplate, args);
+
         throw new AssumptionViolatedException(
             String.format(messageTemplate, args));
     }
+
+    /**
+     * An assumption failure raised while an {@link AssumptionCache} is in
+     * effect: no stack trace, and a message formatted only on demand, or
+     * when the rejection is serialized, so that only the message travels.
+     */
+    private static final class Rejection extends AssumptionViolatedException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient String messageTemplate;
+        private final transient Object[] args;
+        private volatile String message;
+
+        Rejection(String messageTemplate, Object... args) {
+            super(messageTemplate);
+            this.messageTemplate = messageTemplate;
+            this.args = args;
+        }
+
+        @Override public String getMessage() {
+            String result = message;
+            if (result == null) {
+                result = String.format(messageTemplate, args);
+                message = result;
+            }
+            return result;
+        }
+
+        @Override public void describeTo(
+            org.hamcrest.Description description) {
+
+            description.appendText(getMessage());
+        }
+
+        @Override public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            getMessage();
+            out.defaultWriteObject();
+        }
+    }
 }
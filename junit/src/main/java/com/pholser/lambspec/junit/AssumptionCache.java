@@ -0,0 +1,205 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec.junit;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * <p>A JUnit rule that remembers whether {@linkplain Assumption assumptions}
+ * held, so that an assumption made again on an equal target with the same
+ * predicate is not evaluated again.</p>
+ *
+ * <p>This pays off under the {@link org.junit.experimental.theories.Theories
+ * Theories} runner, where a theory's assumptions about one datapoint are
+ * otherwise re-evaluated for every combination of the other parameters.
+ * Apply it as a {@link org.junit.ClassRule ClassRule}, so that outcomes are
+ * kept for the whole run of the test class:</p>
+ *
+ * <pre>
+ * &#64;RunWith(Theories.class)
+ * public class PrimeTheories {
+ *     &#64;ClassRule public static final AssumptionCache assumptions =
+ *         new AssumptionCache();
+ *
+ *     private static final Predicate&lt;Integer&gt; prime = ...;
+ *
+ *     &#64;Theory public void factoring(int n, int m) {
+ *         assume(n).to(prime);
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>Targets and predicates are compared by
+ * {@linkplain Object#equals(Object) equality}. Lambspec's predicates made
+ * from equal arguments, such as {@code be(3)}, are equal, so
+ * {@code assume(n).to(be(3))} is remembered even though each evaluation
+ * makes a new predicate. A lambda, though, is equal only to itself, and
+ * one that captures variables is a new predicate each time its expression
+ * is evaluated, and so will not be remembered. Targets are assumed not to
+ * change in ways that would alter the outcome for the life of the
+ * rule.</p>
+ *
+ * <p>While the rule is in effect, violated assumptions are reported
+ * without a stack trace, and their messages are formatted only if asked
+ * for, so that rejecting a datapoint costs little more than a lookup.</p>
+ */
+public final class AssumptionCache implements TestRule {
+    /** How many outcomes a cache remembers by default. */
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    private static final ThreadLocal<AssumptionCache> ACTIVE =
+        new ThreadLocal<>();
+
+    private final int capacity;
+    private final Map<Key, Boolean> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Makes a cache that remembers up to {@link #DEFAULT_CAPACITY}
+     * outcomes.
+     */
+    public AssumptionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Makes a cache that remembers up to the given number of outcomes;
+     * outcomes beyond that are evaluated every time.
+     *
+     * @param capacity how many outcomes to remember
+     * @throws IllegalArgumentException if {@code capacity} is negative
+     */
+    public AssumptionCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(
+                "negative capacity: " + capacity);
+        }
+
+        this.capacity = capacity;
+    }
+
+    @Override public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override public void evaluate() throws Throwable {
+                AssumptionCache previous = ACTIVE.get();
+                ACTIVE.set(AssumptionCache.this);
+                try {
+                    base.evaluate();
+                } finally {
+                    if (previous == null)
+                        ACTIVE.remove();
+                    else
+                        ACTIVE.set(previous);
+                    outcomes.clear();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return how many assumptions were answered from this cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many assumptions were evaluated while this cache was in
+     * effect
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the cache in effect on the current thread, or {@code null}
+     * if none is
+     */
+    static AssumptionCache active() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * Tests the given predicate on the given target, consulting the cache
+     * in effect on the current thread, if any.
+     */
+    static <T> boolean holds(T target, Predicate<? super T> p) {
+        AssumptionCache cache = ACTIVE.get();
+        return cache == null ? p.test(target) : cache.test(target, p);
+    }
+
+    private <T> boolean test(T target, Predicate<? super T> p) {
+        Key key = new Key(target, p);
+        Boolean known = outcomes.get(key);
+        if (known != null) {
+            hits.increment();
+            return known;
+        }
+
+        misses.increment();
+        boolean outcome = p.test(target);
+        if (outcomes.size() < capacity)
+            outcomes.putIfAbsent(key, outcome);
+        return outcome;
+    }
+
+    private static final class Key {
+        private final Object target;
+        private final Object predicate;
+        private final int hash;
+
+        Key(Object target, Object predicate) {
+            this.target = target;
+            this.predicate = predicate;
+            this.hash = 31 * Objects.hashCode(target) + predicate.hashCode();
+        }
+
+        @Override public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key))
+                return false;
+
+            Key other = (Key) o;
+            return predicate.equals(other.predicate)
+                && Objects.equals(target, other.target);
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+}
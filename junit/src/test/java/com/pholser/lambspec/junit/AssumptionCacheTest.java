@@ -0,0 +1,191 @@
+/*
+ The MIT License
+
+ Copyright (c) 2014-2016 Paul R. Holser, Jr.
+
+ Permission is hereby granted, free of charge, to any person obtaining
+ a copy of this software and associated documentation files (the
+ "Software"), to deal in the Software without restriction, including
+ without limitation the rights to use, copy, modify, merge, publish,
+ distribute, sublicense, and/or sell copies of the Software, and to
+ permit persons to whom the Software is furnished to do so, subject to
+ the following conditions:
+
+ The above copyright notice and this permission notice shall be
+ included in all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+
+package com.pholser.lambspec.junit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.AssumptionViolatedException;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.model.Statement;
+
+import static com.pholser.lambspec.Lambspec.be;
+import static com.pholser.lambspec.Lambspec.matchRegex;
+import static com.pholser.lambspec.junit.Assumption.*;
+import static org.junit.Assert.*;
+import static org.junit.runner.Description.*;
+
+public class AssumptionCacheTest {
+    @Test public void theoryAssumptionsEvaluatedOncePerDatapoint() {
+        Result result = JUnitCore.runClasses(EvenTheories.class);
+
+        assertTrue(result.getFailures().toString(), result.wasSuccessful());
+        int datapoints = EvenTheories.datapoints.length;
+        assertEquals(datapoints, EvenTheories.evaluations.get());
+        assertEquals(
+            datapoints * datapoints - datapoints,
+            EvenTheories.assumptions.hitCount());
+    }
+
+    @Test public void rejectionWithinCache() throws Throwable {
+        AssumptionCache cache = new AssumptionCache();
+
+        cache.apply(new Statement() {
+            @Override public void evaluate() {
+                try {
+                    assume("foo").to(s -> s.startsWith("d"));
+                    fail();
+                } catch (AssumptionViolatedException expected) {
+                    assertEquals(0, expected.getStackTrace().length);
+                    assertTrue(
+                        expected.getMessage(),
+                        expected.getMessage().startsWith(
+                            "[foo] did not satisfy [" + getClass().getName()));
+                }
+            }
+        }, EMPTY).evaluate();
+    }
+
+    @Test public void rejectionSerializesItsMessageOnly() throws Throwable {
+        AssumptionCache cache = new AssumptionCache();
+        AssumptionViolatedException[] rejection =
+            new AssumptionViolatedException[1];
+
+        cache.apply(new Statement() {
+            @Override public void evaluate() {
+                try {
+                    assume(new Object() {
+                        @Override public String toString() {
+                            return "foo";
+                        }
+                    }).to(o -> false);
+                } catch (AssumptionViolatedException expected) {
+                    rejection[0] = expected;
+                }
+            }
+        }, EMPTY).evaluate();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(rejection[0]);
+        }
+        Object copy;
+        try (ObjectInputStream in = new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = in.readObject();
+        }
+
+        assertEquals(
+            rejection[0].getMessage(),
+            ((AssumptionViolatedException) copy).getMessage());
+    }
+
+    @Test public void outcomesForgottenAfterRule() throws Throwable {
+        AssumptionCache cache = new AssumptionCache();
+        AtomicInteger evaluations = new AtomicInteger();
+        Predicate<String> p = s -> evaluations.incrementAndGet() > 0;
+        Statement assumeTwice = new Statement() {
+            @Override public void evaluate() {
+                assume("foo").to(p);
+                assume("foo").to(p);
+            }
+        };
+
+        cache.apply(assumeTwice, EMPTY).evaluate();
+        cache.apply(assumeTwice, EMPTY).evaluate();
+
+        assertEquals(2, evaluations.get());
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.missCount());
+        assertNull(AssumptionCache.active());
+    }
+
+    @Test public void lambspecPredicatesMadeAfreshAreRemembered()
+        throws Throwable {
+
+        AssumptionCache cache = new AssumptionCache();
+
+        cache.apply(new Statement() {
+            @Override public void evaluate() {
+                for (int i = 0; i < 3; ++i) {
+                    assume(3).to(be(3));
+                    assume("foo").to(matchRegex("f.*"));
+                }
+            }
+        }, EMPTY).evaluate();
+
+        assertEquals(2, cache.missCount());
+        assertEquals(4, cache.hitCount());
+    }
+
+    @Test public void noCachingBeyondCapacity() throws Throwable {
+        AssumptionCache cache = new AssumptionCache(0);
+        AtomicInteger evaluations = new AtomicInteger();
+        Predicate<String> p = s -> evaluations.incrementAndGet() > 0;
+
+        cache.apply(new Statement() {
+            @Override public void evaluate() {
+                assume("foo").to(p);
+                assume("foo").to(p);
+            }
+        }, EMPTY).evaluate();
+
+        assertEquals(2, evaluations.get());
+    }
+
+    @RunWith(Theories.class)
+    public static class EvenTheories {
+        @ClassRule public static final AssumptionCache assumptions =
+            new AssumptionCache();
+
+        static final AtomicInteger evaluations = new AtomicInteger();
+
+        private static final Predicate<Integer> even = i -> {
+            evaluations.incrementAndGet();
+            return i % 2 == 0;
+        };
+
+        @DataPoints public static final int[] datapoints =
+            { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+        @Theory public void sumOfEvens(int i, int j) {
+            assume(i).to(even);
+
+            assertEquals(i % 2, (i + j + j) % 2);
+        }
+    }
+}